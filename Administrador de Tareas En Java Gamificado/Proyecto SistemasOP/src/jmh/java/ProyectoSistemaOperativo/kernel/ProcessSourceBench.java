@@ -0,0 +1,61 @@
+package ProyectoSistemaOperativo.kernel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import oshi.SystemInfo;
+import oshi.software.os.OperatingSystem;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de un tick de cada fuente de procesos contra el sistema real (no la sintetica):
+ * OSHI generico contra la lectura directa de /proc. Los bytes reservados por tick se ven
+ * con el perfilador de memoria de JMH: java -jar target/benchmarks.jar ProcessSourceBench -prof gc
+ *
+ * procfs solo existe en Linux; en otro sistema ese caso falla en el setup y sigue el resto.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ProcessSourceBench {
+
+    @Param({"oshi", "procfs"})
+    public String source;
+
+    private ProcessSource processSource;
+    private ProcessSnapshot snapshot;
+
+    @Setup
+    public void setup() {
+        OperatingSystem os = new SystemInfo().getOperatingSystem();
+        if ("procfs".equals(source)) {
+            if (!(ProcessSource.createDefault(os) instanceof LinuxProcfsProcessSource)) {
+                throw new IllegalStateException("La fuente procfs solo esta disponible en Linux");
+            }
+            processSource = new LinuxProcfsProcessSource(os);
+        } else {
+            processSource = new OshiProcessSource(os);
+        }
+        NameTable names = new NameTable();
+        snapshot = new ProcessSnapshot(names, new SnapshotPool(names));
+    }
+
+    @Benchmark
+    public ProcessSnapshot sample() {
+        snapshot.reset(System.currentTimeMillis());
+        processSource.sample(snapshot);
+        return snapshot;
+    }
+}
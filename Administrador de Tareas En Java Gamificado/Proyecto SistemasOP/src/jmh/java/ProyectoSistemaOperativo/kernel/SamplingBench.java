@@ -0,0 +1,80 @@
+package ProyectoSistemaOperativo.kernel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo del lado kernel de un tick: llenar la foto desde la fuente (lo que
+ * antes era KernelManager.getProcesses()), calcular el CPU por intervalo, armar
+ * el arbol de procesos y guardar la muestra en la historia.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class SamplingBench {
+
+    @Param({"500", "5000", "50000"})
+    public int processes;
+
+    private SyntheticProcessSource source;
+    private ProcessSnapshot snapshot;
+    private ProcessCpuTracker tracker;
+    private ProcessTreeTracker treeTracker;
+    private MetricsHistory history;
+
+    @Setup
+    public void setup() {
+        source = new SyntheticProcessSource(processes, 0.01);
+        snapshot = source.newSnapshot(new NameTable());
+        tracker = new ProcessCpuTracker(8, ProcessCpuTracker.DEFAULT_SMOOTHING_WINDOW);
+        treeTracker = new ProcessTreeTracker();
+        history = new MetricsHistory();
+    }
+
+    @Benchmark
+    public ProcessSnapshot fillSnapshot() {
+        source.advance();
+        source.fill(snapshot);
+        return snapshot;
+    }
+
+    @Benchmark
+    public ProcessSnapshot fillSnapshotAndTrackCpu() {
+        source.advance();
+        source.fill(snapshot);
+        tracker.update(snapshot);
+        return snapshot;
+    }
+
+    @Benchmark
+    public ProcessSnapshot fillSnapshotAndTrackTree() {
+        source.advance();
+        source.fill(snapshot);
+        tracker.update(snapshot);
+        treeTracker.update(snapshot);
+        return snapshot;
+    }
+
+    @Benchmark
+    public MetricsHistory fillSnapshotAndRecordHistory() {
+        source.advance();
+        source.fill(snapshot);
+        tracker.update(snapshot);
+        history.record(new SystemSnapshot(source.getClock(), 0.5, 16L << 30, 8L << 30, 0, 0, 0, 0, snapshot));
+        return history;
+    }
+}
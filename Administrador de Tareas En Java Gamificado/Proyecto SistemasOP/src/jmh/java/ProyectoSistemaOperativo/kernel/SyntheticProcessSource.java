@@ -0,0 +1,165 @@
+package ProyectoSistemaOperativo.kernel;
+
+import oshi.software.os.OSProcess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Fuente de procesos sintetica para los benchmarks: genera n procesos con
+ * nombres realistas y en cada tick avanza sus tiempos de CPU, varia la memoria
+ * y reemplaza un porcentaje de PIDs para simular procesos que nacen y mueren.
+ * Es determinista (semilla fija) y no toca el sistema operativo.
+ */
+public class SyntheticProcessSource implements ProcessSource {
+    private static final String[] NAMES = {
+            "chrome.exe", "explorer.exe", "svchost.exe", "System", "Idle", "python.exe", "java.exe", "steam.exe",
+            "discord", "WINWORD.EXE", "EXCEL.EXE", "notepad.exe", "calc.exe", "bash", "sshd", "systemd",
+            "kworker/0:1", "postgres", "nginx", "node", "gradle-daemon", "code", "firefox", "containerd"
+    };
+    private static final byte[] STATES = {
+            (byte) OSProcess.State.RUNNING.ordinal(), (byte) OSProcess.State.SLEEPING.ordinal(),
+            (byte) OSProcess.State.SLEEPING.ordinal(), (byte) OSProcess.State.WAITING.ordinal()
+    };
+
+    private final int size;
+    private final double churn;
+    private final SplittableRandom random = new SplittableRandom(42);
+    private final int[] pids;
+    private final int[] parents;
+    private final String[] names;
+    private final long[] cpuTimes;
+    private final long[] rss;
+    private final long[] ioBytes;
+    private final long[] startTimes;
+    // procesos que mueren en el tick, solo lo usa advance()
+    private final boolean[] removed;
+    private int nextPid;
+    private long clock = 1_700_000_000_000L;
+
+    /**
+     * churn es la fraccion de procesos que se reemplaza en cada tick, por ejemplo 0.01
+     */
+    public SyntheticProcessSource(int size, double churn) {
+        this.size = size;
+        this.churn = churn;
+        pids = new int[size];
+        parents = new int[size];
+        names = new String[size];
+        cpuTimes = new long[size];
+        rss = new long[size];
+        ioBytes = new long[size];
+        startTimes = new long[size];
+        removed = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            pids[i] = 1 + i * 4;
+            parents[i] = i == 0 ? 0 : pids[random.nextInt(i)];
+            respawn(i);
+        }
+        nextPid = 1 + size * 4;
+    }
+
+    private void respawn(int i) {
+        // varios nombres con sufijo para que el buscador tenga variedad
+        String base = NAMES[random.nextInt(NAMES.length)];
+        names[i] = random.nextInt(4) == 0 ? base + "-" + random.nextInt(64) : base;
+        cpuTimes[i] = random.nextInt(10_000);
+        rss[i] = (1L + random.nextInt(4096)) * 1024 * 1024 / 8;
+        ioBytes[i] = random.nextInt(1 << 20);
+        startTimes[i] = clock - random.nextInt(1_000_000);
+    }
+
+    /**
+     * Avanza un segundo de reloj sintetico. Es O(n): corre dentro de los benchmarks
+     * y no puede pesar mas que lo que se mide.
+     */
+    public void advance() {
+        clock += 1000;
+        int replaced = Math.min((int) (size * churn), size - 1);
+        for (int k = 0; k < replaced; k++) {
+            int i;
+            do {
+                i = random.nextInt(size);
+            } while (removed[i]);
+            removed[i] = true;
+        }
+        // una sola pasada: se compactan los que siguen y los nuevos van al final con PID
+        // mas alto, asi las columnas quedan ordenadas por PID
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (removed[i]) {
+                removed[i] = false;
+                continue;
+            }
+            if (kept != i) {
+                pids[kept] = pids[i];
+                parents[kept] = parents[i];
+                names[kept] = names[i];
+                cpuTimes[kept] = cpuTimes[i];
+                rss[kept] = rss[i];
+                ioBytes[kept] = ioBytes[i];
+                startTimes[kept] = startTimes[i];
+            }
+            kept++;
+        }
+        for (int i = kept; i < size; i++) {
+            pids[i] = nextPid++;
+            parents[i] = pids[random.nextInt(i)];
+            respawn(i);
+            startTimes[i] = clock;
+        }
+        for (int i = 0; i < size; i++) {
+            cpuTimes[i] += random.nextInt(random.nextInt(20) == 0 ? 1000 : 20);
+            if (random.nextInt(8) == 0) {
+                rss[i] += random.nextInt(1 << 20) - (1 << 19);
+            }
+            if (random.nextInt(16) == 0) {
+                ioBytes[i] += random.nextInt(1 << 22);
+            }
+        }
+    }
+
+    public long getClock() {
+        return clock;
+    }
+
+    @Override
+    public void sample(ProcessSnapshot snapshot) {
+        NameTable table = snapshot.getNameTable();
+        for (int k = 0; k < size; k++) {
+            int i = snapshot.add();
+            snapshot.pids[i] = pids[k];
+            snapshot.parentPids[i] = parents[k];
+            snapshot.nameIds[i] = table.intern(names[k]);
+            snapshot.userIds[i] = 1000;
+            snapshot.states[i] = STATES[k & 3];
+            snapshot.threadCounts[i] = 1 + (k & 15);
+            snapshot.residentSizes[i] = Math.max(0, rss[k]);
+            snapshot.kernelTimes[i] = cpuTimes[k] / 4;
+            snapshot.userTimes[i] = cpuTimes[k] - cpuTimes[k] / 4;
+            snapshot.startTimes[i] = startTimes[k];
+            snapshot.ioBytes[i] = ioBytes[k];
+        }
+    }
+
+    /**
+     * Crea una foto nueva fuera de cualquier pool y la llena con el estado actual
+     */
+    public ProcessSnapshot newSnapshot(NameTable names) {
+        ProcessSnapshot snapshot = new ProcessSnapshot(names, new SnapshotPool(names)).retain();
+        fill(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Vacia la foto y la vuelve a llenar con el estado actual
+     */
+    public void fill(ProcessSnapshot snapshot) {
+        snapshot.reset(clock);
+        sample(snapshot);
+    }
+
+    @Override
+    public String getName() {
+        return "synthetic";
+    }
+}
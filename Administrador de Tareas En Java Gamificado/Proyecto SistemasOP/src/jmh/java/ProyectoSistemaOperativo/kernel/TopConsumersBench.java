@@ -0,0 +1,70 @@
+package ProyectoSistemaOperativo.kernel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Elegir los que mas CPU usan en una foto: ordenar todos los indices (lo que hacia
+ * el modo sin ventana y lo que hace el sorter de la tabla) contra el heap de tamaño k.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class TopConsumersBench {
+
+    @Param({"500", "5000", "50000"})
+    public int processes;
+
+    @Param({"50"})
+    public int top;
+
+    private ProcessSnapshot snapshot;
+    private Integer[] order;
+    private TopConsumers topConsumers;
+    private int[] rows;
+
+    @Setup
+    public void setup() {
+        SyntheticProcessSource source = new SyntheticProcessSource(processes, 0.01);
+        ProcessCpuTracker tracker = new ProcessCpuTracker(8, ProcessCpuTracker.DEFAULT_SMOOTHING_WINDOW);
+        snapshot = source.newSnapshot(new NameTable());
+        tracker.update(snapshot);
+        source.advance();
+        source.fill(snapshot);
+        tracker.update(snapshot);
+        order = new Integer[processes];
+        topConsumers = new TopConsumers(top);
+        rows = new int[top];
+    }
+
+    @Benchmark
+    public Integer[] fullSort() {
+        int n = snapshot.size();
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, 0, n, (a, b) -> Double.compare(snapshot.getCpuPercent(b), snapshot.getCpuPercent(a)));
+        return order;
+    }
+
+    @Benchmark
+    public int[] heapTopK() {
+        topConsumers.select(snapshot, TopConsumers.Key.CPU, rows);
+        return rows;
+    }
+}
@@ -0,0 +1,183 @@
+package ProyectoSistemaOperativo.ui;
+
+import ProyectoSistemaOperativo.kernel.NameTable;
+import ProyectoSistemaOperativo.kernel.ProcessClassifier;
+import ProyectoSistemaOperativo.kernel.ProcessCpuTracker;
+import ProyectoSistemaOperativo.kernel.ProcessNameIndex;
+import ProyectoSistemaOperativo.kernel.ProcessQuery;
+import ProyectoSistemaOperativo.kernel.ProcessSelector;
+import ProyectoSistemaOperativo.kernel.ProcessSnapshot;
+import ProyectoSistemaOperativo.kernel.SyntheticProcessSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.swing.JTable;
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import javax.swing.table.TableRowSorter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo del lado de la interfaz en cada refresco: aplicar la foto al modelo,
+ * buscar en el indice de nombres, resolver la consulta de la ventana con ProcessSelector, clasificar
+ * nombres y pintar la columna Ataque con HighCpuRenderer. Corre sin pantalla (java.awt.headless).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RefreshBench {
+
+    @Param({"500", "5000", "50000"})
+    public int processes;
+
+    private SyntheticProcessSource source;
+    private ProcessSnapshot[] snapshots;
+    private ProcessCpuTracker tracker;
+    private int tick;
+    private ProcessTableModel model;
+    private TableRowSorter<ProcessTableModel> sorter;
+    private ProcessSelector selector;
+    private ProcessQuery query;
+    private ProcessQuery topQuery;
+    private ProcessTableModel filteredModel;
+    private ProcessNameIndex nameIndex;
+    private JTable table;
+    private TaskManagerFrame.HighCpuRenderer renderer;
+    private ProcessClassifier classifier;
+    private int[] pids;
+    private int[] nameIds;
+
+    @Setup
+    public void setup() {
+        source = new SyntheticProcessSource(processes, 0.01);
+        NameTable nameTable = new NameTable();
+        tracker = new ProcessCpuTracker(8, ProcessCpuTracker.DEFAULT_SMOOTHING_WINDOW);
+        snapshots = new ProcessSnapshot[]{source.newSnapshot(nameTable), source.newSnapshot(nameTable)};
+        tracker.update(snapshots[0]);
+
+        classifier = ProcessClassifier.createDefault(nameTable);
+        model = new ProcessTableModel(classifier, pid -> CompletableFuture.completedFuture(null));
+        model.applySnapshot(snapshots[0]);
+        sorter = new ProcessRowSorter(model);
+        nameIndex = new ProcessNameIndex(nameTable, classifier);
+        nameIndex.update();
+        selector = new ProcessSelector(classifier);
+        // lo mismo que arma applyFilters(): busqueda resuelta en el indice y una clase
+        query = ProcessQuery.ALL.withNameIds(nameIndex.query("o")).withProcessClass("Aliados");
+        topQuery = query.withSort(ProcessQuery.Sort.CPU).withLimit(50);
+        filteredModel = new ProcessTableModel(classifier, pid -> CompletableFuture.completedFuture(null));
+        table = new JTable(model);
+        renderer = new TaskManagerFrame.HighCpuRenderer();
+
+        pids = new int[processes];
+        nameIds = new int[processes];
+        for (int i = 0; i < processes; i++) {
+            pids[i] = snapshots[0].getPid(i);
+            nameIds[i] = snapshots[0].getNameId(i);
+        }
+    }
+
+    /**
+     * Un tick completo del modelo: llega una foto nueva y se aplica la diferencia
+     */
+    @Benchmark
+    public ProcessTableModel updateProcessTable() {
+        ProcessSnapshot next = snapshots[++tick & 1];
+        source.advance();
+        source.fill(next);
+        tracker.update(next);
+        model.applySnapshot(next);
+        return model;
+    }
+
+    /**
+     * applyFilters(): resolver la consulta sobre la foto y pasar al modelo solo las filas que quedan
+     */
+    @Benchmark
+    public int applyFilters() {
+        return applyQuery(query);
+    }
+
+    /**
+     * Lo mismo con la vista de top 50 por Ataque entre los que pasan el filtro
+     */
+    @Benchmark
+    public int applyTopFilters() {
+        return applyQuery(topQuery);
+    }
+
+    private int applyQuery(ProcessQuery applied) {
+        int count = selector.select(snapshots[0], applied);
+        int[] rows = selector.getRows();
+        Arrays.sort(rows, 0, count);
+        filteredModel.applySnapshot(snapshots[0], rows, count);
+        return filteredModel.getRowCount();
+    }
+
+    /**
+     * Resolver una busqueda en el indice de nombres (lo que hace el hilo de busqueda por tecla)
+     */
+    @Benchmark
+    public void searchIndex(Blackhole blackhole) {
+        blackhole.consume(nameIndex.query("o"));
+        blackhole.consume(nameIndex.query("work"));
+    }
+
+    /**
+     * Ordenar todas las filas por Ataque, comparando doubles del modelo
+     */
+    @Benchmark
+    public int sortByCpu() {
+        sorter.setSortKeys(null);
+        sorter.setSortKeys(List.of(new RowSorter.SortKey(ProcessTableModel.COL_CPU, SortOrder.DESCENDING)));
+        return sorter.getViewRowCount();
+    }
+
+    /**
+     * Clasificar todos los procesos de un tick, con los nombres ya memorizados
+     */
+    @Benchmark
+    public void classify(Blackhole blackhole) {
+        for (int i = 0; i < nameIds.length; i++) {
+            blackhole.consume(classifier.getCreatureName(nameIds[i]));
+            blackhole.consume(classifier.getProcessClass(pids[i], nameIds[i]));
+        }
+    }
+
+    /**
+     * Lo mismo justo despues de recargar las reglas: compilar y clasificar cada nombre una vez
+     */
+    @Benchmark
+    public void classifyAfterReload(Blackhole blackhole) {
+        classifier.reload();
+        classify(blackhole);
+    }
+
+    /**
+     * Pintar la columna Ataque de todas las filas
+     */
+    @Benchmark
+    public void renderCpuColumn(Blackhole blackhole) {
+        int rows = model.getRowCount();
+        for (int row = 0; row < rows; row++) {
+            Object value = model.getValueAt(row, ProcessTableModel.COL_CPU);
+            blackhole.consume(renderer.getTableCellRendererComponent(table, value, false, false, row, ProcessTableModel.COL_CPU));
+        }
+    }
+}
@@ -1,20 +1,130 @@
 package ProyectoSistemaOperativo;
 
+import ProyectoSistemaOperativo.headless.HeadlessMonitor;
 import ProyectoSistemaOperativo.kernel.KernelManager;
+import ProyectoSistemaOperativo.kernel.ProcessSampler;
+import ProyectoSistemaOperativo.kernel.SnapshotRecorder;
 import ProyectoSistemaOperativo.ui.TaskManagerFrame;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Opciones:
+ *   --record <carpeta>     graba cada tick en segmentos dentro de la carpeta
+ *   --record-max-mb <n>    limite total de la grabacion (por defecto 256)
+ *   --replay <archivo>     reproduce una grabacion (segmento o carpeta) en vez del sistema
+ *   --speed <n>            velocidad de la reproduccion, de 1 a 100 (por defecto 1)
+ *
+ * Modo sin ventana (no carga AWT ni Swing, el log va a stderr):
+ *   --headless             tabla de procesos en la terminal que se refresca en cada tick
+ *   --json                 como --headless pero una linea JSON por tick en stdout
+ *   --sort <cpu|mem|io|pid|name>  orden de los procesos (por defecto cpu)
+ *   --filter <texto>       solo procesos cuyo nombre o criatura contiene el texto
+ *   --top <n>              solo los primeros n procesos
+ *   --interval <ms>        intervalo de muestreo (por defecto 1000)
+ *   --count <n>            termina despues de n ticks
+ */
 public class MainApp {
-    private static final Logger logger = LogManager.getRootLogger();
+    // se crea en main: el modo sin ventana elige otro backend de log antes del primer uso
+    private static Logger logger;
 
     public static void main(String[] args) {
+        if (Arrays.asList(args).contains("--headless") || Arrays.asList(args).contains("--json")) {
+            // log4j-core (XML, plugins, JMX) tarda mas que todo el arranque; el logger simple
+            // de log4j-api escribe solo advertencias y errores a stderr, stdout queda para los datos
+            System.setProperty("log4j2.loggerContextFactory", "org.apache.logging.log4j.simple.SimpleLoggerContextFactory");
+            System.setProperty("org.apache.logging.log4j.simplelog.level", "WARN");
+            // cualquier uso accidental de AWT falla en vez de buscar una pantalla
+            System.setProperty("java.awt.headless", "true");
+        }
+        logger = LogManager.getRootLogger();
         logger.info("Iniciando");
-        KernelManager kernelManager = new KernelManager();
+        String record = null;
+        String replay = null;
+        double speed = 1;
+        long recordMaxBytes = SnapshotRecorder.DEFAULT_MAX_BYTES;
+        boolean headless = false;
+        boolean json = false;
+        HeadlessMonitor.SortKey sort = HeadlessMonitor.SortKey.CPU;
+        String filter = null;
+        int top = 0;
+        int count = 0;
+        long intervalMs = ProcessSampler.DEFAULT_INTERVAL_MS;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--record": record = args[++i]; break;
+                    case "--record-max-mb": recordMaxBytes = Long.parseLong(args[++i]) << 20; break;
+                    case "--replay": replay = args[++i]; break;
+                    case "--speed": speed = Double.parseDouble(args[++i]); break;
+                    case "--headless": headless = true; break;
+                    case "--json": headless = true; json = true; break;
+                    case "--sort": sort = HeadlessMonitor.SortKey.parse(args[++i]); break;
+                    case "--filter": filter = args[++i]; break;
+                    case "--top": top = Integer.parseInt(args[++i]); break;
+                    case "--interval": intervalMs = Long.parseLong(args[++i]); break;
+                    case "--count": count = Integer.parseInt(args[++i]); break;
+                    default:
+                        logger.warn("Opcion desconocida: " + args[i]);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            logger.error("Opciones invalidas, ver MainApp para el formato");
+            System.exit(2);
+        }
+        if (intervalMs <= 0 || top < 0 || count < 0) {
+            logger.error("--interval debe ser positivo y --top/--count no pueden ser negativos");
+            System.exit(2);
+        }
+
+        KernelManager kernelManager;
+        try {
+            kernelManager = replay != null ? new KernelManager(Path.of(replay), speed) : new KernelManager();
+            if (record != null) {
+                kernelManager.startRecording(Path.of(record),
+                        Math.min(SnapshotRecorder.DEFAULT_SEGMENT_BYTES, recordMaxBytes), recordMaxBytes);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            logger.error("No se pudo abrir la grabacion: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        if (headless) {
+            runHeadless(kernelManager, json, sort, filter, top, count, intervalMs);
+            return;
+        }
         TaskManagerFrame frame = new TaskManagerFrame(kernelManager);
+        if (kernelManager.isReplaying()) {
+            frame.setTitle(frame.getTitle() + " - Reproduciendo " + replay + " a " + kernelManager.getReplayer().getSpeed() + "x");
+        }
 
         frame.setVisible(true);
 
         logger.info("Administrador de Tareas Iniciado.");
     }
+
+    private static void runHeadless(KernelManager kernelManager, boolean json, HeadlessMonitor.SortKey sort,
+                                    String filter, int top, int count, long intervalMs) {
+        PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16),
+                false, StandardCharsets.UTF_8);
+        HeadlessMonitor monitor = new HeadlessMonitor(kernelManager, out, json, sort, filter, top, count);
+        // con Ctrl+C se baja a disco lo que quede de la grabacion
+        Runtime.getRuntime().addShutdownHook(new Thread(kernelManager::stopRecording, "headless-shutdown"));
+        monitor.start(intervalMs);
+        try {
+            monitor.awaitTermination();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        kernelManager.stopRecording();
+    }
 }
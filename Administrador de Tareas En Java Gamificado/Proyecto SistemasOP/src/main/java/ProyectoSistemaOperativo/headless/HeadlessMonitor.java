@@ -0,0 +1,281 @@
+package ProyectoSistemaOperativo.headless;
+
+import ProyectoSistemaOperativo.kernel.KernelManager;
+import ProyectoSistemaOperativo.kernel.MetricsHub;
+import ProyectoSistemaOperativo.kernel.ProcessClassifier;
+import ProyectoSistemaOperativo.kernel.ProcessQuery;
+import ProyectoSistemaOperativo.kernel.ProcessSelector;
+import ProyectoSistemaOperativo.kernel.ProcessSnapshot;
+import ProyectoSistemaOperativo.kernel.SystemSnapshot;
+import oshi.util.FormatUtil;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Modo sin ventana, para usar por SSH o en contenedores sin pantalla. Usa el mismo
+ * KernelManager y escucha el "system" del hub: en cada tick escribe una tabla estilo
+ * top que se refresca, o una linea JSON por tick (JSON Lines) para pasar por tuberias.
+ *
+ * No toca ninguna clase de AWT ni de Swing. Todo se arma en un StringBuilder reusado
+ * en el hilo del muestreador y se escribe de una vez por tick.
+ *
+ * El orden, el filtro y el --top van en una {@link ProcessQuery} que resuelve un
+ * {@link ProcessSelector}: solo las filas que se escriben pasan por el formato.
+ */
+public class HeadlessMonitor implements PropertyChangeListener {
+
+    /**
+     * Orden de los procesos; CPU, memoria y E/S de mayor a menor, PID y nombre ascendente
+     */
+    public enum SortKey {
+        CPU(ProcessQuery.Sort.CPU),
+        MEM(ProcessQuery.Sort.MEMORY),
+        IO(ProcessQuery.Sort.IO),
+        PID(ProcessQuery.Sort.PID),
+        NAME(ProcessQuery.Sort.NAME);
+
+        private final ProcessQuery.Sort sort;
+
+        SortKey(ProcessQuery.Sort sort) {
+            this.sort = sort;
+        }
+
+        public static SortKey parse(String text) {
+            return valueOf(text.toUpperCase(Locale.ROOT));
+        }
+    }
+
+    // espera hasta la segunda muestra, asi la primera tabla sale sin esperar un intervalo entero
+    private static final long FIRST_SAMPLE_DELAY_MS = 250;
+    private static final String CLEAR_SCREEN = "\033[H\033[2J";
+    private static final int NAME_WIDTH = 24;
+    private static final int CREATURE_WIDTH = 18;
+
+    private final KernelManager kernelManager;
+    private final ProcessClassifier classifier;
+    private final PrintStream out;
+    private final boolean json;
+    private final boolean clearScreen;
+    private final ProcessQuery query;
+    private final int count;
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    // Solo se tocan en el hilo de muestreo
+    private final StringBuilder text = new StringBuilder(1 << 16);
+    private final ProcessSelector selector;
+    private int ticks;
+    private int printed;
+
+    /**
+     * filter puede ser null; top y count en 0 son sin limite
+     */
+    public HeadlessMonitor(KernelManager kernelManager, PrintStream out, boolean json,
+                           SortKey sortKey, String filter, int top, int count) {
+        this.kernelManager = kernelManager;
+        this.classifier = kernelManager.getMetricsHub().getClassifier();
+        this.out = out;
+        this.json = json;
+        // sobre un archivo o una tuberia no se mandan codigos de terminal
+        this.clearScreen = !json && System.console() != null;
+        this.query = ProcessQuery.ALL.withSort(sortKey.sort).withText(filter).withLimit(top);
+        this.count = count;
+        this.selector = new ProcessSelector(classifier);
+    }
+
+    /**
+     * Se suscribe al hub y arranca el muestreo (o la reproduccion)
+     */
+    public void start(long intervalMs) {
+        MetricsHub hub = kernelManager.getMetricsHub();
+        hub.addPropertyChangeListener("system", this);
+        kernelManager.startSampling(intervalMs);
+        if (kernelManager.isReplaying()) {
+            kernelManager.getReplayer().setOnFinished(this::stop);
+        }
+    }
+
+    /**
+     * Bloquea hasta que se escriban los ticks pedidos, se termine la reproduccion o se corte la salida
+     */
+    public void awaitTermination() throws InterruptedException {
+        done.await();
+    }
+
+    public void stop() {
+        kernelManager.stopSampling();
+        kernelManager.getMetricsHub().removePropertyChangeListener("system", this);
+        out.flush();
+        done.countDown();
+    }
+
+    @Override
+    public void propertyChange(PropertyChangeEvent evt) {
+        SystemSnapshot snapshot = (SystemSnapshot) evt.getNewValue();
+        ticks++;
+        // en vivo el primer tick solo sirve de base para el CPU de cada proceso
+        if (ticks == 1 && !kernelManager.isReplaying()) {
+            kernelManager.requestRefresh(FIRST_SAMPLE_DELAY_MS);
+            return;
+        }
+        int rows = selector.select(snapshot.getProcesses(), query);
+        text.setLength(0);
+        if (json) {
+            appendJson(snapshot, rows);
+        } else {
+            appendTable(snapshot, rows);
+        }
+        out.append(text);
+        out.flush();
+        printed++;
+        // checkError tambien detecta la tuberia cerrada, por ejemplo con | head
+        if (out.checkError() || (count > 0 && printed >= count)) {
+            stop();
+        }
+    }
+
+    private void appendTable(SystemSnapshot snapshot, int rows) {
+        ProcessSnapshot processes = snapshot.getProcesses();
+        int[] selection = selector.getRows();
+        if (clearScreen) {
+            text.append(CLEAR_SCREEN);
+        } else if (printed > 0) {
+            text.append('\n');
+        }
+        text.append(String.format("%tT  CPU %5.1f%%  Memoria %s / %s (%.1f%%)  Procesos %d",
+                snapshot.getTimestamp(), snapshot.getCpuLoad() * 100,
+                FormatUtil.formatBytes(snapshot.getMemoryUsed()), FormatUtil.formatBytes(snapshot.getMemoryTotal()),
+                snapshot.getMemoryPercent(), processes.size()));
+        if (kernelManager.isReplaying()) {
+            text.append("  [reproduccion]");
+        } else {
+            double self = kernelManager.getSelfCpuPercent();
+            text.append("  Muestreo ").append(kernelManager.describeSampling()).append(", propio ");
+            if (self < 0) {
+                text.append('-');
+            } else {
+                appendTenths(text, self);
+                text.append('%');
+            }
+        }
+        text.append('\n');
+        text.append(String.format("%7s %7s  %-" + NAME_WIDTH + "s %-" + CREATURE_WIDTH + "s %-11s %6s %10s %11s %5s  %s%n",
+                "PID", "PPID", "NOMBRE", "CRIATURA", "CLASE", "CPU%", "MEMORIA", "E/S", "HILOS", "ESTADO"));
+        for (int k = 0; k < rows; k++) {
+            int i = selection[k];
+            int pid = processes.getPid(i);
+            int nameId = processes.getNameId(i);
+            pad(text, Integer.toString(pid), 7, true).append(' ');
+            pad(text, Integer.toString(processes.getParentPid(i)), 7, true).append("  ");
+            pad(text, processes.getName(i), NAME_WIDTH, false).append(' ');
+            pad(text, classifier.getCreatureName(nameId), CREATURE_WIDTH, false).append(' ');
+            pad(text, classifier.getProcessClass(pid, nameId), 11, false).append(' ');
+            int start = text.length();
+            appendTenths(text, processes.getCpuPercent(i));
+            padLeft(text, start, 6).append(' ');
+            pad(text, FormatUtil.formatBytes(processes.getResidentSetSize(i)), 10, true).append(' ');
+            double io = processes.getIoBytesPerSec(i);
+            pad(text, io < 0 ? "-" : FormatUtil.formatBytes((long) io) + "/s", 11, true).append(' ');
+            pad(text, Integer.toString(processes.getThreadCount(i)), 5, true).append("  ");
+            text.append(processes.getState(i)).append('\n');
+        }
+    }
+
+    private void appendJson(SystemSnapshot snapshot, int rows) {
+        ProcessSnapshot processes = snapshot.getProcesses();
+        int[] selection = selector.getRows();
+        text.append("{\"timestamp\":").append(snapshot.getTimestamp());
+        text.append(",\"cpu\":");
+        appendTenths(text, snapshot.getCpuLoad() * 100);
+        text.append(",\"memoryUsed\":").append(snapshot.getMemoryUsed());
+        text.append(",\"memoryTotal\":").append(snapshot.getMemoryTotal());
+        text.append(",\"processCount\":").append(processes.size());
+        text.append(",\"processes\":[");
+        for (int k = 0; k < rows; k++) {
+            int i = selection[k];
+            int pid = processes.getPid(i);
+            int nameId = processes.getNameId(i);
+            if (k > 0) {
+                text.append(',');
+            }
+            text.append("{\"pid\":").append(pid);
+            text.append(",\"ppid\":").append(processes.getParentPid(i));
+            text.append(",\"name\":");
+            appendJsonString(text, processes.getName(i));
+            text.append(",\"creature\":");
+            appendJsonString(text, classifier.getCreatureName(nameId));
+            text.append(",\"class\":");
+            appendJsonString(text, classifier.getProcessClass(pid, nameId));
+            text.append(",\"cpu\":");
+            appendTenths(text, processes.getCpuPercent(i));
+            text.append(",\"rss\":").append(processes.getResidentSetSize(i));
+            // bytes de disco por segundo, -1 si el proceso no deja leer su E/S
+            text.append(",\"io\":").append((long) processes.getIoBytesPerSec(i));
+            text.append(",\"threads\":").append(processes.getThreadCount(i));
+            text.append(",\"state\":\"").append(processes.getState(i)).append("\"}");
+        }
+        text.append("]}\n");
+    }
+
+    /**
+     * Numero con un decimal sin pasar por String.format
+     */
+    private static void appendTenths(StringBuilder sb, double value) {
+        long tenths = Math.round(value * 10);
+        if (tenths < 0) {
+            sb.append('-');
+            tenths = -tenths;
+        }
+        sb.append(tenths / 10).append('.').append(tenths % 10);
+    }
+
+    private static void appendJsonString(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+
+    /**
+     * Agrega el texto con ancho fijo, cortado si no entra
+     */
+    private static StringBuilder pad(StringBuilder sb, String value, int width, boolean right) {
+        if (value.length() >= width) {
+            return sb.append(value, 0, width);
+        }
+        if (right) {
+            sb.append(" ".repeat(width - value.length())).append(value);
+        } else {
+            sb.append(value).append(" ".repeat(width - value.length()));
+        }
+        return sb;
+    }
+
+    /**
+     * Alinea a la derecha lo que se agrego desde start
+     */
+    private static StringBuilder padLeft(StringBuilder sb, int start, int width) {
+        int length = sb.length() - start;
+        if (length < width) {
+            sb.insert(start, " ".repeat(width - length));
+        }
+        return sb;
+    }
+}
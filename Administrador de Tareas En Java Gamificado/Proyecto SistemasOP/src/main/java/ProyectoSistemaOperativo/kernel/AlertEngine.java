@@ -0,0 +1,410 @@
+package ProyectoSistemaOperativo.kernel;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Evalua las reglas de alerta contra cada foto apenas se publica, se este mirando la
+ * ventana o no. Se suscribe a "system" del hub y corre en el hilo del muestreador.
+ *
+ * Cada regla es una maquina de estados: pendiente mientras el valor pasa el umbral,
+ * disparada cuando lo paso durante toda la duracion, y resuelta recien al cruzar el
+ * nivel de salida. Entre dos avisos de disparo de la misma regla y el mismo proceso
+ * tiene que pasar el enfriamiento.
+ *
+ * Costo por tick: las reglas de sistema leen un valor; las de proceso recorren una
+ * columna de la foto comparando contra el nivel de salida y solo guardan estado de los
+ * procesos que lo pasan, que suelen ser pocos. Los que dejan de aparecer se barren al final.
+ */
+public class AlertEngine implements PropertyChangeListener {
+    private static final Logger logger = LogManager.getLogger(AlertEngine.class);
+
+    public static final String DEFAULT_RESOURCE = "/ProyectoSistemaOperativo/alertas.properties";
+
+    // Nombres de los avisos en la configuracion
+    public static final String LOG = "log";
+    public static final String TRAY = "bandeja";
+    public static final String COMMAND = "comando";
+
+    // muestreo que piden las alertas cuando no hay ninguna ventana visible
+    public static final String DEFAULT_SAMPLING_INTERVAL = "5s";
+
+    private static final long NONE = Long.MIN_VALUE;
+    private static final byte UNKNOWN = 0;
+    private static final byte MATCH = 1;
+    private static final byte NO_MATCH = 2;
+
+    private final Map<String, AlertNotifier> notifiers = new ConcurrentHashMap<>();
+    private List<RuleState> rules = new ArrayList<>();
+    private long tick;
+    private long samplingIntervalMs;
+    private volatile int activeCount;
+
+    public AlertEngine(Properties config) {
+        notifiers.put(LOG, AlertEngine::log);
+        configure(config);
+    }
+
+    /**
+     * Carga las reglas del archivo de la propiedad "procesos.alertas"
+     * o, si no esta, del recurso incluido en el jar
+     */
+    public static AlertEngine createDefault() {
+        return new AlertEngine(loadConfig());
+    }
+
+    /**
+     * Vuelve a leer la configuracion; las alertas activas se olvidan sin avisar
+     */
+    public void reload() {
+        configure(loadConfig());
+    }
+
+    public synchronized void configure(Properties config) {
+        String commandLine = config.getProperty("comando", "").trim();
+        if (commandLine.isEmpty()) {
+            notifiers.remove(COMMAND);
+        } else {
+            notifiers.put(COMMAND, new CommandAlertNotifier(commandLine));
+        }
+        List<String> defaultNotifiers = new ArrayList<>();
+        for (String name : split(config.getProperty("notificar", LOG + "," + TRAY))) {
+            defaultNotifiers.add(name.toLowerCase(Locale.ROOT));
+        }
+        List<RuleState> parsed = new ArrayList<>();
+        for (String name : split(config.getProperty("reglas", ""))) {
+            try {
+                AlertRule rule = AlertRule.parse(name, config, defaultNotifiers);
+                parsed.add(new RuleState(rule));
+                logger.debug("Regla de alerta {}", rule);
+            } catch (IllegalArgumentException e) {
+                logger.warn("Regla de alerta '{}' ignorada: {}", name, e.getMessage());
+            }
+        }
+        rules = parsed;
+        samplingIntervalMs = parsed.isEmpty() ? 0
+                : AlertRule.parseDuration(config.getProperty("intervalo", DEFAULT_SAMPLING_INTERVAL));
+        activeCount = 0;
+        logger.info("{} reglas de alerta cargadas", parsed.size());
+    }
+
+    /**
+     * Registra un aviso con el nombre que usan las reglas en "notificar"; reemplaza al anterior
+     */
+    public void addNotifier(String name, AlertNotifier notifier) {
+        notifiers.put(name, notifier);
+    }
+
+    public void removeNotifier(String name) {
+        notifiers.remove(name);
+    }
+
+    public synchronized List<AlertRule> getRules() {
+        List<AlertRule> result = new ArrayList<>(rules.size());
+        for (RuleState state : rules) {
+            result.add(state.rule);
+        }
+        return result;
+    }
+
+    /**
+     * Cada cuanto necesitan una foto las reglas aunque nadie mire; 0 si no hay reglas
+     * o si la configuracion pide evaluarlas solo mientras haya ventanas abiertas
+     */
+    public synchronized long getSamplingIntervalMs() {
+        return samplingIntervalMs;
+    }
+
+    /**
+     * Alertas disparadas y todavia sin resolver al terminar el ultimo tick
+     */
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    @Override
+    public void propertyChange(PropertyChangeEvent evt) {
+        evaluate((SystemSnapshot) evt.getNewValue());
+    }
+
+    /**
+     * Evalua todas las reglas contra la foto. La foto de procesos solo se lee durante la llamada.
+     */
+    public synchronized void evaluate(SystemSnapshot snapshot) {
+        tick++;
+        long now = snapshot.getTimestamp();
+        int active = 0;
+        for (RuleState state : rules) {
+            if (state.rule.getMetric().isPerProcess()) {
+                evaluateProcesses(state, snapshot.getProcesses(), now);
+                active += state.firingProcesses;
+            } else {
+                double value = state.rule.getMetric().systemValue(snapshot);
+                int transition = state.system.advance(state.rule, value, now);
+                if (transition != Tracked.STAY) {
+                    dispatch(state.rule, new AlertEvent(state.rule, transition == Tracked.FIRE, -1, "sistema", value, now));
+                }
+                if (state.system.firing) {
+                    active++;
+                }
+            }
+        }
+        activeCount = active;
+    }
+
+    private void evaluateProcesses(RuleState state, ProcessSnapshot processes, long now) {
+        AlertRule rule = state.rule;
+        AlertRule.Metric metric = rule.getMetric();
+        int n = processes.size();
+        for (int i = 0; i < n; i++) {
+            double value = metric.processValue(processes, i);
+            // lo comun: el proceso esta tranquilo y no se toca ningun estado
+            if (rule.clears(value) || !state.accepts(processes, i)) {
+                continue;
+            }
+            int pid = processes.pids[i];
+            Tracked tracked = state.processes.get(pid);
+            if (tracked != null && tracked.startTime != processes.startTimes[i]) {
+                // PID reutilizado: el proceso anterior termino
+                resolveGone(state, tracked, now);
+                state.processes.remove(pid);
+                tracked = null;
+            }
+            if (tracked == null) {
+                if (!rule.exceeds(value)) {
+                    continue;
+                }
+                tracked = new Tracked(pid, processes.startTimes[i], processes.getName(i));
+                state.processes.put(pid, tracked);
+            }
+            tracked.seenTick = tick;
+            int transition = tracked.advance(rule, value, now);
+            if (transition != Tracked.STAY) {
+                dispatch(rule, new AlertEvent(rule, transition == Tracked.FIRE, pid, tracked.subject(), value, now));
+            }
+        }
+        sweep(state, processes, now);
+    }
+
+    /**
+     * Los procesos que no se vieron en este tick volvieron bajo el nivel de salida o terminaron.
+     * Los que avisaron quedan hasta que pase el enfriamiento para que no vuelvan a avisar antes.
+     */
+    private void sweep(RuleState state, ProcessSnapshot processes, long now) {
+        int firing = 0;
+        Iterator<Tracked> iterator = state.processes.values().iterator();
+        while (iterator.hasNext()) {
+            Tracked tracked = iterator.next();
+            if (tracked.seenTick == tick) {
+                if (tracked.firing) {
+                    firing++;
+                }
+                continue;
+            }
+            int index = processes.indexOf(tracked.pid);
+            boolean alive = index >= 0 && processes.startTimes[index] == tracked.startTime;
+            if (!alive) {
+                resolveGone(state, tracked, now);
+                iterator.remove();
+                continue;
+            }
+            if (tracked.firing) {
+                tracked.firing = false;
+                if (tracked.notified) {
+                    tracked.notified = false;
+                    double value = state.rule.getMetric().processValue(processes, index);
+                    dispatch(state.rule, new AlertEvent(state.rule, false, tracked.pid, tracked.subject(), value, now));
+                }
+            }
+            tracked.pendingSince = NONE;
+            if (tracked.lastNotified == NONE || now - tracked.lastNotified >= state.rule.getCooldownMs()) {
+                iterator.remove();
+            }
+        }
+        state.firingProcesses = firing;
+    }
+
+    private void resolveGone(RuleState state, Tracked tracked, long now) {
+        if (tracked.firing && tracked.notified) {
+            dispatch(state.rule, new AlertEvent(state.rule, false, tracked.pid, tracked.subject(), Double.NaN, now));
+        }
+    }
+
+    private void dispatch(AlertRule rule, AlertEvent event) {
+        for (String name : rule.getNotifiers()) {
+            // un aviso sin registrar (por ejemplo la bandeja sin ventana) se salta
+            AlertNotifier notifier = notifiers.get(name);
+            if (notifier == null) {
+                continue;
+            }
+            try {
+                notifier.notify(event);
+            } catch (RuntimeException e) {
+                logger.error("Fallo el aviso '{}' de la alerta {}: {}", name, rule.getName(), e.getMessage());
+            }
+        }
+    }
+
+    private static void log(AlertEvent event) {
+        if (event.isFiring()) {
+            logger.warn("Alerta disparada {}", event.getMessage());
+        } else {
+            logger.info("Alerta resuelta {}", event.getMessage());
+        }
+    }
+
+    private static List<String> split(String list) {
+        List<String> items = new ArrayList<>();
+        for (String item : list.split(",")) {
+            if (!item.isBlank()) {
+                items.add(item.trim());
+            }
+        }
+        return items;
+    }
+
+    private static Properties loadConfig() {
+        Properties config = new Properties();
+        String file = System.getProperty("procesos.alertas", "");
+        try {
+            if (!file.isEmpty()) {
+                try (Reader reader = Files.newBufferedReader(Path.of(file), StandardCharsets.UTF_8)) {
+                    config.load(reader);
+                }
+                return config;
+            }
+            InputStream in = AlertEngine.class.getResourceAsStream(DEFAULT_RESOURCE);
+            if (in == null) {
+                logger.warn("No se encontro {}, no hay reglas de alerta.", DEFAULT_RESOURCE);
+                return config;
+            }
+            try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+                config.load(reader);
+            }
+        } catch (IOException e) {
+            logger.error("No se pudieron leer las reglas de alerta: {}", e.getMessage());
+        }
+        return config;
+    }
+
+    /**
+     * Regla compilada con su estado: uno para el sistema o uno por proceso que paso el nivel de salida
+     */
+    private static final class RuleState {
+        final AlertRule rule;
+        final Tracked system = new Tracked(-1, 0, "sistema");
+        final Map<Integer, Tracked> processes = new HashMap<>();
+        // si el nombre pasa el filtro de la regla, memorizado por id de nombre
+        byte[] nameMatches = new byte[0];
+        int firingProcesses;
+
+        RuleState(AlertRule rule) {
+            this.rule = rule;
+        }
+
+        boolean accepts(ProcessSnapshot processes, int i) {
+            String filter = rule.getProcessFilter();
+            if (filter == null) {
+                return true;
+            }
+            int nameId = processes.nameIds[i];
+            if (nameId >= nameMatches.length) {
+                nameMatches = Arrays.copyOf(nameMatches, Math.max(nameId + 1, nameMatches.length * 2));
+            }
+            if (nameMatches[nameId] == UNKNOWN) {
+                String name = processes.getName(i).toLowerCase(Locale.ROOT);
+                nameMatches[nameId] = name.contains(filter) ? MATCH : NO_MATCH;
+            }
+            return nameMatches[nameId] == MATCH;
+        }
+    }
+
+    /**
+     * Estado de una regla para el sistema o para un proceso
+     */
+    private static final class Tracked {
+        static final int STAY = 0;
+        static final int FIRE = 1;
+        static final int RESOLVE = 2;
+
+        final int pid;
+        final long startTime;
+        final String name;
+        long pendingSince = NONE;
+        long lastNotified = NONE;
+        boolean firing;
+        // se aviso el disparo; si no, tampoco se avisa la resolucion
+        boolean notified;
+        long seenTick;
+
+        Tracked(int pid, long startTime, String name) {
+            this.pid = pid;
+            this.startTime = startTime;
+            this.name = name;
+        }
+
+        String subject() {
+            return pid < 0 ? name : name + " (PID " + pid + ")";
+        }
+
+        /**
+         * Avanza con el valor del tick y devuelve que hay que avisar
+         */
+        int advance(AlertRule rule, double value, long now) {
+            if (!firing) {
+                if (!rule.exceeds(value)) {
+                    // entre el umbral y el nivel de salida la cuenta vuelve a empezar
+                    pendingSince = NONE;
+                    return STAY;
+                }
+                if (pendingSince == NONE) {
+                    pendingSince = now;
+                }
+                if (now - pendingSince < rule.getDurationMs()) {
+                    return STAY;
+                }
+                firing = true;
+                pendingSince = NONE;
+                return tryNotify(rule, now);
+            }
+            if (rule.clears(value)) {
+                firing = false;
+                if (notified) {
+                    notified = false;
+                    return RESOLVE;
+                }
+                return STAY;
+            }
+            // sigue disparada; si el enfriamiento callo el aviso, se da cuando termina
+            return notified ? STAY : tryNotify(rule, now);
+        }
+
+        private int tryNotify(AlertRule rule, long now) {
+            if (lastNotified != NONE && now - lastNotified < rule.getCooldownMs()) {
+                return STAY;
+            }
+            notified = true;
+            lastNotified = now;
+            return FIRE;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package ProyectoSistemaOperativo.kernel;
+
+import java.util.Locale;
+
+/**
+ * Una alerta que se disparo o se resolvio. Inmutable, se puede pasar a otro hilo.
+ */
+public final class AlertEvent {
+    private final AlertRule rule;
+    private final boolean firing;
+    private final int pid;
+    private final String subject;
+    private final double value;
+    private final long timestamp;
+
+    AlertEvent(AlertRule rule, boolean firing, int pid, String subject, double value, long timestamp) {
+        this.rule = rule;
+        this.firing = firing;
+        this.pid = pid;
+        this.subject = subject;
+        this.value = value;
+        this.timestamp = timestamp;
+    }
+
+    public AlertRule getRule() {
+        return rule;
+    }
+
+    /**
+     * true al dispararse, false al resolverse
+     */
+    public boolean isFiring() {
+        return firing;
+    }
+
+    /**
+     * PID del proceso, -1 en las reglas de sistema
+     */
+    public int getPid() {
+        return pid;
+    }
+
+    /**
+     * "sistema" o "nombre (PID n)"
+     */
+    public String getSubject() {
+        return subject;
+    }
+
+    /**
+     * Valor que disparo o resolvio la alerta, NaN si el proceso ya no existe
+     */
+    public double getValue() {
+        return value;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getStateName() {
+        return firing ? "disparada" : "resuelta";
+    }
+
+    /**
+     * Texto corto para el log y las notificaciones
+     */
+    public String getMessage() {
+        String shown = Double.isNaN(value) ? "-" : String.format(Locale.ROOT, "%.1f", value);
+        if (firing) {
+            return String.format(Locale.ROOT, "%s: %s %s=%s %s %.1f durante %d s", rule.getName(), subject,
+                    rule.getMetric().getKey(), shown, rule.isAbove() ? ">" : "<", rule.getThreshold(),
+                    rule.getDurationMs() / 1000);
+        }
+        return String.format(Locale.ROOT, "%s: %s %s=%s, de vuelta del nivel %.1f", rule.getName(), subject,
+                rule.getMetric().getKey(), shown, rule.getClearLevel());
+    }
+
+    @Override
+    public String toString() {
+        return "Alerta " + getStateName() + " " + getMessage();
+    }
+}
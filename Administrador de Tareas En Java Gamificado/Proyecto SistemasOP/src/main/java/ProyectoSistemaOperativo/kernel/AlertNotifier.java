@@ -0,0 +1,10 @@
+package ProyectoSistemaOperativo.kernel;
+
+/**
+ * Destino de las alertas (log, bandeja del sistema, comando local). Se llama en el
+ * hilo que publica las fotos, asi que no debe bloquear: lo que tarde se pasa a otro hilo.
+ */
+@FunctionalInterface
+public interface AlertNotifier {
+    void notify(AlertEvent event);
+}
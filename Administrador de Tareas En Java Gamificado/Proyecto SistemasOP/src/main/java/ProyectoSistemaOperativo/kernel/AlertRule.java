@@ -0,0 +1,235 @@
+package ProyectoSistemaOperativo.kernel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Regla de alerta ya compilada desde el archivo de configuracion, por ejemplo
+ * "CPU de un proceso > 80% durante 30 s" o "memoria del sistema > 90%".
+ *
+ * La alerta se dispara cuando el valor pasa el umbral y se mantiene del otro lado
+ * durante la duracion pedida, y se resuelve recien cuando cruza el nivel de salida
+ * (histeresis), asi un valor que oscila alrededor del umbral no dispara una y otra vez.
+ */
+public final class AlertRule {
+
+    /**
+     * Que se mide. Las de proceso se evaluan en cada proceso de la foto.
+     */
+    public enum Metric {
+        SYSTEM_CPU("sistema.cpu", false),
+        SYSTEM_MEMORY("sistema.memoria", false),
+        DISK_USAGE("disco.uso", false),
+        PROCESS_CPU("proceso.cpu", true),
+        PROCESS_MEMORY("proceso.memoria", true),
+        PROCESS_IO("proceso.es", true),
+        PROCESS_THREADS("proceso.hilos", true);
+
+        private static final double MIB = 1024.0 * 1024.0;
+
+        private final String key;
+        private final boolean perProcess;
+
+        Metric(String key, boolean perProcess) {
+            this.key = key;
+            this.perProcess = perProcess;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public boolean isPerProcess() {
+            return perProcess;
+        }
+
+        /**
+         * Valor del sistema en la foto: porcentajes de 0 a 100; NaN si no se conoce
+         */
+        double systemValue(SystemSnapshot snapshot) {
+            switch (this) {
+                case SYSTEM_CPU: return snapshot.getCpuLoad() * 100;
+                case SYSTEM_MEMORY: return snapshot.getMemoryPercent();
+                case DISK_USAGE:
+                    double usage = snapshot.getIoRates().getDiskTotal().getUtilization();
+                    return usage < 0 ? Double.NaN : usage;
+                default: return Double.NaN;
+            }
+        }
+
+        /**
+         * Valor del proceso i: CPU en %, memoria en MiB, E/S en MiB/s; NaN si no se conoce
+         */
+        double processValue(ProcessSnapshot processes, int i) {
+            switch (this) {
+                case PROCESS_CPU: return processes.cpuPercent[i];
+                case PROCESS_MEMORY: return processes.residentSizes[i] / MIB;
+                case PROCESS_IO:
+                    double io = processes.ioBytesPerSec[i];
+                    return io < 0 ? Double.NaN : io / MIB;
+                case PROCESS_THREADS: return processes.threadCounts[i];
+                default: return Double.NaN;
+            }
+        }
+
+        static Metric parse(String key) {
+            for (Metric metric : values()) {
+                if (metric.key.equalsIgnoreCase(key.trim())) {
+                    return metric;
+                }
+            }
+            throw new IllegalArgumentException("metrica desconocida: " + key);
+        }
+    }
+
+    private final String name;
+    private final Metric metric;
+    private final boolean above;
+    private final double threshold;
+    private final double clearLevel;
+    private final long durationMs;
+    private final long cooldownMs;
+    private final String processFilter;
+    private final List<String> notifiers;
+
+    public AlertRule(String name, Metric metric, boolean above, double threshold, double clearLevel,
+                     long durationMs, long cooldownMs, String processFilter, List<String> notifiers) {
+        if (above ? clearLevel > threshold : clearLevel < threshold) {
+            throw new IllegalArgumentException("el nivel de salida debe quedar del lado sano del umbral");
+        }
+        this.name = name;
+        this.metric = metric;
+        this.above = above;
+        this.threshold = threshold;
+        this.clearLevel = clearLevel;
+        this.durationMs = durationMs;
+        this.cooldownMs = cooldownMs;
+        this.processFilter = processFilter == null || processFilter.isEmpty() ? null : processFilter.toLowerCase(Locale.ROOT);
+        this.notifiers = Collections.unmodifiableList(new ArrayList<>(notifiers));
+    }
+
+    /**
+     * Lee la regla "regla.[nombre].*" de la configuracion. Sin nivel de salida se usa
+     * el 90% del umbral (o el 110% con menorQue).
+     */
+    static AlertRule parse(String name, Properties config, List<String> defaultNotifiers) {
+        String prefix = "regla." + name + ".";
+        String metricKey = config.getProperty(prefix + "metrica");
+        if (metricKey == null) {
+            throw new IllegalArgumentException("falta " + prefix + "metrica");
+        }
+        Metric metric = Metric.parse(metricKey);
+        String greater = config.getProperty(prefix + "mayorQue");
+        String less = config.getProperty(prefix + "menorQue");
+        if ((greater == null) == (less == null)) {
+            throw new IllegalArgumentException("se necesita " + prefix + "mayorQue o " + prefix + "menorQue");
+        }
+        boolean above = greater != null;
+        double threshold = Double.parseDouble((above ? greater : less).trim());
+        String clear = config.getProperty(prefix + "salida");
+        double clearLevel = clear != null ? Double.parseDouble(clear.trim()) : threshold * (above ? 0.9 : 1.1);
+        long duration = parseDuration(config.getProperty(prefix + "durante", "0"));
+        long cooldown = parseDuration(config.getProperty(prefix + "enfriamiento", "60s"));
+        String filter = config.getProperty(prefix + "proceso", "").trim();
+        List<String> notifiers = new ArrayList<>();
+        String notify = config.getProperty(prefix + "notificar");
+        if (notify == null) {
+            notifiers.addAll(defaultNotifiers);
+        } else {
+            for (String notifier : notify.split(",")) {
+                if (!notifier.isBlank()) {
+                    notifiers.add(notifier.trim().toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return new AlertRule(name, metric, above, threshold, clearLevel, duration, cooldown, filter, notifiers);
+    }
+
+    /**
+     * "500ms", "30s", "5m", "1h"; un numero solo son segundos
+     */
+    static long parseDuration(String text) {
+        String value = text.trim().toLowerCase(Locale.ROOT);
+        long unit = 1000;
+        if (value.endsWith("ms")) {
+            unit = 1;
+            value = value.substring(0, value.length() - 2);
+        } else if (value.endsWith("s")) {
+            value = value.substring(0, value.length() - 1);
+        } else if (value.endsWith("m")) {
+            unit = 60_000;
+            value = value.substring(0, value.length() - 1);
+        } else if (value.endsWith("h")) {
+            unit = 3_600_000;
+            value = value.substring(0, value.length() - 1);
+        }
+        long amount = Long.parseLong(value.trim());
+        if (amount < 0) {
+            throw new IllegalArgumentException("duracion negativa: " + text);
+        }
+        return amount * unit;
+    }
+
+    /**
+     * El valor esta del lado malo del umbral
+     */
+    boolean exceeds(double value) {
+        return above ? value > threshold : value < threshold;
+    }
+
+    /**
+     * El valor volvio del otro lado del nivel de salida; NaN cuenta como resuelto
+     */
+    boolean clears(double value) {
+        return Double.isNaN(value) || (above ? value < clearLevel : value > clearLevel);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Metric getMetric() {
+        return metric;
+    }
+
+    public boolean isAbove() {
+        return above;
+    }
+
+    public double getThreshold() {
+        return threshold;
+    }
+
+    public double getClearLevel() {
+        return clearLevel;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public long getCooldownMs() {
+        return cooldownMs;
+    }
+
+    /**
+     * Subcadena del nombre del proceso en minusculas, null para todos
+     */
+    public String getProcessFilter() {
+        return processFilter;
+    }
+
+    public List<String> getNotifiers() {
+        return notifiers;
+    }
+
+    @Override
+    public String toString() {
+        return name + ": " + metric.getKey() + (above ? " > " : " < ") + threshold + " durante " + durationMs
+                + " ms (salida " + clearLevel + ", enfriamiento " + cooldownMs + " ms)"
+                + (processFilter != null ? " procesos '" + processFilter + "'" : "");
+    }
+}
@@ -0,0 +1,96 @@
+package ProyectoSistemaOperativo.kernel;
+
+import ProyectoSistemaOperativo.kernel.ProcessControlResult.Action;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.util.Unbox;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Envuelve a otro controlador y deja constancia de cada accion en la auditoria:
+ * accion, PID, nombre y dueño del proceso, quien la pidio, resultado y latencia.
+ * Tambien pasan por aqui las acciones en lote, una linea por proceso.
+ *
+ * La auditoria es el logger {@link #AUDIT_LOGGER}; log4j2.xml lo manda por un appender
+ * asincrono a un archivo rotativo, asi escribir no frena a quien actua. El nombre y el
+ * dueño se toman de la ultima foto al pedir la accion, porque despues de terminar un
+ * proceso ya no se pueden leer.
+ */
+final class AuditingProcessController implements ProcessController {
+    static final String AUDIT_LOGGER = "ProyectoSistemaOperativo.auditoria";
+    private static final Logger audit = LogManager.getLogger(AUDIT_LOGGER);
+    private static final String OPERATOR = System.getProperty("user.name", "?");
+
+    private final ProcessController delegate;
+    private final MetricsHub hub;
+
+    AuditingProcessController(ProcessController delegate, MetricsHub hub) {
+        this.delegate = delegate;
+        this.hub = hub;
+    }
+
+    ProcessController getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public CompletableFuture<ProcessControlResult> terminate(int pid) {
+        return audited(pid, null, delegate.terminate(pid));
+    }
+
+    @Override
+    public CompletableFuture<ProcessControlResult> suspend(int pid) {
+        return audited(pid, null, delegate.suspend(pid));
+    }
+
+    @Override
+    public CompletableFuture<ProcessControlResult> resume(int pid) {
+        return audited(pid, null, delegate.resume(pid));
+    }
+
+    @Override
+    public CompletableFuture<ProcessControlResult> changePriority(int pid, String priority) {
+        return audited(pid, priority, delegate.changePriority(pid, priority));
+    }
+
+    private CompletableFuture<ProcessControlResult> audited(int pid, String priority,
+                                                            CompletableFuture<ProcessControlResult> future) {
+        if (!audit.isInfoEnabled()) {
+            return future;
+        }
+        String name = "?";
+        int owner = -1;
+        ProcessSnapshot snapshot = hub.acquireLastProcesses();
+        if (snapshot != null) {
+            try {
+                int index = snapshot.indexOf(pid);
+                if (index >= 0) {
+                    name = snapshot.getName(index);
+                    owner = snapshot.getUserId(index);
+                }
+            } finally {
+                snapshot.release();
+            }
+        }
+        String processName = name;
+        int processOwner = owner;
+        return future.whenComplete((result, error) -> {
+            if (result != null) {
+                record(result, processName, processOwner, priority);
+            }
+        });
+    }
+
+    /**
+     * Una linea clave=valor por accion. Los numeros van por Unbox y el mensaje es
+     * parametrizado, asi log4j no arma Strings de mas antes de pasarlo al appender.
+     */
+    private static void record(ProcessControlResult result, String name, int owner, String priority) {
+        Action action = result.getAction();
+        audit.info("accion={} pid={} nombre=\"{}\" duenio={} operador={} prioridad={} resultado={} latenciaUs={} mensaje=\"{}\"",
+                action, Unbox.box(result.getPid()), name, Unbox.box(owner), OPERATOR,
+                action == Action.CHANGE_PRIORITY ? priority : "-", result.getOutcome(),
+                Unbox.box(result.getLatencyNanos() / 1000), result.getMessage());
+    }
+}
@@ -0,0 +1,105 @@
+package ProyectoSistemaOperativo.kernel;
+
+import ProyectoSistemaOperativo.kernel.ProcessControlResult.Action;
+import ProyectoSistemaOperativo.kernel.ProcessControlResult.Outcome;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Resuelve conjuntos de procesos (un subarbol o los que cumplen un predicado)
+ * sobre una foto y les aplica una accion en paralelo, un hilo virtual por proceso.
+ */
+final class BatchProcessOperation {
+    private static final int SELF_PID = (int) ProcessHandle.current().pid();
+
+    private BatchProcessOperation() {
+    }
+
+    /**
+     * PIDs del subarbol que cuelga de rootPid segun la foto, incluyendo la raiz.
+     * En el preorden que arma ProcessTreeTracker el subarbol es un tramo contiguo.
+     * Devuelve un arreglo vacio si la raiz no esta en la foto.
+     */
+    static int[] resolveTree(ProcessSnapshot snapshot, int rootPid) {
+        int root = snapshot.indexOf(rootPid);
+        if (root < 0) {
+            return new int[0];
+        }
+        int start = snapshot.getTreePosition(root);
+        int[] pids = new int[snapshot.getSubtreeSize(root)];
+        for (int k = 0; k < pids.length; k++) {
+            pids[k] = snapshot.getPid(snapshot.getTreeOrder(start + k));
+        }
+        return pids;
+    }
+
+    /**
+     * PIDs de la foto que cumplen el predicado
+     */
+    static int[] resolveMatching(ProcessSnapshot snapshot, ProcessPredicate predicate) {
+        int[] pids = new int[snapshot.size()];
+        int count = 0;
+        for (int i = 0; i < snapshot.size(); i++) {
+            if (predicate.test(snapshot, i)) {
+                pids[count++] = snapshot.getPid(i);
+            }
+        }
+        return Arrays.copyOf(pids, count);
+    }
+
+    /**
+     * Aplica la accion a todos los PIDs en paralelo sobre hilos virtuales.
+     * El propio administrador se excluye siempre. No bloquea a quien llama.
+     */
+    static CompletableFuture<BatchResult> run(ProcessController controller, Action action, String priority, int[] pids) {
+        CompletableFuture<BatchResult> result = new CompletableFuture<>();
+        Thread.ofVirtual().name("batch-" + action).start(() -> {
+            long start = System.nanoTime();
+            List<Future<ProcessControlResult>> pending = new ArrayList<>(pids.length);
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int pid : pids) {
+                    if (pid != SELF_PID) {
+                        pending.add(executor.submit(() -> apply(controller, action, priority, pid).join()));
+                    }
+                }
+            }
+            int succeeded = 0;
+            List<ProcessControlResult> failures = new ArrayList<>();
+            for (Future<ProcessControlResult> future : pending) {
+                ProcessControlResult single = get(future, action);
+                if (single.isSuccess()) {
+                    succeeded++;
+                } else {
+                    failures.add(single);
+                }
+            }
+            result.complete(new BatchResult(action, pending.size(), succeeded, failures, System.nanoTime() - start));
+        });
+        return result;
+    }
+
+    private static CompletableFuture<ProcessControlResult> apply(ProcessController controller, Action action, String priority, int pid) {
+        switch (action) {
+            case TERMINATE: return controller.terminate(pid);
+            case SUSPEND: return controller.suspend(pid);
+            case RESUME: return controller.resume(pid);
+            case CHANGE_PRIORITY: return controller.changePriority(pid, priority);
+            default: throw new IllegalArgumentException("Accion desconocida: " + action);
+        }
+    }
+
+    private static ProcessControlResult get(Future<ProcessControlResult> future, Action action) {
+        try {
+            return future.resultNow();
+        } catch (IllegalStateException e) {
+            // el controlador no deberia fallar de forma excepcional, pero si pasa cuenta como fallo
+            return new ProcessControlResult(-1, action, Outcome.FAILED, String.valueOf(future.exceptionNow()), 0);
+        }
+    }
+}
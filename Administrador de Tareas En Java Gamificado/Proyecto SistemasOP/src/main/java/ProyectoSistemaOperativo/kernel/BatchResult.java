@@ -0,0 +1,56 @@
+package ProyectoSistemaOperativo.kernel;
+
+import java.util.List;
+
+/**
+ * Resultado agregado de una accion aplicada a un conjunto de procesos.
+ */
+public final class BatchResult {
+    private final ProcessControlResult.Action action;
+    private final int requested;
+    private final int succeeded;
+    private final List<ProcessControlResult> failures;
+    private final long elapsedNanos;
+
+    public BatchResult(ProcessControlResult.Action action, int requested, int succeeded,
+                       List<ProcessControlResult> failures, long elapsedNanos) {
+        this.action = action;
+        this.requested = requested;
+        this.succeeded = succeeded;
+        this.failures = List.copyOf(failures);
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public ProcessControlResult.Action getAction() {
+        return action;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public int getFailed() {
+        return failures.size();
+    }
+
+    /**
+     * Resultados de los procesos en los que la accion no se pudo aplicar
+     */
+    public List<ProcessControlResult> getFailures() {
+        return failures;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return action + " en lote: " + succeeded + "/" + requested + " exitosos, "
+                + failures.size() + " fallidos (" + elapsedNanos / 1_000_000 + " ms)";
+    }
+}
@@ -0,0 +1,41 @@
+package ProyectoSistemaOperativo.kernel;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Avisa lanzando un comando local, al estilo de un webhook: al comando configurado se le
+ * agregan como argumentos la regla, el estado (disparada/resuelta), el PID (-1 si es del
+ * sistema), el sujeto, la metrica, el valor y el umbral. La salida del comando se descarta.
+ */
+final class CommandAlertNotifier implements AlertNotifier {
+    private static final Logger logger = LogManager.getLogger(CommandAlertNotifier.class);
+
+    private final List<String> command;
+
+    CommandAlertNotifier(String commandLine) {
+        this.command = Arrays.asList(commandLine.trim().split("\\s+"));
+    }
+
+    @Override
+    public void notify(AlertEvent event) {
+        List<String> arguments = new ArrayList<>(command);
+        arguments.add(event.getRule().getName());
+        arguments.add(event.getStateName());
+        arguments.add(Integer.toString(event.getPid()));
+        arguments.add(event.getSubject());
+        arguments.add(event.getRule().getMetric().getKey());
+        arguments.add(Double.isNaN(event.getValue()) ? "-" : String.format(Locale.ROOT, "%.2f", event.getValue()));
+        arguments.add(String.format(Locale.ROOT, "%.2f", event.getRule().getThreshold()));
+        CommandRunner.run(arguments).thenAccept(code -> {
+            if (code != 0) {
+                logger.warn("El comando de alertas termino con codigo {}: {}", code, command.get(0));
+            }
+        });
+    }
+}
@@ -0,0 +1,40 @@
+package ProyectoSistemaOperativo.kernel;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lanza comandos externos sin esperar su fin en el hilo que llama.
+ * El exit code llega por el onExit() del Process.
+ */
+final class CommandRunner {
+    static final long COMMAND_TIMEOUT_MS = 5000;
+
+    private CommandRunner() {
+    }
+
+    /**
+     * Devuelve el exit code del comando, -1 si no se pudo lanzar y -2 si excedio el tiempo limite
+     */
+    static CompletableFuture<Integer> run(List<String> command) {
+        Process process;
+        try {
+            process = new ProcessBuilder(command)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .redirectError(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+        } catch (IOException e) {
+            return CompletableFuture.completedFuture(-1);
+        }
+        return process.onExit()
+                .thenApply(Process::exitValue)
+                .completeOnTimeout(-2, COMMAND_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                .whenComplete((code, error) -> {
+                    if (code != null && code == -2) {
+                        process.destroyForcibly();
+                    }
+                });
+    }
+}
@@ -0,0 +1,82 @@
+package ProyectoSistemaOperativo.kernel;
+
+/**
+ * Tasas de un disco o placa de red entre dos ticks, o la suma de todos los de un tipo.
+ * En red "lectura" es lo recibido y "escritura" lo enviado, y las operaciones son paquetes.
+ * Los valores que el dispositivo no informa valen -1.
+ */
+public final class DeviceRate {
+
+    public enum Kind {
+        DISK, NETWORK
+    }
+
+    private final String name;
+    private final Kind kind;
+    private final double readBytesPerSec;
+    private final double writeBytesPerSec;
+    private final double opsPerSec;
+    private final double queueLength;
+    private final double utilization;
+
+    public DeviceRate(String name, Kind kind, double readBytesPerSec, double writeBytesPerSec,
+                      double opsPerSec, double queueLength, double utilization) {
+        this.name = name;
+        this.kind = kind;
+        this.readBytesPerSec = readBytesPerSec;
+        this.writeBytesPerSec = writeBytesPerSec;
+        this.opsPerSec = opsPerSec;
+        this.queueLength = queueLength;
+        this.utilization = utilization;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Bytes leidos (disco) o recibidos (red) por segundo
+     */
+    public double getReadBytesPerSec() {
+        return readBytesPerSec;
+    }
+
+    /**
+     * Bytes escritos (disco) o enviados (red) por segundo
+     */
+    public double getWriteBytesPerSec() {
+        return writeBytesPerSec;
+    }
+
+    /**
+     * Lecturas mas escrituras por segundo (IOPS), o paquetes por segundo en red
+     */
+    public double getOpsPerSec() {
+        return opsPerSec;
+    }
+
+    /**
+     * Pedidos en curso en el disco al momento del tick, -1 en red
+     */
+    public double getQueueLength() {
+        return queueLength;
+    }
+
+    /**
+     * Porcentaje de 0 a 100: tiempo ocupado del disco o uso del enlace de red
+     * respecto de su velocidad. -1 si no se conoce.
+     */
+    public double getUtilization() {
+        return utilization;
+    }
+
+    @Override
+    public String toString() {
+        return name + " " + kind + " r=" + (long) readBytesPerSec + "B/s w=" + (long) writeBytesPerSec
+                + "B/s ops=" + opsPerSec + " cola=" + queueLength + " uso=" + utilization + "%";
+    }
+}
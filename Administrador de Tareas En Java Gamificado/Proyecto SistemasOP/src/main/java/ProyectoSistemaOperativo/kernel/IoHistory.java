@@ -0,0 +1,284 @@
+package ProyectoSistemaOperativo.kernel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Historia de las tasas de disco y red por dispositivo y de los totales
+ * ({@link IoRates#DISK_TOTAL}, {@link IoRates#NETWORK_TOTAL}), en las mismas tres
+ * resoluciones que {@link MetricsHistory}. Sirve para ver que disco o placa estuvo
+ * saturado y cuando.
+ *
+ * En minuto y hora los bytes, operaciones y cola son el promedio del intervalo y el
+ * uso es el maximo, asi un pico de saturacion no se diluye en el promedio.
+ * Cada serie es un anillo de primitivos que crece hasta su capacidad, como MetricSeries.
+ */
+public class IoHistory {
+    // una hora de muestras a 1 s y un dia por minuto y por hora
+    public static final int RAW_CAPACITY = 3600;
+    public static final int MINUTE_CAPACITY = 1440;
+    public static final int HOUR_CAPACITY = 24;
+    // placas virtuales que van y vienen (contenedores, VPN) no deben crecer sin limite
+    public static final int MAX_DEVICES = 64;
+
+    // en orden de aparicion: totales, discos y placas
+    private final Map<String, DeviceSeries> series = new LinkedHashMap<>();
+
+    /**
+     * Puntos copiados de una serie, del mas viejo al mas nuevo. Se reusa entre copias.
+     */
+    public static final class Points {
+        public long[] times = new long[0];
+        public double[] readBytesPerSec = new double[0];
+        public double[] writeBytesPerSec = new double[0];
+        public double[] opsPerSec = new double[0];
+        public double[] queueLength = new double[0];
+        public double[] utilization = new double[0];
+        public int count;
+
+        void ensureCapacity(int capacity) {
+            if (times.length < capacity) {
+                times = new long[capacity];
+                readBytesPerSec = new double[capacity];
+                writeBytesPerSec = new double[capacity];
+                opsPerSec = new double[capacity];
+                queueLength = new double[capacity];
+                utilization = new double[capacity];
+            }
+        }
+
+        /**
+         * Uso maximo entre los puntos copiados, -1 si no hay datos de uso
+         */
+        public double maxUtilization() {
+            double max = -1;
+            for (int i = 0; i < count; i++) {
+                max = Math.max(max, utilization[i]);
+            }
+            return max;
+        }
+    }
+
+    /**
+     * Agrega las tasas de un tick. Lo llama el hub en el hilo de muestreo.
+     */
+    public synchronized void record(long timestamp, IoRates rates) {
+        add(timestamp, rates.getDiskTotal());
+        add(timestamp, rates.getNetworkTotal());
+        for (DeviceRate rate : rates.getDisks()) {
+            add(timestamp, rate);
+        }
+        for (DeviceRate rate : rates.getNetworks()) {
+            add(timestamp, rate);
+        }
+    }
+
+    /**
+     * Copia los puntos del dispositivo con tiempo >= since. En minuto y hora el
+     * intervalo en curso va como ultimo punto. Devuelve la cantidad, 0 si no hay serie.
+     */
+    public synchronized int copy(String device, MetricsHistory.Resolution resolution, long since, Points out) {
+        DeviceSeries s = series.get(device);
+        if (s == null) {
+            out.count = 0;
+            return 0;
+        }
+        return s.copy(resolution, since, out);
+    }
+
+    /**
+     * Dispositivos con historia, en el orden en que aparecieron
+     */
+    public synchronized List<String> getDeviceNames() {
+        return new ArrayList<>(series.keySet());
+    }
+
+    private void add(long timestamp, DeviceRate rate) {
+        DeviceSeries s = series.get(rate.getName());
+        if (s == null) {
+            if (series.size() >= MAX_DEVICES) {
+                evictOldest();
+            }
+            s = new DeviceSeries();
+            series.put(rate.getName(), s);
+        }
+        s.add(timestamp, rate);
+    }
+
+    /**
+     * Saca la serie del dispositivo que hace mas tiempo no aparece
+     */
+    private void evictOldest() {
+        DeviceSeries oldest = null;
+        for (DeviceSeries s : series.values()) {
+            if (oldest == null || s.lastTimestamp < oldest.lastTimestamp) {
+                oldest = s;
+            }
+        }
+        series.values().remove(oldest);
+    }
+
+    /**
+     * Tres anillos y los acumuladores del minuto y la hora en curso
+     */
+    private static final class DeviceSeries {
+        private final Ring raw = new Ring(RAW_CAPACITY);
+        private final Ring minutes = new Ring(MINUTE_CAPACITY);
+        private final Ring hours = new Ring(HOUR_CAPACITY);
+        private final Bucket minute = new Bucket(MetricsHistory.Resolution.MINUTE.getBucketMs());
+        private final Bucket hour = new Bucket(MetricsHistory.Resolution.HOUR.getBucketMs());
+        long lastTimestamp;
+
+        void add(long timestamp, DeviceRate rate) {
+            lastTimestamp = timestamp;
+            double read = rate.getReadBytesPerSec();
+            double write = rate.getWriteBytesPerSec();
+            double ops = rate.getOpsPerSec();
+            double queue = rate.getQueueLength();
+            double utilization = rate.getUtilization();
+            raw.push(timestamp, read, write, ops, queue, utilization);
+            minute.add(timestamp, read, write, ops, queue, utilization, minutes);
+            hour.add(timestamp, read, write, ops, queue, utilization, hours);
+        }
+
+        int copy(MetricsHistory.Resolution resolution, long since, Points out) {
+            switch (resolution) {
+                case RAW:
+                    out.ensureCapacity(raw.maxCapacity);
+                    return raw.copy(since, out, null);
+                case MINUTE:
+                    out.ensureCapacity(minutes.maxCapacity + 1);
+                    return minutes.copy(since, out, minute);
+                default:
+                    out.ensureCapacity(hours.maxCapacity + 1);
+                    return hours.copy(since, out, hour);
+            }
+        }
+    }
+
+    /**
+     * Intervalo en curso: sumas para los promedios y maximo del uso
+     */
+    private static final class Bucket {
+        final long bucketMs;
+        long start = Long.MIN_VALUE;
+        long end = Long.MIN_VALUE;
+        double read;
+        double write;
+        double ops;
+        double queue;
+        double maxUtilization;
+        int samples;
+
+        Bucket(long bucketMs) {
+            this.bucketMs = bucketMs;
+        }
+
+        void add(long timestamp, double read, double write, double ops, double queue, double utilization, Ring into) {
+            if (timestamp >= end || timestamp < start) {
+                if (samples > 0) {
+                    into.push(start, this.read / samples, this.write / samples, this.ops / samples,
+                            this.queue / samples, maxUtilization);
+                }
+                start = timestamp - Math.floorMod(timestamp, bucketMs);
+                end = start + bucketMs;
+                this.read = 0;
+                this.write = 0;
+                this.ops = 0;
+                this.queue = 0;
+                maxUtilization = -1;
+                samples = 0;
+            }
+            this.read += read;
+            this.write += write;
+            this.ops += ops;
+            this.queue += queue;
+            maxUtilization = Math.max(maxUtilization, utilization);
+            samples++;
+        }
+    }
+
+    /**
+     * Anillo de puntos intercalados en un long[]: tiempo y los cinco valores como bits de double.
+     * Crece al doble hasta maxCapacity y recien ahi empieza a dar la vuelta.
+     */
+    private static final class Ring {
+        private static final int STRIDE = 6;
+        private static final int INITIAL_CAPACITY = 8;
+
+        final int maxCapacity;
+        long[] data;
+        int head; // proximo punto a escribir
+        int count;
+
+        Ring(int maxCapacity) {
+            this.maxCapacity = maxCapacity;
+            this.data = new long[Math.min(INITIAL_CAPACITY, maxCapacity) * STRIDE];
+        }
+
+        void push(long timestamp, double read, double write, double ops, double queue, double utilization) {
+            int length = data.length / STRIDE;
+            if (count == length && length < maxCapacity) {
+                // todavia no dio la vuelta: los puntos estan en orden desde 0
+                data = Arrays.copyOf(data, Math.min(length * 2, maxCapacity) * STRIDE);
+                length = data.length / STRIDE;
+                head = count;
+            }
+            int base = head * STRIDE;
+            data[base] = timestamp;
+            data[base + 1] = Double.doubleToRawLongBits(read);
+            data[base + 2] = Double.doubleToRawLongBits(write);
+            data[base + 3] = Double.doubleToRawLongBits(ops);
+            data[base + 4] = Double.doubleToRawLongBits(queue);
+            data[base + 5] = Double.doubleToRawLongBits(utilization);
+            head = head + 1 == length ? 0 : head + 1;
+            if (count < length) {
+                count++;
+            }
+        }
+
+        int copy(long since, Points out, Bucket partial) {
+            boolean withPartial = partial != null && partial.samples > 0 && partial.start >= since;
+            int available = 0;
+            // los puntos estan ordenados por tiempo, se cuentan desde el mas nuevo hacia atras
+            while (available < count && data[index(count - 1 - available) * STRIDE] >= since) {
+                available++;
+            }
+            int room = out.times.length - (withPartial ? 1 : 0);
+            int n = Math.max(0, Math.min(available, room));
+            for (int k = 0; k < n; k++) {
+                int base = index(count - n + k) * STRIDE;
+                out.times[k] = data[base];
+                out.readBytesPerSec[k] = Double.longBitsToDouble(data[base + 1]);
+                out.writeBytesPerSec[k] = Double.longBitsToDouble(data[base + 2]);
+                out.opsPerSec[k] = Double.longBitsToDouble(data[base + 3]);
+                out.queueLength[k] = Double.longBitsToDouble(data[base + 4]);
+                out.utilization[k] = Double.longBitsToDouble(data[base + 5]);
+            }
+            if (withPartial && out.times.length > 0) {
+                out.times[n] = partial.start;
+                out.readBytesPerSec[n] = partial.read / partial.samples;
+                out.writeBytesPerSec[n] = partial.write / partial.samples;
+                out.opsPerSec[n] = partial.ops / partial.samples;
+                out.queueLength[n] = partial.queue / partial.samples;
+                out.utilization[n] = partial.maxUtilization;
+                n++;
+            }
+            out.count = n;
+            return n;
+        }
+
+        /**
+         * Posicion en el anillo del punto k, contando desde el mas viejo
+         */
+        private int index(int k) {
+            int length = data.length / STRIDE;
+            int oldest = count < length ? 0 : head;
+            int i = oldest + k;
+            return i >= length ? i - length : i;
+        }
+    }
+}
@@ -0,0 +1,403 @@
+package ProyectoSistemaOperativo.kernel;
+
+import oshi.hardware.HWDiskStore;
+import oshi.hardware.HardwareAbstractionLayer;
+import oshi.hardware.NetworkIF;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Calcula las tasas de disco y red de cada tick a partir de los contadores acumulados
+ * de cada dispositivo: bytes por segundo, operaciones por segundo, cola y uso.
+ *
+ * La lista de dispositivos se pide a OSHI una vez y se vuelve a pedir solo cada
+ * {@link #RESCAN_MS} (para ver discos o placas nuevas); en los ticks del medio se
+ * actualizan los mismos objetos con updateAttributes(). En Linux los contadores se
+ * leen de /proc/diskstats y /proc/net/dev, un archivo por tipo: ahi updateAttributes()
+ * de un disco vuelve a enumerar todos los dispositivos de bloque por udev y cuesta
+ * mas que la enumeracion completa.
+ *
+ * No es thread-safe, lo usa solo el hilo de muestreo.
+ */
+final class IoRateTracker {
+    static final long RESCAN_MS = 60_000;
+    private static final Path DISKSTATS = Path.of("/proc/diskstats");
+    private static final Path NET_DEV = Path.of("/proc/net/dev");
+    private static final int SECTOR_BYTES = 512;
+
+    private final HardwareAbstractionLayer hardware;
+    private final boolean procfs;
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(16384);
+    private Device[] disks = new Device[0];
+    private Device[] networks = new Device[0];
+    private long lastScan = Long.MIN_VALUE;
+    private long lastTimestamp = Long.MIN_VALUE;
+
+    // Sumas de los contadores acumulados del ultimo tick
+    private long diskReadBytes;
+    private long diskWriteBytes;
+    private long networkBytesSent;
+    private long networkBytesRecv;
+
+    IoRateTracker(HardwareAbstractionLayer hardware) {
+        this(hardware, !"oshi".equalsIgnoreCase(System.getProperty("dispositivos.fuente", ""))
+                && Files.isReadable(DISKSTATS) && Files.isReadable(NET_DEV));
+    }
+
+    IoRateTracker(HardwareAbstractionLayer hardware, boolean procfs) {
+        this.hardware = hardware;
+        this.procfs = procfs;
+    }
+
+    String getSourceName() {
+        return procfs ? "procfs" : "oshi";
+    }
+
+    /**
+     * Actualiza los contadores de todos los dispositivos y devuelve las tasas desde el tick anterior
+     */
+    IoRates sample(long now) {
+        boolean fresh = false;
+        if (lastScan == Long.MIN_VALUE || now - lastScan >= RESCAN_MS || now < lastScan) {
+            rescan();
+            lastScan = now;
+            fresh = true;
+        }
+        if (procfs) {
+            readDiskstats();
+            readNetDev();
+        } else if (!fresh) {
+            // los objetos recien enumerados ya traen los contadores al dia
+            for (Device disk : disks) {
+                disk.disk.updateAttributes();
+                disk.readDisk();
+            }
+            for (Device network : networks) {
+                network.network.updateAttributes();
+                network.readNetwork();
+            }
+        }
+
+        double seconds = lastTimestamp == Long.MIN_VALUE || now <= lastTimestamp ? 0 : (now - lastTimestamp) / 1000.0;
+        lastTimestamp = now;
+        DeviceRate[] diskRates = new DeviceRate[disks.length];
+        DeviceRate[] networkRates = new DeviceRate[networks.length];
+        diskReadBytes = 0;
+        diskWriteBytes = 0;
+        for (int i = 0; i < disks.length; i++) {
+            Device d = disks[i];
+            diskRates[i] = d.diskRate(seconds);
+            diskReadBytes += d.readBytes;
+            diskWriteBytes += d.writeBytes;
+            d.commit();
+        }
+        networkBytesRecv = 0;
+        networkBytesSent = 0;
+        for (int i = 0; i < networks.length; i++) {
+            Device n = networks[i];
+            networkRates[i] = n.networkRate(seconds);
+            networkBytesRecv += n.readBytes;
+            networkBytesSent += n.writeBytes;
+            n.commit();
+        }
+        return new IoRates(diskRates, networkRates);
+    }
+
+    long getDiskReadBytes() {
+        return diskReadBytes;
+    }
+
+    long getDiskWriteBytes() {
+        return diskWriteBytes;
+    }
+
+    long getNetworkBytesSent() {
+        return networkBytesSent;
+    }
+
+    long getNetworkBytesRecv() {
+        return networkBytesRecv;
+    }
+
+    /**
+     * Vuelve a pedir la lista a OSHI. Los dispositivos que siguen conservan sus contadores
+     * anteriores, asi el tick de la reenumeracion tambien tiene tasas.
+     */
+    private void rescan() {
+        List<HWDiskStore> diskStores = hardware.getDiskStores();
+        Device[] newDisks = new Device[diskStores.size()];
+        for (int i = 0; i < newDisks.length; i++) {
+            HWDiskStore store = diskStores.get(i);
+            Device device = find(disks, store.getName());
+            if (device == null) {
+                device = new Device(store.getName(), shortName(store.getName()));
+            }
+            device.disk = store;
+            device.readDisk();
+            newDisks[i] = device;
+        }
+        disks = newDisks;
+
+        List<NetworkIF> interfaces = hardware.getNetworkIFs();
+        Device[] newNetworks = new Device[interfaces.size()];
+        for (int i = 0; i < newNetworks.length; i++) {
+            NetworkIF nic = interfaces.get(i);
+            Device device = find(networks, nic.getName());
+            if (device == null) {
+                device = new Device(nic.getName(), nic.getName());
+            }
+            device.network = nic;
+            device.readNetwork();
+            newNetworks[i] = device;
+        }
+        networks = newNetworks;
+    }
+
+    private static Device find(Device[] devices, String name) {
+        for (Device device : devices) {
+            if (device.name.equals(name)) {
+                return device;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * "/dev/sda" -> "sda", como aparece en /proc/diskstats
+     */
+    private static String shortName(String name) {
+        int slash = name.lastIndexOf('/');
+        return slash >= 0 ? name.substring(slash + 1) : name;
+    }
+
+    /**
+     * Formato por linea: major minor nombre lecturas fusionadas sectores_leidos ms_lectura
+     * escrituras fusionadas sectores_escritos ms_escritura en_curso ms_ocupado ...
+     */
+    private void readDiskstats() {
+        if (!readFile(DISKSTATS)) {
+            return;
+        }
+        int limit = buffer.limit();
+        int pos = 0;
+        while (pos < limit) {
+            int lineEnd = lineEnd(pos, limit);
+            // major y minor
+            pos = skipField(skipSpaces(pos, lineEnd), lineEnd);
+            pos = skipField(skipSpaces(pos, lineEnd), lineEnd);
+            int nameStart = skipSpaces(pos, lineEnd);
+            int nameEnd = skipField(nameStart, lineEnd);
+            Device device = match(disks, nameStart, nameEnd);
+            if (device != null) {
+                long[] fields = device.scratch;
+                int cursor = nameEnd;
+                for (int f = 0; f < 10; f++) {
+                    cursor = skipSpaces(cursor, lineEnd);
+                    fields[f] = parseLong(cursor, lineEnd);
+                    cursor = skipField(cursor, lineEnd);
+                }
+                device.readOps = fields[0];
+                device.readBytes = fields[2] * SECTOR_BYTES;
+                device.writeOps = fields[4];
+                device.writeBytes = fields[6] * SECTOR_BYTES;
+                device.queue = fields[8];
+                device.busyMs = fields[9];
+            }
+            pos = lineEnd + 1;
+        }
+    }
+
+    /**
+     * Formato: dos lineas de cabecera y luego "nombre: rx_bytes rx_paquetes errores drop
+     * fifo frame comprimidos multicast tx_bytes tx_paquetes ..."
+     */
+    private void readNetDev() {
+        if (!readFile(NET_DEV)) {
+            return;
+        }
+        int limit = buffer.limit();
+        int pos = 0;
+        while (pos < limit) {
+            int lineEnd = lineEnd(pos, limit);
+            int nameStart = skipSpaces(pos, lineEnd);
+            int colon = nameStart;
+            while (colon < lineEnd && buffer.get(colon) != ':') {
+                colon++;
+            }
+            Device device = colon < lineEnd ? match(networks, nameStart, colon) : null;
+            if (device != null) {
+                long[] fields = device.scratch;
+                int cursor = colon + 1;
+                for (int f = 0; f < 10; f++) {
+                    cursor = skipSpaces(cursor, lineEnd);
+                    fields[f] = parseLong(cursor, lineEnd);
+                    cursor = skipField(cursor, lineEnd);
+                }
+                device.readBytes = fields[0];
+                device.readOps = fields[1];
+                device.writeBytes = fields[8];
+                device.writeOps = fields[9];
+            }
+            pos = lineEnd + 1;
+        }
+    }
+
+    private Device match(Device[] devices, int start, int end) {
+        for (Device device : devices) {
+            byte[] key = device.key;
+            if (key.length != end - start) {
+                continue;
+            }
+            int k = 0;
+            while (k < key.length && buffer.get(start + k) == key[k]) {
+                k++;
+            }
+            if (k == key.length) {
+                return device;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Lee el archivo completo en el buffer, agrandandolo si no entra
+     */
+    private boolean readFile(Path file) {
+        while (true) {
+            buffer.clear();
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+                    // los archivos de /proc se leen hasta EOF o hasta llenar el buffer
+                }
+            } catch (IOException e) {
+                return false;
+            }
+            if (!buffer.hasRemaining()) {
+                buffer = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+                continue;
+            }
+            buffer.flip();
+            return true;
+        }
+    }
+
+    private int lineEnd(int pos, int limit) {
+        while (pos < limit && buffer.get(pos) != '\n') {
+            pos++;
+        }
+        return pos;
+    }
+
+    private int skipSpaces(int pos, int end) {
+        while (pos < end && buffer.get(pos) == ' ') {
+            pos++;
+        }
+        return pos;
+    }
+
+    private int skipField(int pos, int end) {
+        while (pos < end && buffer.get(pos) != ' ') {
+            pos++;
+        }
+        return pos;
+    }
+
+    private long parseLong(int pos, int end) {
+        long value = 0;
+        while (pos < end) {
+            byte b = buffer.get(pos++);
+            if (b < '0' || b > '9') {
+                break;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Contadores acumulados de un dispositivo en este tick y en el anterior
+     */
+    private static final class Device {
+        final String name;
+        final byte[] key;
+        final long[] scratch = new long[10];
+        HWDiskStore disk;
+        NetworkIF network;
+
+        long readBytes;
+        long writeBytes;
+        long readOps;
+        long writeOps;
+        long busyMs;
+        long queue;
+        long speedBitsPerSec;
+
+        boolean hasPrevious;
+        long previousReadBytes;
+        long previousWriteBytes;
+        long previousOps;
+        long previousBusyMs;
+
+        Device(String name, String key) {
+            this.name = name;
+            this.key = key.getBytes(StandardCharsets.US_ASCII);
+        }
+
+        void readDisk() {
+            readBytes = disk.getReadBytes();
+            writeBytes = disk.getWriteBytes();
+            readOps = disk.getReads();
+            writeOps = disk.getWrites();
+            busyMs = disk.getTransferTime();
+            queue = disk.getCurrentQueueLength();
+        }
+
+        void readNetwork() {
+            readBytes = network.getBytesRecv();
+            writeBytes = network.getBytesSent();
+            readOps = network.getPacketsRecv();
+            writeOps = network.getPacketsSent();
+            speedBitsPerSec = network.getSpeed();
+        }
+
+        DeviceRate diskRate(double seconds) {
+            if (!hasPrevious || seconds <= 0) {
+                return new DeviceRate(name, DeviceRate.Kind.DISK, 0, 0, 0, queue, 0);
+            }
+            // ms ocupado sobre ms transcurridos
+            double utilization = Math.min(100, IoRates.rate(previousBusyMs, busyMs, seconds) / 10);
+            return new DeviceRate(name, DeviceRate.Kind.DISK,
+                    IoRates.rate(previousReadBytes, readBytes, seconds),
+                    IoRates.rate(previousWriteBytes, writeBytes, seconds),
+                    IoRates.rate(previousOps, readOps + writeOps, seconds),
+                    queue, utilization);
+        }
+
+        DeviceRate networkRate(double seconds) {
+            if (!hasPrevious || seconds <= 0) {
+                return new DeviceRate(name, DeviceRate.Kind.NETWORK, 0, 0, 0, -1, speedBitsPerSec > 0 ? 0 : -1);
+            }
+            double recv = IoRates.rate(previousReadBytes, readBytes, seconds);
+            double sent = IoRates.rate(previousWriteBytes, writeBytes, seconds);
+            // el enlace es full duplex, se mira el sentido mas cargado
+            double utilization = speedBitsPerSec > 0 ? Math.min(100, Math.max(recv, sent) * 8 * 100 / speedBitsPerSec) : -1;
+            return new DeviceRate(name, DeviceRate.Kind.NETWORK, recv, sent,
+                    IoRates.rate(previousOps, readOps + writeOps, seconds), -1, utilization);
+        }
+
+        void commit() {
+            hasPrevious = true;
+            previousReadBytes = readBytes;
+            previousWriteBytes = writeBytes;
+            previousOps = readOps + writeOps;
+            previousBusyMs = busyMs;
+        }
+    }
+}
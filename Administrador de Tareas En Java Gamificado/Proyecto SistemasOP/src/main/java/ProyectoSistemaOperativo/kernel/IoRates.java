@@ -0,0 +1,99 @@
+package ProyectoSistemaOperativo.kernel;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tasas de disco y red de un tick: una por dispositivo y el total de cada tipo.
+ * En el total los bytes, operaciones y cola se suman y el uso es el del dispositivo
+ * mas ocupado, asi un disco saturado no se esconde detras de otros tranquilos.
+ */
+public final class IoRates {
+    public static final String DISK_TOTAL = "Discos";
+    public static final String NETWORK_TOTAL = "Red";
+    public static final IoRates EMPTY = new IoRates(new DeviceRate[0], new DeviceRate[0]);
+
+    private final List<DeviceRate> disks;
+    private final List<DeviceRate> networks;
+    private final DeviceRate diskTotal;
+    private final DeviceRate networkTotal;
+
+    public IoRates(DeviceRate[] disks, DeviceRate[] networks) {
+        this(disks, networks, total(DISK_TOTAL, DeviceRate.Kind.DISK, disks),
+                total(NETWORK_TOTAL, DeviceRate.Kind.NETWORK, networks));
+    }
+
+    private IoRates(DeviceRate[] disks, DeviceRate[] networks, DeviceRate diskTotal, DeviceRate networkTotal) {
+        this.disks = Collections.unmodifiableList(Arrays.asList(disks));
+        this.networks = Collections.unmodifiableList(Arrays.asList(networks));
+        this.diskTotal = diskTotal;
+        this.networkTotal = networkTotal;
+    }
+
+    /**
+     * Solo los totales de bytes por segundo a partir de los contadores acumulados de dos
+     * fotos, para las que no traen tasas (por ejemplo una grabacion). Sin desglose.
+     */
+    public static IoRates fromTotals(SystemSnapshot previous, SystemSnapshot current) {
+        if (previous == null || current.getTimestamp() <= previous.getTimestamp()) {
+            return EMPTY;
+        }
+        double seconds = (current.getTimestamp() - previous.getTimestamp()) / 1000.0;
+        DeviceRate disk = new DeviceRate(DISK_TOTAL, DeviceRate.Kind.DISK,
+                rate(previous.getDiskReadBytes(), current.getDiskReadBytes(), seconds),
+                rate(previous.getDiskWriteBytes(), current.getDiskWriteBytes(), seconds), -1, -1, -1);
+        DeviceRate network = new DeviceRate(NETWORK_TOTAL, DeviceRate.Kind.NETWORK,
+                rate(previous.getNetworkBytesRecv(), current.getNetworkBytesRecv(), seconds),
+                rate(previous.getNetworkBytesSent(), current.getNetworkBytesSent(), seconds), -1, -1, -1);
+        return new IoRates(new DeviceRate[0], new DeviceRate[0], disk, network);
+    }
+
+    /**
+     * Diferencia de un contador acumulado por segundo; si el contador volvio atras
+     * (dispositivo reiniciado o reemplazado) la tasa del tick es 0
+     */
+    static double rate(long previous, long current, double seconds) {
+        return current < previous ? 0 : (current - previous) / seconds;
+    }
+
+    public List<DeviceRate> getDisks() {
+        return disks;
+    }
+
+    public List<DeviceRate> getNetworks() {
+        return networks;
+    }
+
+    public DeviceRate getDiskTotal() {
+        return diskTotal;
+    }
+
+    public DeviceRate getNetworkTotal() {
+        return networkTotal;
+    }
+
+    private static DeviceRate total(String name, DeviceRate.Kind kind, DeviceRate[] devices) {
+        double read = 0;
+        double write = 0;
+        double ops = 0;
+        double queue = 0;
+        double utilization = -1;
+        boolean anyOps = false;
+        boolean anyQueue = false;
+        for (DeviceRate device : devices) {
+            read += device.getReadBytesPerSec();
+            write += device.getWriteBytesPerSec();
+            if (device.getOpsPerSec() >= 0) {
+                ops += device.getOpsPerSec();
+                anyOps = true;
+            }
+            if (device.getQueueLength() >= 0) {
+                queue += device.getQueueLength();
+                anyQueue = true;
+            }
+            utilization = Math.max(utilization, device.getUtilization());
+        }
+        return new DeviceRate(name, kind, read, write, anyOps ? ops : -1, anyQueue ? queue : -1, utilization);
+    }
+}
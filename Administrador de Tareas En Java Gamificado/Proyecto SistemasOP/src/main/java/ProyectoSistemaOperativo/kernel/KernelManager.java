@@ -2,47 +2,133 @@ package ProyectoSistemaOperativo.kernel;
 
 import ProyectoSistemaOperativo.observer.ProcessObserver;
 import ProyectoSistemaOperativo.ui.TaskManagerFrame;
-import oshi.SystemInfo;
 import oshi.software.os.OSProcess;
 import oshi.software.os.OperatingSystem;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
 import java.beans.PropertyChangeListener;
-import java.beans.PropertyChangeSupport;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import oshi.software.os.OSProcess;
 public class KernelManager {
-    private SystemInfo systemInfo  = new SystemInfo();
-    private OperatingSystem os = systemInfo.getOperatingSystem();
-    private PropertyChangeSupport support;
+    private final MetricsHub metricsHub;
+    private OperatingSystem os;
+    private final ProcessSampler sampler;
+    // Distinto de null cuando los datos vienen de una grabacion en vez del sistema
+    private final SnapshotReplayer replayer;
+    private SnapshotRecorder recorder;
+    private final AlertEngine alertEngine;
+    // siempre envuelto en AuditingProcessController, cada accion queda en la auditoria
+    private volatile ProcessController processController;
     private static final Logger logger = LogManager.getLogger(KernelManager.class);
+    private static final String ALERTS_DEMAND = "alertas";
 
     public KernelManager() {
-        os = systemInfo.getOperatingSystem();
-        support = new PropertyChangeSupport(this);
+        metricsHub = new MetricsHub();
+        os = metricsHub.getOperatingSystem();
+        sampler = new ProcessSampler(metricsHub);
+        replayer = null;
+        processController = new AuditingProcessController(ProcessController.createDefault(), metricsHub);
+        alertEngine = AlertEngine.createDefault();
+        metricsHub.addPropertyChangeListener("system", alertEngine);
+        metricsHub.getSelfMetrics().register();
+        // las alertas siguen muestreando, mas despacio, aunque no haya ventanas visibles
+        if (alertEngine.getSamplingIntervalMs() > 0) {
+            sampler.setDemand(ALERTS_DEMAND, alertEngine.getSamplingIntervalMs());
+        }
+    }
+
+    /**
+     * Modo reproduccion: los datos salen de una grabacion (segmento o carpeta) a la velocidad
+     * indicada, y las acciones sobre procesos quedan deshabilitadas
+     */
+    public KernelManager(Path recording, double speed) throws IOException {
+        metricsHub = new MetricsHub();
+        os = metricsHub.getOperatingSystem();
+        sampler = new ProcessSampler(metricsHub);
+        replayer = new SnapshotReplayer(metricsHub, recording, speed);
+        processController = new AuditingProcessController(
+                new ReadOnlyProcessController("Modo reproduccion: no se actua sobre procesos"), metricsHub);
+        alertEngine = AlertEngine.createDefault();
+        metricsHub.addPropertyChangeListener("system", alertEngine);
+        metricsHub.getSelfMetrics().register();
+    }
+
+    public boolean isReplaying() {
+        return replayer != null;
+    }
+
+    public SnapshotReplayer getReplayer() {
+        return replayer;
+    }
+
+    /**
+     * Graba cada tick en segmentos dentro de la carpeta, borrando los mas viejos
+     * cuando el total pasa de maxBytes
+     */
+    public synchronized void startRecording(Path directory, long segmentBytes, long maxBytes) throws IOException {
+        stopRecording();
+        recorder = new SnapshotRecorder(directory, segmentBytes, maxBytes);
+        metricsHub.addPropertyChangeListener("system", recorder);
+        logger.info("Grabacion de fotos en " + directory);
+    }
+
+    public synchronized void stopRecording() {
+        if (recorder != null) {
+            metricsHub.removePropertyChangeListener("system", recorder);
+            recorder.flush();
+            recorder = null;
+        }
+    }
+
+    public synchronized boolean isRecording() {
+        return recorder != null;
+    }
+
+    /**
+     * Reglas de alerta evaluadas en cada tick; la ventana le agrega el aviso de la bandeja
+     */
+    public AlertEngine getAlertEngine() {
+        return alertEngine;
+    }
+
+    /**
+     * Hub compartido de metricas, las ventanas se suscriben aqui en vez de crear su propio SystemInfo
+     */
+    public MetricsHub getMetricsHub() {
+        return metricsHub;
     }
 
     public void addPropertyChangeListener(PropertyChangeListener listener) {
-        support.addPropertyChangeListener(listener);
+        metricsHub.addPropertyChangeListener(listener);
     }
 
     public void removePropertyChangeListener(PropertyChangeListener listener) {
-        support.removePropertyChangeListener(listener);
+        metricsHub.removePropertyChangeListener(listener);
     }
 /**
  * Obtiene una lista ordenada por el PID de los procesos
  * aja eso
  */
 public List<OSProcess> getProcesses() {
-    List<OSProcess> processList = os.getProcesses();
-    return processList.stream()
-            .sorted(Comparator.comparingInt(OSProcess::getProcessID))
-            .collect(Collectors.toList());
+    return metricsHub.getProcesses();
+}
+
+/**
+ * Ruta y linea de comandos del proceso para mostrar al pasar el mouse, leidas en el hilo
+ * de muestreo porque cuestan varias lecturas al sistema. Completa con null si ya no existe
+ * o si se esta reproduciendo una grabacion (el PID no es de esta maquina)
+ */
+public CompletableFuture<String> describeProcessCommand(int pid) {
+    if (isReplaying()) {
+        return CompletableFuture.completedFuture(null);
+    }
+    return sampler.submit(() -> metricsHub.describeCommand(pid));
 }
 
 /**
@@ -53,87 +139,234 @@ public OSProcess getProcessById(int pid) {
 }
 
 /**
- * Termina un proceso por su PID
+ * Termina un proceso por su PID: SIGTERM y luego SIGKILL en Linux, taskkill en Windows.
+ * No bloquea, el resultado llega en el futuro (fuera del EDT).
+ */
+public CompletableFuture<ProcessControlResult> terminateProcess(int pid) {
+    return log(processController.terminate(pid));
+}
+
+/**
+ * Suspende un proceso por su PID (SIGSTOP en Linux, pssuspend en Windows)
+ */
+public CompletableFuture<ProcessControlResult> suspendProcess(int pid) {
+    return log(processController.suspend(pid));
+}
+
+/**
+ * Reanuda un proceso por su PID (SIGCONT en Linux, pssuspend -r en Windows)
+ */
+public CompletableFuture<ProcessControlResult> resumeProcess(int pid) {
+    return log(processController.resume(pid));
+}
+
+/**
+ * Cambia la prioridad de un proceso
+ * priority: "LOW", "BELOW_NORMAL", "NORMAL", "ABOVE_NORMAL", "HIGH", "REALTIME"
  */
-public boolean terminateProcess(int pid) {
+public CompletableFuture<ProcessControlResult> changePriority(int pid, String priority) {
+    return log(processController.changePriority(pid, priority));
+}
+
+/**
+ * PIDs del proceso y todos sus descendientes segun la ultima foto. El arbol lo mantiene
+ * el hub tick a tick (ver {@link ProcessTreeTracker}), aqui solo se copia el tramo del subarbol.
+ */
+public int[] resolveProcessTree(int rootPid) {
+    ProcessSnapshot snapshot = metricsHub.acquireLastProcesses();
+    if (snapshot == null) {
+        return new int[0];
+    }
     try {
-        // Usar comando del sistema para terminar el proceso
-        Process killProcess = Runtime.getRuntime().exec("taskkill /PID " + pid + " /F");
-        int exitCode = killProcess.waitFor();
-        return exitCode == 0;
-    } catch (Exception e) {
-        e.printStackTrace();
-        return false;
+        return BatchProcessOperation.resolveTree(snapshot, rootPid);
+    } finally {
+        snapshot.release();
     }
 }
 
 /**
- * Suspende un proceso por su PID (Windows - usa pssuspend de Sysinternals)
+ * PIDs de la ultima foto que cumplen el predicado
  */
-public boolean suspendProcess(int pid) {
+public int[] resolveMatching(ProcessPredicate predicate) {
+    ProcessSnapshot snapshot = metricsHub.acquireLastProcesses();
+    if (snapshot == null) {
+        return new int[0];
+    }
     try {
-        // Usar pssuspend.exe para suspender el proceso (requiere Sysinternals tools)
-        Process suspendProcess = Runtime.getRuntime().exec("pssuspend.exe " + pid);
-        int exitCode = suspendProcess.waitFor();
-        if (exitCode == 0) {
-            logger.info("Proceso " + pid + " suspendido exitosamente.");
-            return true;
-        } else {
-            logger.warn("No se pudo suspender el proceso " + pid + ". Asegúrate de que pssuspend.exe esté en el PATH.");
-            return false;
+        return BatchProcessOperation.resolveMatching(snapshot, predicate);
+    } finally {
+        snapshot.release();
+    }
+}
+
+/**
+ * Aplica la accion a todos los PIDs en paralelo (un hilo virtual por proceso)
+ * y devuelve los conteos agregados. priority solo se usa con CHANGE_PRIORITY.
+ */
+public CompletableFuture<BatchResult> runBatch(ProcessControlResult.Action action, String priority, int[] pids) {
+    return BatchProcessOperation.run(processController, action, priority, pids)
+            .whenComplete((result, error) -> {
+                if (result != null) {
+                    logger.info(result);
+                }
+            });
+}
+
+/**
+ * Aplica la accion a un proceso y todo su subarbol
+ */
+public CompletableFuture<BatchResult> runOnTree(ProcessControlResult.Action action, int rootPid) {
+    return runBatch(action, null, resolveProcessTree(rootPid));
+}
+
+/**
+ * Aplica la accion a todos los procesos que cumplen el predicado
+ */
+public CompletableFuture<BatchResult> runOnMatching(ProcessControlResult.Action action, ProcessPredicate predicate) {
+    return runBatch(action, null, resolveMatching(predicate));
+}
+
+/**
+ * El controlador real, sin la capa de auditoria
+ */
+public ProcessController getProcessController() {
+    return ((AuditingProcessController) processController).getDelegate();
+}
+
+/**
+ * Cambia el controlador de procesos, por ejemplo para pruebas o para otro sistema operativo
+ */
+public void setProcessController(ProcessController processController) {
+    this.processController = new AuditingProcessController(processController, metricsHub);
+}
+
+private CompletableFuture<ProcessControlResult> log(CompletableFuture<ProcessControlResult> future) {
+    return future.whenComplete((result, error) -> {
+        if (result != null && result.isSuccess()) {
+            logger.info(result);
+        } else if (result != null) {
+            logger.warn(result);
         }
-    } catch (Exception e) {
-        logger.error("Error suspendiendo proceso " + pid, e);
-        return false;
+    });
+}
+
+/**
+ * Arranca el muestreo en segundo plano con un ritmo fijo (por ejemplo el modo sin ventana).
+ * Igual puede frenarse si la aplicacion o la maquina estan sobrecargadas.
+ */
+public void startSampling(long intervalMs) {
+    if (replayer == null) {
+        sampler.setIntervalMs(intervalMs);
     }
+    startSampling();
 }
 
 /**
- * Reanuda un proceso por su PID (Windows - requiere herramientas externas)
+ * Arranca el muestreo sin ritmo propio: se muestrea al ritmo que pidan los consumidores
+ * con {@link #setSamplingDemand(String, long)} y sin pedidos queda en pausa
  */
-public boolean resumeProcess(int pid) {
-    try {
-        // Similar a suspend, requiere herramientas externas
-        logger.warn("Reanudar proceso no implementado completamente en Windows. Requiere herramientas externas.");
-        return false; // No implementado
-    } catch (Exception e) {
-        logger.error("Error reanudando proceso " + pid, e);
-        return false;
+public void startSampling() {
+    if (replayer != null) {
+        // en reproduccion el ritmo lo marca la grabacion
+        replayer.start();
+        return;
     }
+    sampler.start();
+}
+
+public void stopSampling() {
+    if (replayer != null) {
+        replayer.stop();
+        return;
+    }
+    sampler.stop();
 }
 
 /**
- * Cambia la prioridad de un proceso
- * priority: "LOW", "BELOW_NORMAL", "NORMAL", "ABOVE_NORMAL", "HIGH", "REALTIME"
+ * El consumidor (por ejemplo una ventana visible) necesita una foto cada intervalMs
  */
-public boolean changePriority(int pid, String priority) {
-    try {
-        // Usar wmic para cambiar la prioridad
-        String wmicCommand = "wmic process where ProcessId=" + pid + " call setpriority \"" + getPriorityClass(priority) + "\"";
-        Process priorityProcess = Runtime.getRuntime().exec(wmicCommand);
-        int exitCode = priorityProcess.waitFor();
-        return exitCode == 0;
-    } catch (Exception e) {
-        logger.error("Error cambiando prioridad del proceso " + pid, e);
-        return false;
+public void setSamplingDemand(String consumer, long intervalMs) {
+    sampler.setDemand(consumer, intervalMs);
+}
+
+/**
+ * El consumidor ya no necesita datos, por ejemplo porque su ventana se minimizo
+ */
+public void removeSamplingDemand(String consumer) {
+    sampler.removeDemand(consumer);
+}
+
+/**
+ * Intervalo efectivo de muestreo en ms, 0 si esta en pausa
+ */
+public long getSamplingInterval() {
+    return sampler.getIntervalMs();
+}
+
+public void setSamplingInterval(long intervalMs) {
+    sampler.setIntervalMs(intervalMs);
+}
+
+/**
+ * Texto del ritmo de muestreo actual, con el frenado si lo hay
+ */
+public String describeSampling() {
+    return replayer != null ? "reproduccion" : sampler.describeInterval();
+}
+
+/**
+ * CPU que usa la propia aplicacion en porcentaje del total, -1 si no se sabe
+ */
+public double getSelfCpuPercent() {
+    return sampler.getSelfCpuPercent();
+}
+
+/**
+ * Porcentaje del total de la CPU que puede usar la aplicacion antes de que el muestreo se frene
+ */
+public void setSamplingCpuBudget(double percent) {
+    sampler.setCpuBudget(percent);
+}
+
+/**
+ * Lee ese proceso varias veces por segundo y lo publica como "watched" en el hub;
+ * reemplaza al vigilado anterior. En reproduccion no hace nada.
+ */
+public void watchProcess(int pid) {
+    if (replayer == null) {
+        sampler.watch(pid);
+    }
+}
+
+public void unwatchProcess() {
+    sampler.unwatch();
+}
+
+/**
+ * Pide una muestra inmediata en el hilo de muestreo, no bloquea a quien llama
+ */
+public void requestRefresh() {
+    if (replayer == null) {
+        sampler.requestSample();
     }
 }
 
-private String getPriorityClass(String priority) {
-    switch (priority.toUpperCase()) {
-        case "REALTIME": return "256";
-        case "HIGH": return "128";
-        case "ABOVE_NORMAL": return "32768";
-        case "NORMAL": return "32";
-        case "BELOW_NORMAL": return "16384";
-        case "LOW": return "64";
-        default: return "32"; // NORMAL
+/**
+ * Pide una muestra fuera de turno dentro de delayMs
+ */
+public void requestRefresh(long delayMs) {
+    if (replayer == null) {
+        sampler.requestSample(delayMs);
     }
 }
+
+/**
+ * Toma una foto de los procesos y la publica a los listeners.
+ * Se ejecuta en el hilo del muestreador, nunca en el EDT.
+ */
     public void updateProcessList() {
         try {
-            List<OSProcess> processes = getProcesses();
-            support.firePropertyChange("processes", null, processes);
+            metricsHub.sample();
         } catch (Exception e) {
             logger.error("Error updating processes", e);
         }
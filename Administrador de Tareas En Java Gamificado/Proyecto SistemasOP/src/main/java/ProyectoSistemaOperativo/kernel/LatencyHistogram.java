@@ -0,0 +1,133 @@
+package ProyectoSistemaOperativo.kernel;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de latencias en microsegundos con cubetas log-lineales: cuatro por cada
+ * potencia de dos, asi un percentil sale con menos de un 25% de error sin guardar
+ * cada medicion. Registrar no reserva memoria y se puede hacer desde cualquier hilo;
+ * los percentiles se calculan recien cuando alguien los pide (JConsole).
+ */
+public final class LatencyHistogram implements LatencyHistogramMXBean {
+    private static final int SUB_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    // hasta 2^40 us, mucho mas que cualquier tick
+    private static final int BUCKETS = 40 * SUB_BUCKETS;
+
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sumMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Registra una duracion medida con System.nanoTime()
+     */
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        counts.incrementAndGet(bucketOf(micros));
+        count.incrementAndGet();
+        sumMicros.addAndGet(micros);
+        long max = maxMicros.get();
+        while (micros > max && !maxMicros.compareAndSet(max, micros)) {
+            max = maxMicros.get();
+        }
+    }
+
+    static int bucketOf(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = (int) ((micros >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1));
+        return Math.min((exponent - SUB_BITS + 1) * SUB_BUCKETS + sub, BUCKETS - 1);
+    }
+
+    /**
+     * Primer valor que ya no entra en la cubeta, en microsegundos
+     */
+    static long upperBoundOf(int bucket) {
+        int next = bucket + 1;
+        if (next < SUB_BUCKETS) {
+            return next;
+        }
+        int exponent = next / SUB_BUCKETS + SUB_BITS - 1;
+        return (long) (SUB_BUCKETS + next % SUB_BUCKETS) << (exponent - SUB_BITS);
+    }
+
+    /**
+     * Percentil (0 a 100) en milisegundos: el limite superior de la cubeta donde cae,
+     * sin pasar del maximo medido
+     */
+    public double percentileMillis(double percentile) {
+        long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(bucket), maxMicros.get()) / 1000.0;
+            }
+        }
+        return maxMicros.get() / 1000.0;
+    }
+
+    @Override
+    public long getCount() {
+        return count.get();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        long total = count.get();
+        return total == 0 ? 0 : sumMicros.get() / 1000.0 / total;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return percentileMillis(50);
+    }
+
+    @Override
+    public double getP90Millis() {
+        return percentileMillis(90);
+    }
+
+    @Override
+    public double getP99Millis() {
+        return percentileMillis(99);
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return maxMicros.get() / 1000.0;
+    }
+
+    @Override
+    public void reset() {
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            counts.set(bucket, 0);
+        }
+        count.set(0);
+        sumMicros.set(0);
+        maxMicros.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d medidas, media %.2f ms, p50 %.2f, p99 %.2f, max %.2f",
+                name, getCount(), getMeanMillis(), getP50Millis(), getP99Millis(), getMaxMillis());
+    }
+}
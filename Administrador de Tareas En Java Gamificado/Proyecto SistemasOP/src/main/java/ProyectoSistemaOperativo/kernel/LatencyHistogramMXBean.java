@@ -0,0 +1,23 @@
+package ProyectoSistemaOperativo.kernel;
+
+/**
+ * Vista JMX de un {@link LatencyHistogram}; los tiempos van en milisegundos
+ */
+public interface LatencyHistogramMXBean {
+    long getCount();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP90Millis();
+
+    double getP99Millis();
+
+    double getMaxMillis();
+
+    /**
+     * Vacia el histograma, por ejemplo antes de probar un cambio de configuracion
+     */
+    void reset();
+}
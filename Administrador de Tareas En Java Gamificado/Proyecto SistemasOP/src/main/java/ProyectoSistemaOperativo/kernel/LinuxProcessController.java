@@ -0,0 +1,154 @@
+package ProyectoSistemaOperativo.kernel;
+
+import ProyectoSistemaOperativo.kernel.ProcessControlResult.Action;
+import ProyectoSistemaOperativo.kernel.ProcessControlResult.Outcome;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Control de procesos en Linux (y cualquier Unix) con señales.
+ * Terminar usa ProcessHandle: primero SIGTERM y, si el proceso no sale dentro
+ * del periodo de gracia, SIGKILL. Suspender y reanudar mandan SIGSTOP y SIGCONT
+ * lanzando el programa kill(1) (un proceso aparte por accion: Java no tiene una API
+ * para mandar otras señales), y la prioridad se cambia con renice(1); en ambos casos
+ * se espera al comando de forma asincrona.
+ *
+ * Terminar, suspender y reanudar no se aplican al propio administrador: terminarlo
+ * lo cerraria y suspenderlo lo congelaria sin nadie que le mande SIGCONT.
+ */
+public class LinuxProcessController implements ProcessController {
+    public static final long DEFAULT_GRACE_PERIOD_MS = 3000;
+    private static final long KILL_TIMEOUT_MS = 2000;
+
+    private final long gracePeriodMs;
+
+    public LinuxProcessController(long gracePeriodMs) {
+        this.gracePeriodMs = gracePeriodMs;
+    }
+
+    @Override
+    public CompletableFuture<ProcessControlResult> terminate(int pid) {
+        long start = System.nanoTime();
+        Optional<ProcessHandle> found = ProcessHandle.of(pid);
+        if (found.isEmpty() || !found.get().isAlive()) {
+            return done(pid, Action.TERMINATE, Outcome.NOT_FOUND, "El proceso no existe", start);
+        }
+        ProcessHandle handle = found.get();
+        if (handle.pid() == ProcessHandle.current().pid()) {
+            return done(pid, Action.TERMINATE, Outcome.FAILED, "No se puede terminar al propio administrador", start);
+        }
+        boolean requested;
+        try {
+            requested = handle.destroy(); // SIGTERM
+        } catch (RuntimeException e) {
+            return done(pid, Action.TERMINATE, Outcome.FAILED, e.getMessage(), start);
+        }
+        if (!requested) {
+            return done(pid, Action.TERMINATE, Outcome.DENIED, "Sin permisos para enviar SIGTERM", start);
+        }
+        return handle.onExit()
+                .thenApply(h -> Outcome.OK)
+                .completeOnTimeout(Outcome.TIMEOUT, gracePeriodMs, TimeUnit.MILLISECONDS)
+                .thenCompose(outcome -> outcome == Outcome.OK
+                        ? CompletableFuture.completedFuture(Outcome.OK)
+                        : escalate(handle))
+                .thenApply(outcome -> result(pid, Action.TERMINATE, outcome, messageFor(outcome), start));
+    }
+
+    /**
+     * El proceso ignoro SIGTERM, se manda SIGKILL
+     */
+    private CompletableFuture<Outcome> escalate(ProcessHandle handle) {
+        if (!handle.isAlive()) {
+            return CompletableFuture.completedFuture(Outcome.OK);
+        }
+        if (!handle.destroyForcibly()) {
+            return CompletableFuture.completedFuture(Outcome.DENIED);
+        }
+        return handle.onExit()
+                .thenApply(h -> Outcome.ESCALATED)
+                .completeOnTimeout(Outcome.TIMEOUT, KILL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public CompletableFuture<ProcessControlResult> suspend(int pid) {
+        return signal(pid, "-STOP", Action.SUSPEND);
+    }
+
+    @Override
+    public CompletableFuture<ProcessControlResult> resume(int pid) {
+        return signal(pid, "-CONT", Action.RESUME);
+    }
+
+    @Override
+    public CompletableFuture<ProcessControlResult> changePriority(int pid, String priority) {
+        return command(pid, Action.CHANGE_PRIORITY,
+                List.of("renice", "-n", String.valueOf(niceFor(priority)), "-p", String.valueOf(pid)));
+    }
+
+    private CompletableFuture<ProcessControlResult> signal(int pid, String signal, Action action) {
+        if (pid == ProcessHandle.current().pid()) {
+            return done(pid, action, Outcome.FAILED, "No se puede suspender ni reanudar al propio administrador",
+                    System.nanoTime());
+        }
+        return command(pid, action, List.of("kill", signal, String.valueOf(pid)));
+    }
+
+    private CompletableFuture<ProcessControlResult> command(int pid, Action action, List<String> command) {
+        long start = System.nanoTime();
+        if (ProcessHandle.of(pid).isEmpty()) {
+            return done(pid, action, Outcome.NOT_FOUND, "El proceso no existe", start);
+        }
+        return CommandRunner.run(command).thenApply(code -> {
+            Outcome outcome;
+            if (code == 0) {
+                outcome = Outcome.OK;
+            } else if (code == -2) {
+                outcome = Outcome.TIMEOUT;
+            } else if (code == -1) {
+                outcome = Outcome.FAILED;
+            } else {
+                // kill y renice devuelven 1 tanto para ESRCH como para EPERM
+                outcome = ProcessHandle.of(pid).isPresent() ? Outcome.DENIED : Outcome.NOT_FOUND;
+            }
+            return result(pid, action, outcome, messageFor(outcome), start);
+        });
+    }
+
+    /**
+     * Valor nice equivalente a cada clase de prioridad de Windows
+     */
+    static int niceFor(String priority) {
+        switch (priority.toUpperCase()) {
+            case "REALTIME": return -20;
+            case "HIGH": return -10;
+            case "ABOVE_NORMAL": return -5;
+            case "BELOW_NORMAL": return 10;
+            case "LOW": return 19;
+            case "NORMAL":
+            default: return 0;
+        }
+    }
+
+    private static String messageFor(Outcome outcome) {
+        switch (outcome) {
+            case OK: return "Accion aplicada";
+            case ESCALATED: return "No respondio a SIGTERM, terminado con SIGKILL";
+            case NOT_FOUND: return "El proceso no existe";
+            case DENIED: return "Sin permisos sobre el proceso";
+            case TIMEOUT: return "El proceso no respondio a tiempo";
+            default: return "Error ejecutando la accion";
+        }
+    }
+
+    private static ProcessControlResult result(int pid, Action action, Outcome outcome, String message, long start) {
+        return new ProcessControlResult(pid, action, outcome, message, System.nanoTime() - start);
+    }
+
+    private static CompletableFuture<ProcessControlResult> done(int pid, Action action, Outcome outcome, String message, long start) {
+        return CompletableFuture.completedFuture(result(pid, action, outcome, message, start));
+    }
+}
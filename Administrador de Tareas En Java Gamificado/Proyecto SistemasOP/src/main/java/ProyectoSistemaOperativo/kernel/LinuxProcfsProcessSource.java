@@ -0,0 +1,331 @@
+package ProyectoSistemaOperativo.kernel;
+
+import oshi.software.os.OSProcess;
+import oshi.software.os.OperatingSystem;
+import oshi.software.os.linux.LinuxOperatingSystem;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Fuente de procesos que lee /proc/[pid]/stat, status e io directamente.
+ * Cada archivo se lee en un ByteBuffer directo reutilizado y los numeros se
+ * parsean byte a byte, sin crear Strings por campo como hace la enumeracion
+ * generica de OSHI. El nombre se interna desde el buffer. La memoria residente
+ * sale del campo rss de stat, no hace falta leer statm.
+ *
+ * Las rutas de los archivos de cada PID se arman una vez y se reutilizan mientras
+ * el PID siga en el listado; un tick sin procesos nuevos no crea Strings ni Paths.
+ * Lo que si se abre en cada lectura es el archivo: dejar abiertos tres por proceso
+ * agotaria los descriptores con miles de procesos.
+ *
+ * El kernel solo deja leer io de los procesos propios (o de todos siendo root); para
+ * los demas ni se intenta abrir el archivo, porque cada acceso denegado es una excepcion.
+ *
+ * No es thread-safe, lo usa solo el hilo de muestreo.
+ */
+public class LinuxProcfsProcessSource implements ProcessSource {
+    private static final File PROC = new File("/proc");
+    private static final String[] FILES = {"/stat", "/status", "/io"};
+    private static final int STAT = 0;
+    private static final int STATUS = 1;
+    private static final int IO = 2;
+    private static final byte[] UID_KEY = "Uid:".getBytes();
+    private static final byte[] READ_BYTES_KEY = "read_bytes:".getBytes();
+    private static final byte[] WRITE_BYTES_KEY = "write_bytes:".getBytes();
+
+    private final long hz;
+    private final long pageSize;
+    private final long bootTimeMillis;
+    private final int ownUid;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(8192);
+    private int[] pids = new int[1024];
+    // Rutas del listado anterior (FILES.length por PID, en el orden de pathPids) y las del actual
+    private int[] pathPids = new int[0];
+    private Path[] paths = new Path[0];
+    private int pathCount;
+    private int[] nextPathPids = new int[0];
+    private Path[] nextPaths = new Path[0];
+    private int nextPathCount;
+
+    // Campos del ultimo stat leido, se pasan a la foto solo si la lectura fue completa
+    private int nameStart;
+    private int nameEnd;
+    private byte state;
+    private int parentPid;
+    private long utime;
+    private long stime;
+    private int threads;
+    private long startTicks;
+    private long rssPages;
+    private int cursor;
+
+    public LinuxProcfsProcessSource(OperatingSystem os) {
+        this.hz = LinuxOperatingSystem.getHz();
+        this.pageSize = LinuxOperatingSystem.getPageSize();
+        this.bootTimeMillis = os.getSystemBootTime() * 1000L;
+        this.ownUid = read(Path.of("/proc/" + ProcessHandle.current().pid() + FILES[STATUS])) ? parseStatusUid() : -1;
+    }
+
+    @Override
+    public void sample(ProcessSnapshot snapshot) {
+        int count = listPids();
+        preparePaths(count);
+        for (int k = 0; k < count; k++) {
+            int pid = pids[k];
+            int files = k * FILES.length;
+            // el proceso puede terminar entre el listado y la lectura, en ese caso se omite
+            if (!read(paths[files + STAT]) || !parseStat()) {
+                continue;
+            }
+            int i = snapshot.add();
+            snapshot.pids[i] = pid;
+            snapshot.parentPids[i] = parentPid;
+            snapshot.nameIds[i] = snapshot.getNameTable().intern(buffer, nameStart, nameEnd);
+            snapshot.states[i] = state;
+            snapshot.threadCounts[i] = threads;
+            snapshot.kernelTimes[i] = stime * 1000 / hz;
+            snapshot.userTimes[i] = utime * 1000 / hz;
+            snapshot.startTimes[i] = bootTimeMillis + startTicks * 1000 / hz;
+            snapshot.residentSizes[i] = rssPages * pageSize;
+            int uid = read(paths[files + STATUS]) ? parseStatusUid() : -1;
+            snapshot.userIds[i] = uid;
+            snapshot.ioBytes[i] = canReadIo(uid) && read(paths[files + IO]) ? parseIoBytes() : -1;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "procfs";
+    }
+
+    /**
+     * Lista los directorios numericos de /proc en pids y los ordena
+     */
+    private int listPids() {
+        String[] entries = PROC.list();
+        int count = 0;
+        if (entries == null) {
+            return 0;
+        }
+        for (String entry : entries) {
+            int pid = parsePid(entry);
+            if (pid >= 0) {
+                if (count == pids.length) {
+                    pids = Arrays.copyOf(pids, count * 2);
+                }
+                pids[count++] = pid;
+            }
+        }
+        Arrays.sort(pids, 0, count);
+        return count;
+    }
+
+    private static int parsePid(String entry) {
+        if (entry.isEmpty() || entry.length() > 9) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = 0; i < entry.length(); i++) {
+            char c = entry.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Deja en paths las rutas de los count PIDs del listado. Los dos listados estan
+     * ordenados, asi que las rutas de los PIDs que siguen se copian en una pasada y
+     * solo se arman las de los nuevos.
+     */
+    private void preparePaths(int count) {
+        if (nextPathPids.length < count) {
+            nextPathPids = new int[pids.length];
+            nextPaths = new Path[pids.length * FILES.length];
+            nextPathCount = 0;
+        }
+        int j = 0;
+        for (int k = 0; k < count; k++) {
+            int pid = pids[k];
+            while (j < pathCount && pathPids[j] < pid) {
+                j++;
+            }
+            if (j < pathCount && pathPids[j] == pid) {
+                System.arraycopy(paths, j * FILES.length, nextPaths, k * FILES.length, FILES.length);
+            } else {
+                String directory = "/proc/" + pid;
+                for (int f = 0; f < FILES.length; f++) {
+                    nextPaths[k * FILES.length + f] = Path.of(directory + FILES[f]);
+                }
+            }
+            nextPathPids[k] = pid;
+        }
+        // lo que quedaba de un listado mas largo no se retiene
+        if (nextPathCount > count) {
+            Arrays.fill(nextPaths, count * FILES.length, nextPathCount * FILES.length, null);
+        }
+        int[] previousPids = pathPids;
+        Path[] previousPaths = paths;
+        int previousCount = pathCount;
+        pathPids = nextPathPids;
+        paths = nextPaths;
+        pathCount = count;
+        nextPathPids = previousPids;
+        nextPaths = previousPaths;
+        nextPathCount = previousCount;
+    }
+
+    /**
+     * Lee el archivo de /proc completo en el buffer, devuelve false si ya no existe
+     */
+    private boolean read(Path file) {
+        buffer.clear();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+                // los archivos de /proc se leen hasta EOF o hasta llenar el buffer
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        buffer.flip();
+        return buffer.limit() > 0;
+    }
+
+    /**
+     * Formato: pid (comm) S ppid pgrp session tty tpgid flags minflt cminflt majflt cmajflt
+     * utime stime cutime cstime priority nice num_threads itrealvalue starttime vsize rss ...
+     * El nombre puede tener espacios y parentesis, por eso se busca el ultimo ')'.
+     */
+    private boolean parseStat() {
+        int limit = buffer.limit();
+        int open = -1;
+        int close = -1;
+        for (int i = 0; i < limit; i++) {
+            byte b = buffer.get(i);
+            if (b == '(' && open < 0) {
+                open = i;
+            } else if (b == ')') {
+                close = i;
+            }
+        }
+        if (open < 0 || close < 0 || close + 2 >= limit) {
+            return false;
+        }
+        nameStart = open + 1;
+        nameEnd = close;
+        state = stateCode(buffer.get(close + 2));
+        cursor = close + 3;
+        parentPid = (int) nextLong();  // 4
+        skipFields(9);                 // 5..13
+        utime = nextLong();            // 14
+        stime = nextLong();            // 15
+        skipFields(4);                 // 16..19
+        threads = (int) nextLong();    // 20
+        skipFields(1);                 // 21
+        startTicks = nextLong();       // 22
+        skipFields(1);                 // 23
+        rssPages = nextLong();         // 24
+        return true;
+    }
+
+    /**
+     * Busca la linea "Uid:" de status y devuelve el uid real
+     */
+    private int parseStatusUid() {
+        return (int) findValue(UID_KEY);
+    }
+
+    private boolean canReadIo(int uid) {
+        return ownUid == 0 || (uid >= 0 && uid == ownUid);
+    }
+
+    /**
+     * io: bytes que el proceso hizo leer y escribir al disco (no los que salieron de la cache)
+     */
+    private long parseIoBytes() {
+        long read = findValue(READ_BYTES_KEY);
+        long write = findValue(WRITE_BYTES_KEY);
+        return read < 0 || write < 0 ? -1 : read + write;
+    }
+
+    /**
+     * Primer numero de la linea que empieza con key, -1 si no esta
+     */
+    private long findValue(byte[] key) {
+        int limit = buffer.limit() - key.length;
+        for (int i = 0; i <= limit; i++) {
+            if ((i == 0 || buffer.get(i - 1) == '\n') && startsWith(i, key)) {
+                cursor = i + key.length;
+                return nextLong();
+            }
+        }
+        return -1;
+    }
+
+    private boolean startsWith(int offset, byte[] key) {
+        for (int k = 0; k < key.length; k++) {
+            if (buffer.get(offset + k) != key[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parsea el siguiente entero desde cursor saltando separadores, sin crear Strings
+     */
+    private long nextLong() {
+        int limit = buffer.limit();
+        while (cursor < limit && !isNumberStart(buffer.get(cursor))) {
+            cursor++;
+        }
+        boolean negative = cursor < limit && buffer.get(cursor) == '-';
+        if (negative) {
+            cursor++;
+        }
+        long value = 0;
+        while (cursor < limit) {
+            byte b = buffer.get(cursor);
+            if (b < '0' || b > '9') {
+                break;
+            }
+            value = value * 10 + (b - '0');
+            cursor++;
+        }
+        return negative ? -value : value;
+    }
+
+    private void skipFields(int fields) {
+        for (int f = 0; f < fields; f++) {
+            nextLong();
+        }
+    }
+
+    private static boolean isNumberStart(byte b) {
+        return (b >= '0' && b <= '9') || b == '-';
+    }
+
+    /**
+     * Mismo mapeo de letras de estado que usa OSHI en Linux
+     */
+    private static byte stateCode(byte letter) {
+        OSProcess.State state;
+        switch (letter) {
+            case 'R': state = OSProcess.State.RUNNING; break;
+            case 'S': state = OSProcess.State.SLEEPING; break;
+            case 'D': state = OSProcess.State.WAITING; break;
+            case 'Z': state = OSProcess.State.ZOMBIE; break;
+            case 'T': state = OSProcess.State.STOPPED; break;
+            default: state = OSProcess.State.OTHER; break;
+        }
+        return (byte) state.ordinal();
+    }
+}
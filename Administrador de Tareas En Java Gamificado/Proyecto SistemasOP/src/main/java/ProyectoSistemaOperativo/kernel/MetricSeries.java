@@ -0,0 +1,182 @@
+package ProyectoSistemaOperativo.kernel;
+
+import java.util.Arrays;
+
+/**
+ * Historia de un proceso (o del sistema): porcentaje de CPU y bytes de memoria en
+ * anillos de primitivos de capacidad fija, uno por resolucion.
+ *
+ * Cada muestra va al anillo crudo tal cual y se suma a los acumuladores del minuto
+ * y de la hora en curso; cuando empieza el siguiente intervalo el promedio pasa a su
+ * anillo. Cada anillo es un solo long[] con los puntos intercalados (tiempo, bytes,
+ * bits del CPU), asi guardar una muestra toca pocas lineas de cache aunque haya miles
+ * de procesos. Los anillos empiezan chicos y crecen hasta su capacidad, asi un proceso
+ * de vida corta no paga la historia completa; una vez llenos agregar no reserva memoria.
+ *
+ * No es seguro entre hilos, {@link MetricsHistory} sincroniza el acceso.
+ */
+final class MetricSeries {
+    final int pid;
+    final long startTime;
+    long lastTimestamp;
+
+    private final Ring raw;
+    private final Ring minutes;
+    private final Ring hours;
+
+    // minuto y hora en curso: [bucketStart, bucketEnd) y sumas de las muestras
+    private long minuteStart = Long.MIN_VALUE;
+    private long minuteEnd = Long.MIN_VALUE;
+    private double minuteCpu;
+    private double minuteBytes;
+    private int minuteSamples;
+    private long hourStart = Long.MIN_VALUE;
+    private long hourEnd = Long.MIN_VALUE;
+    private double hourCpu;
+    private double hourBytes;
+    private int hourSamples;
+
+    MetricSeries(int pid, long startTime, int rawCapacity, int minuteCapacity, int hourCapacity) {
+        this.pid = pid;
+        this.startTime = startTime;
+        this.raw = new Ring(rawCapacity);
+        this.minutes = new Ring(minuteCapacity);
+        this.hours = new Ring(hourCapacity);
+    }
+
+    void add(long timestamp, float cpuPercent, long bytes) {
+        lastTimestamp = timestamp;
+        raw.push(timestamp, bytes, cpuPercent);
+
+        if (timestamp >= minuteEnd || timestamp < minuteStart) {
+            if (minuteSamples > 0) {
+                minutes.push(minuteStart, (long) (minuteBytes / minuteSamples), (float) (minuteCpu / minuteSamples));
+            }
+            long bucketMs = MetricsHistory.Resolution.MINUTE.getBucketMs();
+            minuteStart = timestamp - Math.floorMod(timestamp, bucketMs);
+            minuteEnd = minuteStart + bucketMs;
+            minuteCpu = 0;
+            minuteBytes = 0;
+            minuteSamples = 0;
+        }
+        minuteCpu += cpuPercent;
+        minuteBytes += bytes;
+        minuteSamples++;
+
+        if (timestamp >= hourEnd || timestamp < hourStart) {
+            if (hourSamples > 0) {
+                hours.push(hourStart, (long) (hourBytes / hourSamples), (float) (hourCpu / hourSamples));
+            }
+            long bucketMs = MetricsHistory.Resolution.HOUR.getBucketMs();
+            hourStart = timestamp - Math.floorMod(timestamp, bucketMs);
+            hourEnd = hourStart + bucketMs;
+            hourCpu = 0;
+            hourBytes = 0;
+            hourSamples = 0;
+        }
+        hourCpu += cpuPercent;
+        hourBytes += bytes;
+        hourSamples++;
+    }
+
+    /**
+     * Copia los puntos con tiempo >= since, del mas viejo al mas nuevo. En minuto y hora
+     * el intervalo en curso se entrega como ultimo punto. Si no entran todos se quedan
+     * los mas nuevos.
+     */
+    int copy(MetricsHistory.Resolution resolution, long since, long[] times, float[] cpu, long[] bytes) {
+        switch (resolution) {
+            case RAW:
+                return raw.copy(since, times, cpu, bytes, 0, 0, 0, 0);
+            case MINUTE:
+                return minutes.copy(since, times, cpu, bytes, minuteSamples, minuteStart, minuteCpu, minuteBytes);
+            default:
+                return hours.copy(since, times, cpu, bytes, hourSamples, hourStart, hourCpu, hourBytes);
+        }
+    }
+
+    int capacity(MetricsHistory.Resolution resolution) {
+        switch (resolution) {
+            case RAW: return raw.capacity();
+            // el intervalo en curso se entrega como un punto extra
+            case MINUTE: return minutes.capacity() + 1;
+            default: return hours.capacity() + 1;
+        }
+    }
+
+    /**
+     * Anillo de puntos intercalados en un long[]: tiempo, bytes y bits del CPU.
+     * Crece al doble hasta maxCapacity y recien ahi empieza a dar la vuelta.
+     */
+    private static final class Ring {
+        private static final int STRIDE = 3;
+        private static final int INITIAL_CAPACITY = 8;
+
+        final int maxCapacity;
+        long[] data;
+        int head; // proximo punto a escribir
+        int count;
+
+        Ring(int maxCapacity) {
+            this.maxCapacity = maxCapacity;
+            this.data = new long[Math.min(INITIAL_CAPACITY, maxCapacity) * STRIDE];
+        }
+
+        int capacity() {
+            return maxCapacity;
+        }
+
+        void push(long timestamp, long bytes, float cpuPercent) {
+            int length = data.length / STRIDE;
+            if (count == length && length < maxCapacity) {
+                // todavia no dio la vuelta: los puntos estan en orden desde 0
+                data = Arrays.copyOf(data, Math.min(length * 2, maxCapacity) * STRIDE);
+                length = data.length / STRIDE;
+                head = count;
+            }
+            int base = head * STRIDE;
+            data[base] = timestamp;
+            data[base + 1] = bytes;
+            data[base + 2] = Float.floatToRawIntBits(cpuPercent);
+            head = head + 1 == length ? 0 : head + 1;
+            if (count < length) {
+                count++;
+            }
+        }
+
+        int copy(long since, long[] outTimes, float[] outCpu, long[] outBytes,
+                 int partialSamples, long partialStart, double partialCpu, double partialBytes) {
+            boolean partial = partialSamples > 0 && partialStart >= since;
+            int available = 0;
+            // los puntos estan ordenados por tiempo, se cuentan desde el mas nuevo hacia atras
+            while (available < count && data[index(count - 1 - available) * STRIDE] >= since) {
+                available++;
+            }
+            int room = outTimes.length - (partial ? 1 : 0);
+            int n = Math.max(0, Math.min(available, room));
+            for (int k = 0; k < n; k++) {
+                int base = index(count - n + k) * STRIDE;
+                outTimes[k] = data[base];
+                outBytes[k] = data[base + 1];
+                outCpu[k] = Float.intBitsToFloat((int) data[base + 2]);
+            }
+            if (partial && outTimes.length > 0) {
+                outTimes[n] = partialStart;
+                outCpu[n] = (float) (partialCpu / partialSamples);
+                outBytes[n] = (long) (partialBytes / partialSamples);
+                n++;
+            }
+            return n;
+        }
+
+        /**
+         * Posicion en el anillo del punto k, contando desde el mas viejo
+         */
+        private int index(int k) {
+            int length = data.length / STRIDE;
+            int oldest = count < length ? 0 : head;
+            int i = oldest + k;
+            return i >= length ? i - length : i;
+        }
+    }
+}
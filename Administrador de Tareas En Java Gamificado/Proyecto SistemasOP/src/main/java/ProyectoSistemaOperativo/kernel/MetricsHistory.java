@@ -0,0 +1,181 @@
+package ProyectoSistemaOperativo.kernel;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Historia de metricas desde que arranca la aplicacion: CPU y memoria del sistema y
+ * de cada proceso, en tres resoluciones (cada muestra, promedio por minuto y por hora)
+ * con memoria acotada. Los graficos copian de aqui el tramo que necesitan.
+ *
+ * El hub llama a {@link #record(SystemSnapshot)} en cada tick. Las series de procesos
+ * estan ordenadas por PID igual que la foto, asi emparejarlas es un merge lineal sin
+ * hashing. Un proceso que termina pasa a la lista de retirados, que se conserva un dia
+ * y como maximo {@link #MAX_RETIRED} series.
+ */
+public class MetricsHistory {
+
+    /**
+     * Resolucion de la historia; bucketMs 0 es cada muestra
+     */
+    public enum Resolution {
+        RAW(0), MINUTE(60_000), HOUR(3_600_000);
+
+        private final long bucketMs;
+
+        Resolution(long bucketMs) {
+            this.bucketMs = bucketMs;
+        }
+
+        public long getBucketMs() {
+            return bucketMs;
+        }
+    }
+
+    // por proceso: 5 minutos de muestras a 1 s, una hora por minuto y un dia por hora
+    public static final int PROCESS_RAW_CAPACITY = 300;
+    public static final int PROCESS_MINUTE_CAPACITY = 60;
+    public static final int PROCESS_HOUR_CAPACITY = 24;
+    // sistema: una hora de muestras y un dia por minuto y por hora
+    public static final int SYSTEM_RAW_CAPACITY = 3600;
+    public static final int SYSTEM_MINUTE_CAPACITY = 1440;
+    public static final int SYSTEM_HOUR_CAPACITY = 24;
+    public static final int MAX_RETIRED = 512;
+    private static final long RETIRED_TTL_MS = 24 * 3_600_000L;
+
+    private final MetricSeries system = new MetricSeries(-1, 0,
+            SYSTEM_RAW_CAPACITY, SYSTEM_MINUTE_CAPACITY, SYSTEM_HOUR_CAPACITY);
+    // series vivas ordenadas por PID; next es el arreglo de trabajo del merge
+    private MetricSeries[] active = new MetricSeries[256];
+    private MetricSeries[] next = new MetricSeries[256];
+    private int activeCount;
+    private final ArrayDeque<MetricSeries> retired = new ArrayDeque<>();
+
+    /**
+     * Agrega una muestra del sistema y de todos sus procesos. Lo llama el hilo de muestreo.
+     */
+    public synchronized void record(SystemSnapshot snapshot) {
+        long now = snapshot.getTimestamp();
+        system.add(now, (float) (snapshot.getCpuLoad() * 100), snapshot.getMemoryUsed());
+
+        ProcessSnapshot processes = snapshot.getProcesses();
+        int n = processes.size();
+        if (next.length < n) {
+            next = new MetricSeries[Math.max(n, next.length * 2)];
+        }
+        int i = 0;
+        int j = 0;
+        int out = 0;
+        while (j < n) {
+            int pid = processes.getPid(j);
+            MetricSeries series = i < activeCount ? active[i] : null;
+            if (series != null && series.pid < pid) {
+                retire(series);
+                i++;
+                continue;
+            }
+            if (series == null || series.pid > pid || series.startTime != processes.getStartTime(j)) {
+                if (series != null && series.pid == pid) {
+                    // PID reutilizado por otro proceso
+                    retire(series);
+                    i++;
+                }
+                series = new MetricSeries(pid, processes.getStartTime(j),
+                        PROCESS_RAW_CAPACITY, PROCESS_MINUTE_CAPACITY, PROCESS_HOUR_CAPACITY);
+            } else {
+                i++;
+            }
+            series.add(now, (float) processes.getCpuPercent(j), processes.getResidentSetSize(j));
+            next[out++] = series;
+            j++;
+        }
+        while (i < activeCount) {
+            retire(active[i++]);
+        }
+        MetricSeries[] previous = active;
+        active = next;
+        next = previous;
+        // sin referencias viejas en el arreglo de trabajo
+        Arrays.fill(next, 0, activeCount, null);
+        activeCount = out;
+        expireRetired(now);
+    }
+
+    /**
+     * Copia la historia del sistema: CPU en porcentaje (0-100) y memoria usada en bytes.
+     * Los puntos con tiempo >= since, del mas viejo al mas nuevo. Devuelve cuantos copio.
+     */
+    public synchronized int copySystem(Resolution resolution, long since, long[] times, float[] cpu, long[] bytes) {
+        return system.copy(resolution, since, times, cpu, bytes);
+    }
+
+    /**
+     * Igual que copySystem pero para un proceso: CPU del intervalo y memoria residente.
+     * Si el proceso ya termino se usa su historia retirada. Devuelve 0 si no hay datos.
+     */
+    public synchronized int copyProcess(int pid, Resolution resolution, long since, long[] times, float[] cpu, long[] bytes) {
+        MetricSeries series = find(pid);
+        return series == null ? 0 : series.copy(resolution, since, times, cpu, bytes);
+    }
+
+    /**
+     * Tamaño de arreglo que alcanza para cualquier copia del sistema en esa resolucion
+     */
+    public int getSystemCapacity(Resolution resolution) {
+        return system.capacity(resolution);
+    }
+
+    public static int getProcessCapacity(Resolution resolution) {
+        switch (resolution) {
+            case RAW: return PROCESS_RAW_CAPACITY + 1;
+            case MINUTE: return PROCESS_MINUTE_CAPACITY + 1;
+            default: return PROCESS_HOUR_CAPACITY + 1;
+        }
+    }
+
+    /**
+     * Cantidad de series guardadas, vivas y retiradas
+     */
+    public synchronized int getSeriesCount() {
+        return activeCount + retired.size();
+    }
+
+    private MetricSeries find(int pid) {
+        int low = 0;
+        int high = activeCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midPid = active[mid].pid;
+            if (midPid < pid) {
+                low = mid + 1;
+            } else if (midPid > pid) {
+                high = mid - 1;
+            } else {
+                return active[mid];
+            }
+        }
+        // el retirado mas reciente con ese PID
+        Iterator<MetricSeries> it = retired.descendingIterator();
+        while (it.hasNext()) {
+            MetricSeries series = it.next();
+            if (series.pid == pid) {
+                return series;
+            }
+        }
+        return null;
+    }
+
+    private void retire(MetricSeries series) {
+        retired.addLast(series);
+        if (retired.size() > MAX_RETIRED) {
+            retired.removeFirst();
+        }
+    }
+
+    private void expireRetired(long now) {
+        while (!retired.isEmpty() && now - retired.peekFirst().lastTimestamp > RETIRED_TTL_MS) {
+            retired.removeFirst();
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package ProyectoSistemaOperativo.kernel;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.util.Unbox;
+import oshi.SystemInfo;
+import oshi.hardware.CentralProcessor;
+import oshi.hardware.GlobalMemory;
+import oshi.hardware.HardwareAbstractionLayer;
+import oshi.software.os.OSProcess;
+import oshi.software.os.OperatingSystem;
+
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.util.List;
+
+/**
+ * Hub unico de metricas. Es el unico dueño de los objetos de OSHI, muestrea
+ * CPU, memoria, disco, red y procesos una vez por tick y reparte la foto a
+ * todos los suscriptores. Abrir mas ventanas no agrega mas consultas al hardware.
+ *
+ * Propiedades que publica:
+ * "processes" con un {@link ProcessSnapshot} y "system" con un {@link SystemSnapshot}
+ * en cada tick, y "watched" con un {@link WatchedSample} del proceso vigilado.
+ * Las fotos de procesos vienen de un pool; un listener que las use despues de
+ * retornar del callback debe retenerlas (ver {@link ProcessSnapshot#retain()}).
+ */
+public class MetricsHub {
+    private static final Logger logger = LogManager.getLogger(MetricsHub.class);
+
+    private final SystemInfo systemInfo = new SystemInfo();
+    private final HardwareAbstractionLayer hardware = systemInfo.getHardware();
+    private final OperatingSystem os = systemInfo.getOperatingSystem();
+    private final CentralProcessor processor = hardware.getProcessor();
+    private final GlobalMemory memory = hardware.getMemory();
+    private final PropertyChangeSupport support = new PropertyChangeSupport(this);
+    private final ProcessCpuTracker cpuTracker =
+            new ProcessCpuTracker(processor.getLogicalProcessorCount(), ProcessCpuTracker.DEFAULT_SMOOTHING_WINDOW);
+    private final ProcessTreeTracker treeTracker = new ProcessTreeTracker();
+
+    private final NameTable nameTable = new NameTable();
+    private final SnapshotPool pool = new SnapshotPool(nameTable);
+    private final ProcessClassifier classifier = ProcessClassifier.createDefault(nameTable);
+    private final MetricsHistory history = new MetricsHistory();
+    private final IoHistory ioHistory = new IoHistory();
+    private final IoRateTracker ioTracker = new IoRateTracker(hardware);
+    private final SelfMetrics selfMetrics = new SelfMetrics();
+    private volatile ProcessSource processSource = ProcessSource.createDefault(os);
+
+    // Solo lo toca el hilo de muestreo
+    private long[] previousCpuTicks;
+    private volatile SystemSnapshot lastSnapshot;
+    // Referencia que el hub retiene sobre la ultima foto de procesos
+    private ProcessSnapshot lastProcesses;
+    // Lectura anterior del proceso vigilado, para su CPU entre lecturas
+    private int watchedPid = -1;
+    // se reutiliza entre lecturas: updateAttributes relee solo ese PID sin crear otro OSProcess
+    private OSProcess watchedProcess;
+    private long watchedStartTime;
+    private long watchedCpuTime;
+    private long watchedAt;
+
+    public OperatingSystem getOperatingSystem() {
+        return os;
+    }
+
+    public HardwareAbstractionLayer getHardware() {
+        return hardware;
+    }
+
+    public NameTable getNameTable() {
+        return nameTable;
+    }
+
+    /**
+     * Clasificador de criaturas y clases, memoriza por id de nombre de esta tabla
+     */
+    public ProcessClassifier getClassifier() {
+        return classifier;
+    }
+
+    /**
+     * Historia de CPU y memoria del sistema y de cada proceso desde el arranque
+     */
+    public MetricsHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Historia de las tasas de disco y red por dispositivo
+     */
+    public IoHistory getIoHistory() {
+        return ioHistory;
+    }
+
+    public ProcessSource getProcessSource() {
+        return processSource;
+    }
+
+    /**
+     * Cambia la fuente de procesos, se aplica desde el siguiente tick
+     */
+    public void setProcessSource(ProcessSource processSource) {
+        this.processSource = processSource;
+        logger.info("Fuente de procesos: {}", processSource.getName());
+    }
+
+    public void addPropertyChangeListener(PropertyChangeListener listener) {
+        support.addPropertyChangeListener(listener);
+    }
+
+    public void addPropertyChangeListener(String propertyName, PropertyChangeListener listener) {
+        support.addPropertyChangeListener(propertyName, listener);
+    }
+
+    public void removePropertyChangeListener(PropertyChangeListener listener) {
+        support.removePropertyChangeListener(listener);
+    }
+
+    public void removePropertyChangeListener(String propertyName, PropertyChangeListener listener) {
+        support.removePropertyChangeListener(propertyName, listener);
+    }
+
+    /**
+     * Ventana en ticks del CPU suavizado de cada proceso
+     */
+    public synchronized void setCpuSmoothingWindow(int ticks) {
+        cpuTracker.setSmoothingWindow(ticks);
+    }
+
+    public synchronized int getCpuSmoothingWindow() {
+        return cpuTracker.getSmoothingWindow();
+    }
+
+    /**
+     * Ultima foto publicada, null si todavia no hubo ningun tick.
+     * Para leer sus procesos usar {@link #acquireLastProcesses()}.
+     */
+    public SystemSnapshot getLastSnapshot() {
+        return lastSnapshot;
+    }
+
+    /**
+     * Lo que cuesta la propia herramienta, publicado por JMX
+     */
+    public SelfMetrics getSelfMetrics() {
+        return selfMetrics;
+    }
+
+    /**
+     * Ultima foto de procesos ya retenida, quien la pide debe llamar a release().
+     * Devuelve null si todavia no hubo ningun tick.
+     */
+    public ProcessSnapshot acquireLastProcesses() {
+        synchronized (pool) {
+            return lastProcesses == null ? null : lastProcesses.retain();
+        }
+    }
+
+    /**
+     * Obtiene la lista de procesos ordenada por PID
+     */
+    public List<OSProcess> getProcesses() {
+        return os.getProcesses(OperatingSystem.ProcessFiltering.ALL_PROCESSES, OperatingSystem.ProcessSorting.PID_ASC, 0);
+    }
+
+    /**
+     * Ruta del ejecutable y linea de comandos, una por renglon (sin los que esten vacios).
+     * No estan en la foto porque cuestan lecturas aparte por proceso, se piden solo para
+     * la fila que se esta mirando. Devuelve null si el proceso ya no existe.
+     * Lee del sistema: hay que llamarlo fuera del EDT (ver KernelManager#describeProcessCommand).
+     */
+    public String describeCommand(int pid) {
+        OSProcess process = os.getProcess(pid);
+        if (process == null) {
+            return null;
+        }
+        String path = process.getPath();
+        String commandLine = process.getCommandLine();
+        if (commandLine.isEmpty() || commandLine.equals(path)) {
+            return path;
+        }
+        return path.isEmpty() ? commandLine : path + "\n" + commandLine;
+    }
+
+    /**
+     * Toma una muestra completa y la publica. Se llama desde el hilo del muestreador.
+     */
+    public synchronized void sample() {
+        long started = System.nanoTime();
+        long allocated = SelfMetrics.allocatedBytes();
+        long now = System.currentTimeMillis();
+        ProcessSnapshot processes = pool.acquire();
+        processes.reset(now);
+        processSource.sample(processes);
+        int n = processes.size();
+        cpuTracker.update(processes);
+
+        long[] ticks = processor.getSystemCpuLoadTicks();
+        double cpuLoad = previousCpuTicks == null ? 0 : processor.getSystemCpuLoadBetweenTicks(previousCpuTicks);
+        previousCpuTicks = ticks;
+
+        // los dispositivos se actualizan en su lugar, no se vuelven a enumerar en cada tick
+        IoRates ioRates = ioTracker.sample(now);
+
+        SystemSnapshot snapshot = new SystemSnapshot(now, cpuLoad, memory.getTotal(), memory.getAvailable(),
+                ioTracker.getDiskReadBytes(), ioTracker.getDiskWriteBytes(),
+                ioTracker.getNetworkBytesSent(), ioTracker.getNetworkBytesRecv(), processes, ioRates);
+        publish(snapshot);
+        // en cada tick: con debug apagado no se arma ningun String ni se encajona n
+        if (logger.isDebugEnabled()) {
+            logger.debug("Tick de metricas con {} procesos.", Unbox.box(n));
+        }
+        // incluye a los listeners que corren en este hilo (historia, alertas, grabacion)
+        long allocatedAfter = SelfMetrics.allocatedBytes();
+        selfMetrics.recordSample(System.nanoTime() - started, allocated < 0 ? -1 : allocatedAfter - allocated);
+    }
+
+    /**
+     * Lee solo un proceso y publica "watched". Es mucho mas barato que una foto completa,
+     * por eso se puede hacer varias veces por segundo. Se llama desde el hilo del muestreador.
+     */
+    public synchronized void sampleWatched(int pid) {
+        long now = System.currentTimeMillis();
+        OSProcess process = watchedProcess;
+        if (process == null || process.getProcessID() != pid || !process.updateAttributes()) {
+            process = os.getProcess(pid);
+        }
+        watchedProcess = process;
+        WatchedSample sample;
+        if (process == null) {
+            watchedPid = -1;
+            sample = new WatchedSample(pid, now, false, -1, 0, 0);
+        } else {
+            long cpuTime = process.getKernelTime() + process.getUserTime();
+            double cpu = -1;
+            if (pid == watchedPid && process.getStartTime() == watchedStartTime && now > watchedAt) {
+                cpu = (double) (cpuTime - watchedCpuTime) / (now - watchedAt) / processor.getLogicalProcessorCount() * 100;
+                cpu = Math.max(0, Math.min(cpu, 100.0));
+            }
+            watchedPid = pid;
+            watchedStartTime = process.getStartTime();
+            watchedCpuTime = cpuTime;
+            watchedAt = now;
+            sample = new WatchedSample(pid, now, true, cpu, process.getResidentSetSize(), process.getThreadCount());
+        }
+        support.firePropertyChange("watched", null, sample);
+    }
+
+    /**
+     * Foto vacia del pool con una referencia retenida, para quien publique fotos propias
+     * (por ejemplo la reproduccion de una grabacion)
+     */
+    ProcessSnapshot acquireSnapshot() {
+        return pool.acquire();
+    }
+
+    /**
+     * Publica una foto ya armada: le arma el arbol de procesos, la guarda en la historia,
+     * la deja como ultima y avisa a los listeners. La referencia de snapshot.getProcesses()
+     * pasa a ser del hub.
+     */
+    synchronized void publish(SystemSnapshot snapshot) {
+        if (snapshot.getIoRates() == null) {
+            // sin desglose por dispositivo (por ejemplo una grabacion): totales desde los contadores
+            snapshot = snapshot.withIoRates(IoRates.fromTotals(lastSnapshot, snapshot));
+        }
+        ProcessSnapshot processes = snapshot.getProcesses();
+        // va despues del CPU por proceso porque los subarboles lo suman
+        treeTracker.update(processes);
+        history.record(snapshot);
+        ioHistory.record(snapshot.getTimestamp(), snapshot.getIoRates());
+        ProcessSnapshot previous;
+        synchronized (pool) {
+            previous = lastProcesses;
+            lastProcesses = processes;
+        }
+        lastSnapshot = snapshot;
+
+        support.firePropertyChange("processes", null, processes);
+        support.firePropertyChange("system", null, snapshot);
+        if (previous != null) {
+            previous.release();
+        }
+    }
+}
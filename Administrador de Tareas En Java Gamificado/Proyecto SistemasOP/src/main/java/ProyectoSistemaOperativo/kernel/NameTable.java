@@ -0,0 +1,140 @@
+package ProyectoSistemaOperativo.kernel;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tabla de nombres de proceso internados. Cada nombre distinto recibe un id
+ * entero estable durante toda la ejecucion, asi las fotos guardan un int por
+ * proceso en vez de un String y comparar nombres es comparar enteros.
+ *
+ * Ademas del indice por String tiene un indice por bytes, para que las fuentes
+ * que leen /proc resuelvan el id directo desde el buffer sin crear un String
+ * salvo la primera vez que aparece un nombre.
+ *
+ * Solo el hilo de muestreo agrega nombres. Leer un id que vino dentro de una
+ * foto publicada es seguro desde cualquier hilo.
+ */
+public class NameTable {
+    private final Map<String, Integer> ids = new HashMap<>();
+    private volatile String[] names = new String[256];
+    private volatile int size;
+
+    // Indice por bytes UTF-8: slots guarda id + 1, 0 es vacio
+    private byte[][] encoded = new byte[256][];
+    private int[] slots = new int[512];
+
+    /**
+     * Devuelve el id del nombre, lo registra si es la primera vez que aparece
+     */
+    public int intern(String name) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        return register(name, name.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Igual que intern(String) pero con el nombre en buffer[start, end) codificado en UTF-8.
+     * Solo crea un String si el nombre es nuevo.
+     */
+    public int intern(ByteBuffer buffer, int start, int end) {
+        int hash = hash(buffer, start, end);
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (slots[slot] != 0) {
+            int id = slots[slot] - 1;
+            if (matches(encoded[id], buffer, start, end)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        String name = new String(bytes, StandardCharsets.UTF_8);
+        Integer existing = ids.get(name);
+        // un nombre con bytes invalidos puede decodificar igual que otro ya registrado
+        return existing != null ? existing : register(name, bytes);
+    }
+
+    public String getName(int id) {
+        return names[id];
+    }
+
+    /**
+     * Cantidad de nombres registrados, los ids van de 0 a size()-1
+     */
+    public int size() {
+        return size;
+    }
+
+    private int register(String name, byte[] bytes) {
+        int newId = size;
+        String[] current = names;
+        if (newId == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+            encoded = Arrays.copyOf(encoded, current.length);
+        }
+        current[newId] = name;
+        encoded[newId] = bytes;
+        names = current;
+        ids.put(name, newId);
+        if ((newId + 1) * 2 > slots.length) {
+            rehash(slots.length * 2, newId);
+        }
+        insertSlot(bytes, newId);
+        // size se escribe al final, quien lea size ve el nombre ya guardado
+        size = newId + 1;
+        return newId;
+    }
+
+    private void rehash(int capacity, int count) {
+        slots = new int[capacity];
+        for (int id = 0; id < count; id++) {
+            insertSlot(encoded[id], id);
+        }
+    }
+
+    private void insertSlot(byte[] bytes, int id) {
+        int mask = slots.length - 1;
+        int slot = hash(bytes) & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = id + 1;
+    }
+
+    private static boolean matches(byte[] bytes, ByteBuffer buffer, int start, int end) {
+        if (bytes.length != end - start) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] != buffer.get(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(ByteBuffer buffer, int start, int end) {
+        int h = 1;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + buffer.get(i);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static int hash(byte[] bytes) {
+        int h = 1;
+        for (byte b : bytes) {
+            h = 31 * h + b;
+        }
+        return h ^ (h >>> 16);
+    }
+}
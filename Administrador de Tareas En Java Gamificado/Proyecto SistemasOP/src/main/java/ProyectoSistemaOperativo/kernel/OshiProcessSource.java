@@ -0,0 +1,38 @@
+package ProyectoSistemaOperativo.kernel;
+
+import oshi.software.os.OSProcess;
+import oshi.software.os.OperatingSystem;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+
+/**
+ * Fuente de procesos generica sobre OSHI, funciona en cualquier sistema operativo.
+ */
+public class OshiProcessSource implements ProcessSource {
+    private static final Comparator<OSProcess> BY_PID = Comparator.comparingInt(OSProcess::getProcessID);
+
+    private final OperatingSystem os;
+    private final ArrayList<OSProcess> scratch = new ArrayList<>();
+
+    public OshiProcessSource(OperatingSystem os) {
+        this.os = os;
+    }
+
+    @Override
+    public void sample(ProcessSnapshot snapshot) {
+        // la lista de OSHI se ordena sobre un ArrayList reutilizado, casi siempre ya viene en orden
+        scratch.clear();
+        scratch.addAll(os.getProcesses());
+        scratch.sort(BY_PID);
+        for (int i = 0; i < scratch.size(); i++) {
+            snapshot.set(snapshot.add(), scratch.get(i));
+        }
+        scratch.clear();
+    }
+
+    @Override
+    public String getName() {
+        return "oshi";
+    }
+}
@@ -0,0 +1,326 @@
+package ProyectoSistemaOperativo.kernel;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Clasifica procesos en criaturas y clases segun reglas de un archivo de configuracion.
+ *
+ * Las reglas se compilan al cargarlas: los nombres de criatura quedan en un HashMap
+ * por nombre exacto y las subcadenas de cada clase en un automata Aho-Corasick que
+ * recorre el nombre una sola vez. El resultado se guarda por id de nombre internado,
+ * asi cada nombre distinto se clasifica una vez y el resto de los ticks es leer un arreglo.
+ * Recargar las reglas sube la generacion y descarta todo lo memorizado.
+ *
+ * Se puede llamar desde cualquier hilo; si dos hilos clasifican el mismo nombre a la
+ * vez el peor caso es calcularlo dos veces.
+ */
+public class ProcessClassifier {
+    private static final Logger logger = LogManager.getLogger(ProcessClassifier.class);
+
+    public static final String DEFAULT_RESOURCE = "/ProyectoSistemaOperativo/clasificacion.properties";
+
+    private final NameTable nameTable;
+    private volatile Rules rules;
+    private volatile int generation;
+
+    public ProcessClassifier(NameTable nameTable, Properties config) {
+        this.nameTable = nameTable;
+        this.rules = new Rules(config);
+    }
+
+    /**
+     * Carga las reglas del archivo de la propiedad "procesos.clasificacion"
+     * o, si no esta, del recurso incluido en el jar
+     */
+    public static ProcessClassifier createDefault(NameTable nameTable) {
+        return new ProcessClassifier(nameTable, loadConfig());
+    }
+
+    /**
+     * Vuelve a leer la configuracion y descarta la clasificacion memorizada
+     */
+    public void reload() {
+        reload(loadConfig());
+    }
+
+    public void reload(Properties config) {
+        rules = new Rules(config);
+        generation++;
+        logger.info("Reglas de clasificacion recargadas, generacion {}", generation);
+    }
+
+    /**
+     * Cambia cada vez que se recargan las reglas, sirve para saber si un resultado guardado sigue valido
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    public String getCreatureName(int nameId) {
+        Rules current = rules;
+        return current.classify(nameTable, nameId).creature;
+    }
+
+    /**
+     * Clase del proceso. El limite de PID de sistema se mira aparte porque no depende del nombre.
+     */
+    public String getProcessClass(int pid, int nameId) {
+        Rules current = rules;
+        if (pid < current.systemPidLimit) {
+            return current.systemClass;
+        }
+        return current.classify(nameTable, nameId).processClass;
+    }
+
+    /**
+     * Todas las clases posibles en orden: sistema, las de subcadena y la por defecto
+     */
+    public List<String> getClassNames() {
+        Rules current = rules;
+        List<String> names = new ArrayList<>();
+        names.add(current.systemClass);
+        for (String name : current.classNames) {
+            if (!names.contains(name)) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    private static Properties loadConfig() {
+        Properties config = new Properties();
+        String file = System.getProperty("procesos.clasificacion", "");
+        try {
+            if (!file.isEmpty()) {
+                try (Reader reader = Files.newBufferedReader(Path.of(file), StandardCharsets.UTF_8)) {
+                    config.load(reader);
+                }
+                return config;
+            }
+            InputStream in = ProcessClassifier.class.getResourceAsStream(DEFAULT_RESOURCE);
+            if (in == null) {
+                logger.warn("No se encontro {}, se clasifica todo con la clase por defecto.", DEFAULT_RESOURCE);
+                return config;
+            }
+            try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+                config.load(reader);
+            }
+        } catch (IOException e) {
+            logger.error("No se pudieron leer las reglas de clasificacion: {}", e.getMessage());
+        }
+        return config;
+    }
+
+    /**
+     * Resultado de un nombre. Los campos finales hacen que se pueda publicar sin locks.
+     */
+    private static final class Entry {
+        final String creature;
+        final String processClass;
+
+        Entry(String creature, String processClass) {
+            this.creature = creature;
+            this.processClass = processClass;
+        }
+    }
+
+    /**
+     * Reglas ya compiladas, inmutables salvo la memoria de resultados
+     */
+    private static final class Rules {
+        final Map<String, String> creatureByName = new HashMap<>();
+        final String systemClass;
+        final int systemPidLimit;
+        // clases de subcadena en orden de prioridad y al final la clase por defecto
+        final String[] classNames;
+        final AhoCorasick matcher;
+        // resultado memorizado por id de nombre, solo crece; una recarga crea Rules nuevas
+        private volatile Entry[] memo = new Entry[256];
+
+        Rules(Properties config) {
+            List<String> classes = new ArrayList<>();
+            List<String> patterns = new ArrayList<>();
+            List<Integer> patternClasses = new ArrayList<>();
+            for (String key : config.stringPropertyNames()) {
+                if (key.startsWith("criatura.")) {
+                    creatureByName.put(key.substring("criatura.".length()).toLowerCase(Locale.ROOT), config.getProperty(key).trim());
+                }
+            }
+            systemClass = config.getProperty("clase.sistema", "Guardianes").trim();
+            systemPidLimit = parseInt(config.getProperty("clase.sistema.pidMaximo", "0"));
+            for (String className : config.getProperty("clases", "").split(",")) {
+                className = className.trim();
+                if (className.isEmpty() || classes.contains(className)) {
+                    continue;
+                }
+                classes.add(className);
+                for (String pattern : config.getProperty("clase." + className, "").split(",")) {
+                    pattern = pattern.trim().toLowerCase(Locale.ROOT);
+                    if (!pattern.isEmpty()) {
+                        patterns.add(pattern);
+                        patternClasses.add(classes.size() - 1);
+                    }
+                }
+            }
+            classes.add(config.getProperty("clase.defecto", "Aliados").trim());
+            classNames = classes.toArray(new String[0]);
+            matcher = new AhoCorasick(patterns, patternClasses, classNames.length - 1);
+        }
+
+        Entry classify(NameTable nameTable, int nameId) {
+            Entry[] current = memo;
+            if (nameId >= current.length) {
+                current = grow(nameId);
+            }
+            Entry entry = current[nameId];
+            if (entry == null) {
+                String name = nameTable.getName(nameId);
+                String creature = creatureByName.get(name.toLowerCase(Locale.ROOT));
+                entry = new Entry(creature != null ? creature : name, classNames[matcher.bestMatch(name)]);
+                current[nameId] = entry;
+            }
+            return entry;
+        }
+
+        private synchronized Entry[] grow(int nameId) {
+            Entry[] current = memo;
+            if (nameId < current.length) {
+                return current;
+            }
+            current = Arrays.copyOf(current, Math.max(nameId + 1, current.length * 2));
+            memo = current;
+            return current;
+        }
+
+        private static int parseInt(String value) {
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                logger.warn("Valor numerico invalido en reglas de clasificacion: {}", value);
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Automata Aho-Corasick sobre un alfabeto compacto: solo los caracteres que aparecen
+     * en algun patron tienen columna propia, el resto cae en la columna 0 que siempre
+     * vuelve a la raiz. La tabla de transiciones queda completa (DFA), asi recorrer
+     * el nombre es un acceso a arreglo por caracter.
+     */
+    static final class AhoCorasick {
+        private final Map<Character, Integer> alphabet = new HashMap<>();
+        private final char[] asciiColumns = new char[128];
+        private final int columns;
+        private final int[] transitions;
+        // mejor clase (indice mas bajo) que termina en cada estado, contando los sufijos
+        private final int[] output;
+        private final int noMatch;
+
+        AhoCorasick(List<String> patterns, List<Integer> classes, int noMatch) {
+            this.noMatch = noMatch;
+            for (String pattern : patterns) {
+                for (int i = 0; i < pattern.length(); i++) {
+                    char c = pattern.charAt(i);
+                    if (!alphabet.containsKey(c)) {
+                        alphabet.put(c, alphabet.size() + 1);
+                        if (c < 128) {
+                            asciiColumns[c] = (char) alphabet.size();
+                        }
+                    }
+                }
+            }
+            columns = alphabet.size() + 1;
+
+            // trie
+            int maxStates = 1;
+            for (String pattern : patterns) {
+                maxStates += pattern.length();
+            }
+            int[] trie = new int[maxStates * columns];
+            int[] best = new int[maxStates];
+            Arrays.fill(best, noMatch);
+            int states = 1;
+            for (int p = 0; p < patterns.size(); p++) {
+                String pattern = patterns.get(p);
+                int state = 0;
+                for (int i = 0; i < pattern.length(); i++) {
+                    int column = alphabet.get(pattern.charAt(i));
+                    if (trie[state * columns + column] == 0) {
+                        trie[state * columns + column] = states++;
+                    }
+                    state = trie[state * columns + column];
+                }
+                best[state] = Math.min(best[state], classes.get(p));
+            }
+
+            // enlaces de fallo por BFS, completando la tabla para que sea un DFA
+            transitions = Arrays.copyOf(trie, states * columns);
+            output = Arrays.copyOf(best, states);
+            int[] fail = new int[states];
+            int[] queue = new int[states];
+            int head = 0;
+            int tail = 0;
+            for (int column = 0; column < columns; column++) {
+                int next = transitions[column];
+                if (next != 0) {
+                    queue[tail++] = next;
+                }
+            }
+            while (head < tail) {
+                int state = queue[head++];
+                output[state] = Math.min(output[state], output[fail[state]]);
+                for (int column = 0; column < columns; column++) {
+                    int next = transitions[state * columns + column];
+                    int fallback = transitions[fail[state] * columns + column];
+                    if (next != 0) {
+                        fail[next] = fallback;
+                        queue[tail++] = next;
+                    } else {
+                        transitions[state * columns + column] = fallback;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Indice de la clase de mayor prioridad que aparece como subcadena, sin distinguir mayusculas.
+         * Si ninguna coincide devuelve el indice de la clase por defecto.
+         */
+        int bestMatch(String name) {
+            int state = 0;
+            int best = noMatch;
+            for (int i = 0; i < name.length(); i++) {
+                state = transitions[state * columns + column(Character.toLowerCase(name.charAt(i)))];
+                if (output[state] < best) {
+                    best = output[state];
+                }
+            }
+            return best;
+        }
+
+        private int column(char c) {
+            if (c < 128) {
+                return asciiColumns[c];
+            }
+            Integer column = alphabet.get(c);
+            return column != null ? column : 0;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package ProyectoSistemaOperativo.kernel;
+
+/**
+ * Resultado estructurado de una accion sobre un proceso.
+ */
+public final class ProcessControlResult {
+
+    public enum Action { TERMINATE, SUSPEND, RESUME, CHANGE_PRIORITY }
+
+    public enum Outcome {
+        /** La accion se aplico */
+        OK,
+        /** El proceso no termino con SIGTERM y se mato con SIGKILL */
+        ESCALATED,
+        /** El proceso no existe o ya termino */
+        NOT_FOUND,
+        /** No hay permisos sobre el proceso */
+        DENIED,
+        /** El proceso no respondio dentro del tiempo limite */
+        TIMEOUT,
+        /** Cualquier otro error */
+        FAILED
+    }
+
+    private final int pid;
+    private final Action action;
+    private final Outcome outcome;
+    private final String message;
+    private final long latencyNanos;
+
+    public ProcessControlResult(int pid, Action action, Outcome outcome, String message, long latencyNanos) {
+        this.pid = pid;
+        this.action = action;
+        this.outcome = outcome;
+        this.message = message;
+        this.latencyNanos = latencyNanos;
+    }
+
+    public int getPid() {
+        return pid;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Tiempo desde que se pidio la accion hasta que se supo el resultado
+     */
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    public boolean isSuccess() {
+        return outcome == Outcome.OK || outcome == Outcome.ESCALATED;
+    }
+
+    @Override
+    public String toString() {
+        return action + " pid=" + pid + " -> " + outcome + " (" + message + ", " + latencyNanos / 1_000_000 + " ms)";
+    }
+}
@@ -0,0 +1,33 @@
+package ProyectoSistemaOperativo.kernel;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * SPI para actuar sobre procesos. Ninguna llamada bloquea a quien la hace,
+ * todas devuelven un CompletableFuture que se completa con el resultado
+ * (nunca de forma excepcional). Los callbacks corren fuera del EDT.
+ */
+public interface ProcessController {
+
+    CompletableFuture<ProcessControlResult> terminate(int pid);
+
+    CompletableFuture<ProcessControlResult> suspend(int pid);
+
+    CompletableFuture<ProcessControlResult> resume(int pid);
+
+    /**
+     * priority: "LOW", "BELOW_NORMAL", "NORMAL", "ABOVE_NORMAL", "HIGH", "REALTIME"
+     */
+    CompletableFuture<ProcessControlResult> changePriority(int pid, String priority);
+
+    /**
+     * Controlador para el sistema operativo actual
+     */
+    static ProcessController createDefault() {
+        String osName = System.getProperty("os.name", "").toLowerCase();
+        if (osName.contains("win")) {
+            return new WindowsProcessController();
+        }
+        return new LinuxProcessController(LinuxProcessController.DEFAULT_GRACE_PERIOD_MS);
+    }
+}
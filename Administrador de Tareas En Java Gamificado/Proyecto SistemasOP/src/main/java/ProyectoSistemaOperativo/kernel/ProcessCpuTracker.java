@@ -0,0 +1,172 @@
+package ProyectoSistemaOperativo.kernel;
+
+import java.util.Arrays;
+
+/**
+ * Calcula el uso de CPU real de cada proceso entre un tick y el siguiente.
+ * Guarda el tiempo de kernel + usuario del tick anterior por PID y hora de inicio
+ * en una tabla hash de direccionamiento abierto sobre arreglos primitivos,
+ * sin objetos por proceso ni boxing.
+ *
+ * Tambien mantiene un valor suavizado (media movil exponencial) con una
+ * ventana configurable en ticks, y con la misma tabla saca los bytes de disco
+ * por segundo de cada proceso.
+ *
+ * No es thread-safe, lo usa solo el hilo de muestreo.
+ */
+public class ProcessCpuTracker {
+    public static final int DEFAULT_SMOOTHING_WINDOW = 5;
+    private static final int EMPTY = -1;
+
+    private final int logicalProcessors;
+    private double alpha;
+    private int smoothingWindow;
+
+    // Tabla del tick anterior y tabla que se llena en este tick, se intercambian al final
+    private Table previous = new Table(1024);
+    private Table current = new Table(1024);
+    private long previousTimestamp;
+
+    public ProcessCpuTracker(int logicalProcessors, int smoothingWindow) {
+        this.logicalProcessors = Math.max(1, logicalProcessors);
+        setSmoothingWindow(smoothingWindow);
+    }
+
+    public int getSmoothingWindow() {
+        return smoothingWindow;
+    }
+
+    /**
+     * Cantidad de ticks que abarca el suavizado, 1 desactiva el suavizado
+     */
+    public void setSmoothingWindow(int smoothingWindow) {
+        if (smoothingWindow < 1) {
+            throw new IllegalArgumentException("La ventana de suavizado debe ser al menos 1: " + smoothingWindow);
+        }
+        this.smoothingWindow = smoothingWindow;
+        this.alpha = 2.0 / (smoothingWindow + 1);
+    }
+
+    /**
+     * Procesa un tick completo en una sola pasada y escribe el CPU de cada
+     * proceso directamente en las columnas de la foto.
+     */
+    public void update(ProcessSnapshot snapshot) {
+        int n = snapshot.size();
+        long timestamp = snapshot.getTimestamp();
+        int[] pids = snapshot.pids;
+        long[] startTimes = snapshot.startTimes;
+        long[] kernelTimes = snapshot.kernelTimes;
+        long[] userTimes = snapshot.userTimes;
+        double[] cpuPercent = snapshot.cpuPercent;
+        double[] smoothedPercent = snapshot.smoothedCpuPercent;
+        long[] ioBytes = snapshot.ioBytes;
+        double[] ioRates = snapshot.ioBytesPerSec;
+        current.clear(n);
+        // tiempo de pared disponible para todos los nucleos desde el tick anterior
+        double capacity = (double) (timestamp - previousTimestamp) * logicalProcessors;
+        double seconds = (timestamp - previousTimestamp) / 1000.0;
+
+        for (int i = 0; i < n; i++) {
+            int pid = pids[i];
+            long startTime = startTimes[i];
+            long cpuTime = kernelTimes[i] + userTimes[i];
+            long io = ioBytes[i];
+
+            double percent;
+            double smoothed;
+            double ioRate;
+            int slot = previous.find(pid);
+            if (slot >= 0 && previous.startTimes[slot] == startTime && previousTimestamp > 0 && capacity > 0) {
+                long delta = Math.max(0, cpuTime - previous.cpuTimes[slot]);
+                percent = Math.min(delta / capacity * 100, 100.0);
+                smoothed = previous.smoothed[slot] + alpha * (percent - previous.smoothed[slot]);
+                long previousIo = previous.ioBytes[slot];
+                ioRate = io < 0 || previousIo < 0 ? -1 : Math.max(0, io - previousIo) / seconds;
+            } else {
+                // proceso nuevo o PID reutilizado: sin historia, se usa el promedio desde que arranco
+                long upTime = timestamp - startTime;
+                percent = upTime > 0 ? Math.min((double) cpuTime / upTime / logicalProcessors * 100, 100.0) : 0;
+                smoothed = percent;
+                ioRate = io < 0 ? -1 : upTime > 0 ? io * 1000.0 / upTime : 0;
+            }
+            current.put(pid, startTime, cpuTime, smoothed, io);
+            cpuPercent[i] = percent;
+            smoothedPercent[i] = smoothed;
+            ioRates[i] = ioRate;
+        }
+
+        // Los procesos que ya no estan quedan en la tabla vieja y se descartan al intercambiar
+        Table swap = previous;
+        previous = current;
+        current = swap;
+        previousTimestamp = timestamp;
+    }
+
+    /**
+     * Tabla hash de sondeo lineal con claves int y valores en arreglos paralelos
+     */
+    private static final class Table {
+        int[] keys;
+        long[] startTimes;
+        long[] cpuTimes;
+        double[] smoothed;
+        long[] ioBytes;
+        int mask;
+
+        Table(int capacity) {
+            allocate(capacity);
+        }
+
+        private void allocate(int capacity) {
+            keys = new int[capacity];
+            startTimes = new long[capacity];
+            cpuTimes = new long[capacity];
+            smoothed = new double[capacity];
+            ioBytes = new long[capacity];
+            mask = capacity - 1;
+            Arrays.fill(keys, EMPTY);
+        }
+
+        /**
+         * Vacia la tabla y se asegura de que entren n claves con factor de carga 0.5
+         */
+        void clear(int n) {
+            int needed = Integer.highestOneBit(Math.max(16, n * 2 - 1)) << 1;
+            if (needed > keys.length) {
+                allocate(needed);
+            } else {
+                Arrays.fill(keys, EMPTY);
+            }
+        }
+
+        int find(int pid) {
+            int slot = mix(pid) & mask;
+            while (keys[slot] != EMPTY) {
+                if (keys[slot] == pid) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        void put(int pid, long startTime, long cpuTime, double smoothedValue, long io) {
+            int slot = mix(pid) & mask;
+            while (keys[slot] != EMPTY && keys[slot] != pid) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = pid;
+            startTimes[slot] = startTime;
+            cpuTimes[slot] = cpuTime;
+            smoothed[slot] = smoothedValue;
+            ioBytes[slot] = io;
+        }
+
+        private static int mix(int pid) {
+            // los PID son consecutivos, se mezclan los bits para no formar racimos
+            int h = pid * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package ProyectoSistemaOperativo.kernel;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Indice de busqueda por subcadena sobre los nombres que muestra la tabla (el nombre
+ * de criatura del clasificador), uno por id de nombre internado.
+ *
+ * Guarda cada nombre ya en minusculas y una lista de ids por trigrama. Una busqueda de
+ * tres o mas letras toma la lista mas corta de los trigramas de la consulta y solo
+ * verifica esos candidatos; las consultas mas cortas recorren los nombres ya en minusculas.
+ * Como los ids solo crecen, actualizar el indice en cada foto es agregar los nombres
+ * nuevos; recargar las reglas de clasificacion obliga a reconstruirlo.
+ *
+ * No es seguro entre hilos, lo usa solo el hilo de ProcessSearch.
+ */
+public class ProcessNameIndex {
+    private final NameTable nameTable;
+    private final ProcessClassifier classifier;
+    private final Map<Long, Postings> trigrams = new HashMap<>();
+    private String[] lowerNames = new String[256];
+    private int indexed;
+    private int generation;
+
+    public ProcessNameIndex(NameTable nameTable, ProcessClassifier classifier) {
+        this.nameTable = nameTable;
+        this.classifier = classifier;
+        this.generation = classifier.getGeneration();
+    }
+
+    /**
+     * Indexa los nombres que aparecieron desde la ultima llamada.
+     * Devuelve true si el indice cambio.
+     */
+    public boolean update() {
+        int currentGeneration = classifier.getGeneration();
+        if (currentGeneration != generation) {
+            generation = currentGeneration;
+            trigrams.clear();
+            indexed = 0;
+        }
+        int size = nameTable.size();
+        if (size == indexed) {
+            return false;
+        }
+        if (size > lowerNames.length) {
+            lowerNames = Arrays.copyOf(lowerNames, Math.max(size, lowerNames.length * 2));
+        }
+        for (int id = indexed; id < size; id++) {
+            String lower = classifier.getCreatureName(id).toLowerCase(Locale.ROOT);
+            lowerNames[id] = lower;
+            for (int i = 0; i + 3 <= lower.length(); i++) {
+                trigrams.computeIfAbsent(key(lower, i), k -> new Postings()).add(id);
+            }
+        }
+        indexed = size;
+        return true;
+    }
+
+    /**
+     * Cantidad de nombres indexados, los ids del resultado van de 0 a indexedCount()-1
+     */
+    public int indexedCount() {
+        return indexed;
+    }
+
+    /**
+     * Ids de nombre que contienen el texto, sin distinguir mayusculas
+     */
+    public BitSet query(String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        BitSet matches = new BitSet(indexed);
+        if (lower.length() < 3) {
+            for (int id = 0; id < indexed; id++) {
+                if (lowerNames[id].contains(lower)) {
+                    matches.set(id);
+                }
+            }
+            return matches;
+        }
+        Postings shortest = null;
+        for (int i = 0; i + 3 <= lower.length(); i++) {
+            Postings postings = trigrams.get(key(lower, i));
+            if (postings == null) {
+                return matches;
+            }
+            if (shortest == null || postings.size < shortest.size) {
+                shortest = postings;
+            }
+        }
+        for (int k = 0; k < shortest.size; k++) {
+            int id = shortest.ids[k];
+            if (lowerNames[id].contains(lower)) {
+                matches.set(id);
+            }
+        }
+        return matches;
+    }
+
+    private static long key(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+
+    /**
+     * Ids en orden creciente, sin repetidos
+     */
+    private static final class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            // un nombre puede repetir trigrama, los ids llegan en orden asi que basta mirar el ultimo
+            if (size > 0 && ids[size - 1] == id) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package ProyectoSistemaOperativo.kernel;
+
+/**
+ * Condicion sobre la fila index de una foto de procesos, sin boxing
+ */
+@FunctionalInterface
+public interface ProcessPredicate {
+    boolean test(ProcessSnapshot snapshot, int index);
+}
@@ -0,0 +1,127 @@
+package ProyectoSistemaOperativo.kernel;
+
+import java.util.BitSet;
+import java.util.Locale;
+
+/**
+ * Que procesos quiere ver un consumidor: texto de busqueda, ids de nombre ya resueltos
+ * por {@link ProcessSearch}, clase de criatura, orden y cuantas filas como maximo.
+ * Es inmutable; cada with... devuelve una copia con ese campo cambiado.
+ *
+ * Sobre la foto del hub la resuelve {@link ProcessSelector}, que deja solo las filas
+ * que se van a mostrar.
+ */
+public final class ProcessQuery {
+
+    /**
+     * CPU, memoria y E/S de mayor a menor; PID y nombre ascendente
+     */
+    public enum Sort {
+        CPU, MEMORY, IO, PID, NAME
+    }
+
+    public static final ProcessQuery ALL = new ProcessQuery(null, null, null, Sort.PID, 0);
+
+    private final String text;
+    private final BitSet nameIds;
+    private final String processClass;
+    private final Sort sort;
+    private final int limit;
+
+    private ProcessQuery(String text, BitSet nameIds, String processClass, Sort sort, int limit) {
+        this.text = text;
+        this.nameIds = nameIds;
+        this.processClass = processClass;
+        this.sort = sort;
+        this.limit = limit;
+    }
+
+    /**
+     * Subcadena del nombre del proceso o de la criatura, sin distinguir mayusculas; null o vacio es sin texto
+     */
+    public ProcessQuery withText(String text) {
+        String value = text == null || text.isEmpty() ? null : text.toLowerCase(Locale.ROOT);
+        return new ProcessQuery(value, nameIds, processClass, sort, limit);
+    }
+
+    /**
+     * Solo los ids de nombre del conjunto (el resultado de ProcessSearch), null es sin restriccion.
+     * El conjunto no se copia, no hay que modificarlo despues.
+     */
+    public ProcessQuery withNameIds(BitSet nameIds) {
+        return new ProcessQuery(text, nameIds, processClass, sort, limit);
+    }
+
+    /**
+     * Solo los procesos de esa clase; null es cualquier clase
+     */
+    public ProcessQuery withProcessClass(String processClass) {
+        return new ProcessQuery(text, nameIds, processClass, sort, limit);
+    }
+
+    public ProcessQuery withSort(Sort sort) {
+        return new ProcessQuery(text, nameIds, processClass, sort, limit);
+    }
+
+    /**
+     * Cuantas filas como maximo, 0 es sin limite
+     */
+    public ProcessQuery withLimit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("El limite no puede ser negativo: " + limit);
+        }
+        return new ProcessQuery(text, nameIds, processClass, sort, limit);
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public BitSet getNameIds() {
+        return nameIds;
+    }
+
+    public String getProcessClass() {
+        return processClass;
+    }
+
+    public Sort getSort() {
+        return sort;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * true si descarta algun proceso por nombre o por clase
+     */
+    public boolean isFiltered() {
+        return text != null || nameIds != null || processClass != null;
+    }
+
+    /**
+     * La fila index de la foto pasa el filtro por nombre (texto e ids); la clase se mira aparte
+     */
+    boolean matchesName(ProcessSnapshot snapshot, int index, ProcessClassifier classifier) {
+        int nameId = snapshot.getNameId(index);
+        if (nameIds != null && !nameIds.get(nameId)) {
+            return false;
+        }
+        return text == null || snapshot.getName(index).toLowerCase(Locale.ROOT).contains(text)
+                || classifier.getCreatureName(nameId).toLowerCase(Locale.ROOT).contains(text);
+    }
+
+    boolean matchesClass(ProcessSnapshot snapshot, int index, ProcessClassifier classifier) {
+        return processClass == null
+                || processClass.equals(classifier.getProcessClass(snapshot.getPid(index), snapshot.getNameId(index)));
+    }
+
+    @Override
+    public String toString() {
+        return "orden " + sort + (limit > 0 ? ", primeros " + limit : "")
+                + (text != null ? ", texto '" + text + "'" : "")
+                + (nameIds != null ? ", " + nameIds.cardinality() + " nombres" : "")
+                + (processClass != null ? ", clase " + processClass : "");
+    }
+}
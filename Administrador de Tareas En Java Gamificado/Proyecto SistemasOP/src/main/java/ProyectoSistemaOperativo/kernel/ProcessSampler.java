@@ -0,0 +1,370 @@
+package ProyectoSistemaOperativo.kernel;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.util.Unbox;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Motor de muestreo de procesos con su propio hilo programado.
+ * Cada tick llama a {@link MetricsHub#sample()} fuera del EDT,
+ * la interfaz solo recibe la foto ya terminada.
+ *
+ * El intervalo no es fijo: cada consumidor (una ventana visible, las alertas, el modo
+ * sin ventana) pide el suyo con {@link #setDemand(String, long)} y se muestrea al ritmo
+ * del mas rapido. Sin ningun pedido el muestreo queda en pausa. Despues de cada tick se
+ * mide cuanta CPU gasta la aplicacion entera; si pasa el presupuesto o la maquina ya
+ * esta saturada el intervalo se duplica (hasta {@link #MAX_INTERVAL_MS}) y cuando baja
+ * vuelve de a poco al pedido.
+ *
+ * Aparte, un solo proceso vigilado se lee cada {@link #WATCH_INTERVAL_MS} sin tomar la
+ * foto completa (ver {@link MetricsHub#sampleWatched(int)}).
+ */
+public class ProcessSampler {
+    private static final Logger logger = LogManager.getLogger(ProcessSampler.class);
+    public static final long DEFAULT_INTERVAL_MS = 1000;
+    public static final long WATCH_INTERVAL_MS = 250;
+    // tope del frenado; si un consumidor pide mas lento que esto se respeta su pedido
+    public static final long MAX_INTERVAL_MS = 10_000;
+    // porcentaje del total de la CPU, en la misma escala que la columna Ataque
+    public static final double DEFAULT_CPU_BUDGET = 2.0;
+    // consumidor de setIntervalMs, para quien quiere un ritmo fijo
+    public static final String FIXED_DEMAND = "fijo";
+
+    private static final int MAX_BACKOFF = 16;
+    private static final double HOST_BUSY = 0.90;
+    private static final double HOST_CALM = 0.75;
+    private static final double OVERHEAD_SMOOTHING = 0.3;
+    // los primeros ticks cargan clases y compilan, su consumo no dice nada del regimen
+    private static final int WARMUP_TICKS = 10;
+    private static final OperatingSystemMXBean OS_BEAN = ManagementFactory.getOperatingSystemMXBean();
+
+    private final MetricsHub hub;
+    private final ScheduledExecutorService scheduler;
+    private final int processors = Runtime.getRuntime().availableProcessors();
+    private final Map<String, Long> demands = new HashMap<>();
+    private boolean running;
+    private ScheduledFuture<?> task;
+    // cada reprogramacion sube la generacion; un tick de una generacion vieja no se reprograma
+    private long generation;
+    private long requestedMs;
+    private volatile long intervalMs;
+    private int backoff = 1;
+    private double cpuBudget = DEFAULT_CPU_BUDGET;
+    private volatile long lastTickNanos = System.nanoTime() - TimeUnit.DAYS.toNanos(1);
+
+    // Consumo propio, solo lo toca el hilo de muestreo salvo la lectura volatile
+    private long lastCpuTime = -1;
+    private long lastCpuNanos;
+    private int measuredTicks;
+    private volatile double selfCpuPercent = -1;
+
+    private ScheduledFuture<?> watchTask;
+    private int watchedPid = -1;
+
+    /**
+     * Sin pedidos: hasta que alguien llame a setDemand o setIntervalMs queda en pausa
+     */
+    public ProcessSampler(MetricsHub hub) {
+        this.hub = hub;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "process-sampler");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Arranca el muestreo; si hay algun pedido la primera muestra sale de inmediato
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        reschedule();
+        logger.info("Muestreo de procesos iniciado, intervalo {}", describeInterval());
+    }
+
+    /**
+     * Detiene el muestreo periodico, se puede volver a arrancar con start()
+     */
+    public synchronized void stop() {
+        running = false;
+        reschedule();
+        unwatch();
+    }
+
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Intervalo efectivo en ms, ya con el frenado; 0 si esta en pausa o detenido
+     */
+    public long getIntervalMs() {
+        return intervalMs;
+    }
+
+    /**
+     * Intervalo del consumidor mas rapido, sin frenado; 0 si nadie pide datos
+     */
+    public synchronized long getRequestedIntervalMs() {
+        return requestedMs;
+    }
+
+    /**
+     * Ritmo fijo, como antes de que hubiera consumidores: equivale al pedido {@link #FIXED_DEMAND}
+     */
+    public synchronized void setIntervalMs(long intervalMs) {
+        setDemand(FIXED_DEMAND, intervalMs);
+    }
+
+    /**
+     * El consumidor necesita una foto cada intervalMs; reemplaza su pedido anterior
+     */
+    public synchronized void setDemand(String consumer, long intervalMs) {
+        if (intervalMs <= 0) {
+            throw new IllegalArgumentException("El intervalo debe ser positivo: " + intervalMs);
+        }
+        Long previous = demands.put(consumer, intervalMs);
+        if (previous == null || previous != intervalMs) {
+            reschedule();
+        }
+    }
+
+    /**
+     * El consumidor ya no necesita datos (ventana minimizada o cerrada)
+     */
+    public synchronized void removeDemand(String consumer) {
+        if (demands.remove(consumer) != null) {
+            reschedule();
+        }
+    }
+
+    /**
+     * Porcentaje del total de la CPU que puede usar la aplicacion antes de frenar el muestreo
+     */
+    public synchronized void setCpuBudget(double percent) {
+        if (percent <= 0) {
+            throw new IllegalArgumentException("El presupuesto debe ser positivo: " + percent);
+        }
+        cpuBudget = percent;
+    }
+
+    public synchronized double getCpuBudget() {
+        return cpuBudget;
+    }
+
+    /**
+     * CPU de toda la aplicacion (no solo del muestreo) en porcentaje del total de la
+     * maquina, promediada entre ticks; -1 si la JVM no la informa o todavia no se midio
+     */
+    public double getSelfCpuPercent() {
+        return selfCpuPercent;
+    }
+
+    /**
+     * Veces que el intervalo esta multiplicado por carga propia o de la maquina
+     */
+    public synchronized int getBackoff() {
+        return backoff;
+    }
+
+    /**
+     * Lee solo ese proceso cada {@link #WATCH_INTERVAL_MS}; reemplaza al vigilado anterior
+     */
+    public synchronized void watch(int pid) {
+        if (pid == watchedPid && watchTask != null) {
+            return;
+        }
+        unwatch();
+        if (pid < 0) {
+            return;
+        }
+        watchedPid = pid;
+        watchTask = scheduler.scheduleWithFixedDelay(() -> watchTick(pid), 0, WATCH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void unwatch() {
+        if (watchTask != null) {
+            watchTask.cancel(false);
+            watchTask = null;
+        }
+        watchedPid = -1;
+    }
+
+    public synchronized int getWatchedPid() {
+        return watchedPid;
+    }
+
+    /**
+     * Pide una muestra fuera de turno (por ejemplo despues de terminar un proceso)
+     */
+    public void requestSample() {
+        scheduler.execute(this::tick);
+    }
+
+    /**
+     * Igual que requestSample pero despues de delayMs, fuera del ritmo periodico
+     */
+    public void requestSample(long delayMs) {
+        scheduler.schedule(this::tick, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Corre una lectura suelta en el hilo de muestreo, entre ticks. Es para consultas al
+     * sistema que no pueden ir en el EDT; si el hilo ya se apago el futuro falla.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, scheduler);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Apaga el hilo de muestreo definitivamente
+     */
+    public synchronized void shutdown() {
+        stop();
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Texto corto del estado, para el log y la interfaz
+     */
+    public synchronized String describeInterval() {
+        if (!running || requestedMs == 0) {
+            return "en pausa";
+        }
+        return intervalMs + " ms" + (backoff > 1 ? " (frenado x" + backoff + ", pedido " + requestedMs + " ms)" : "");
+    }
+
+    /**
+     * Recalcula el intervalo y reprograma si cambio. Al salir de una pausa la muestra sale
+     * enseguida; si no, se respeta el tiempo desde el ultimo tick.
+     */
+    private void reschedule() {
+        long requested = 0;
+        for (long demand : demands.values()) {
+            requested = requested == 0 ? demand : Math.min(requested, demand);
+        }
+        requestedMs = requested;
+        long effective = !running || requested == 0 ? 0
+                : Math.max(requested, Math.min(requested * backoff, MAX_INTERVAL_MS));
+        if (effective == intervalMs && (task != null) == (effective > 0)) {
+            return;
+        }
+        intervalMs = effective;
+        generation++;
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+        if (effective > 0) {
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastTickNanos);
+            scheduleNext(generation, Math.max(0, effective - elapsed));
+        }
+    }
+
+    private void scheduleNext(long forGeneration, long delayMs) {
+        task = scheduler.schedule(() -> periodicTick(forGeneration), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void periodicTick(long forGeneration) {
+        tick();
+        measureOverhead();
+        synchronized (this) {
+            if (forGeneration != generation) {
+                // se reprogramo mientras se muestreaba, ya hay otra cadena de ticks
+                return;
+            }
+            adapt();
+            if (forGeneration == generation && intervalMs > 0) {
+                // fixed delay: si un tick tarda mas que el intervalo no se acumulan ticks atrasados
+                scheduleNext(forGeneration, intervalMs);
+            }
+        }
+    }
+
+    private void measureOverhead() {
+        long cpuTime = processCpuTime();
+        long now = System.nanoTime();
+        if (cpuTime < 0) {
+            return;
+        }
+        measuredTicks++;
+        if (lastCpuTime >= 0 && now > lastCpuNanos) {
+            double share = (double) (cpuTime - lastCpuTime) / (now - lastCpuNanos) / processors * 100;
+            double previous = selfCpuPercent;
+            selfCpuPercent = previous < 0 ? share : previous + OVERHEAD_SMOOTHING * (share - previous);
+        }
+        lastCpuTime = cpuTime;
+        lastCpuNanos = now;
+    }
+
+    /**
+     * Duplica el frenado si la aplicacion pasa el presupuesto o la maquina esta saturada,
+     * lo reduce a la mitad cuando las dos cosas estan holgadas
+     */
+    private void adapt() {
+        if (measuredTicks < WARMUP_TICKS) {
+            return;
+        }
+        double self = selfCpuPercent;
+        SystemSnapshot last = hub.getLastSnapshot();
+        double host = last != null ? last.getCpuLoad() : 0;
+        int previous = backoff;
+        if (self > cpuBudget || host > HOST_BUSY) {
+            backoff = Math.min(backoff * 2, MAX_BACKOFF);
+        } else if (self < cpuBudget / 2 && host < HOST_CALM) {
+            backoff = Math.max(1, backoff / 2);
+        }
+        if (backoff != previous) {
+            reschedule();
+            if (logger.isInfoEnabled()) {
+                logger.info(String.format("Muestreo cada %s: consumo propio %.1f%% (presupuesto %.1f%%), CPU del sistema %.0f%%",
+                        describeInterval(), self, cpuBudget, host * 100));
+            }
+        }
+    }
+
+    private static long processCpuTime() {
+        if (OS_BEAN instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) OS_BEAN).getProcessCpuTime();
+        }
+        return ProcessHandle.current().info().totalCpuDuration().map(Duration::toNanos).orElse(-1L);
+    }
+
+    private void tick() {
+        lastTickNanos = System.nanoTime();
+        // una excepcion aqui cancelaria la tarea programada, por eso no se deja escapar
+        try {
+            hub.sample();
+        } catch (RuntimeException e) {
+            logger.error("Error en el tick de muestreo", e);
+        }
+    }
+
+    private void watchTick(int pid) {
+        try {
+            hub.sampleWatched(pid);
+        } catch (RuntimeException e) {
+            logger.error("Error leyendo el proceso vigilado {}", Unbox.box(pid), e);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package ProyectoSistemaOperativo.kernel;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.beans.PropertyChangeListener;
+import java.util.BitSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Busqueda de procesos por nombre fuera del EDT.
+ *
+ * Tiene un hilo propio que mantiene el {@link ProcessNameIndex} al dia con cada foto
+ * del hub y resuelve las consultas. Las consultas esperan un momento (debounce) antes
+ * de correr, asi escribir rapido en la caja de busqueda resuelve solo la ultima.
+ * El resultado es el conjunto de ids de nombre que coinciden; si aparecen nombres
+ * nuevos mientras hay una consulta activa se vuelve a resolver y se entrega otra vez.
+ */
+public class ProcessSearch {
+    private static final Logger logger = LogManager.getLogger(ProcessSearch.class);
+    public static final long DEFAULT_DEBOUNCE_MS = 150;
+
+    private final MetricsHub hub;
+    private final ProcessNameIndex index;
+    private final long debounceMs;
+    private final ScheduledExecutorService executor;
+    private final AtomicBoolean updatePending = new AtomicBoolean();
+    private final PropertyChangeListener snapshotListener = evt -> scheduleIndexUpdate();
+
+    // Solo se tocan en el hilo de busqueda
+    private String activeQuery = "";
+    private Consumer<BitSet> activeCallback;
+    private ScheduledFuture<?> pendingQuery;
+
+    public ProcessSearch(MetricsHub hub, long debounceMs) {
+        this.hub = hub;
+        this.index = new ProcessNameIndex(hub.getNameTable(), hub.getClassifier());
+        this.debounceMs = debounceMs;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "process-search");
+            t.setDaemon(true);
+            return t;
+        });
+        hub.addPropertyChangeListener("processes", snapshotListener);
+        scheduleIndexUpdate();
+    }
+
+    /**
+     * Programa una busqueda; reemplaza a la anterior si todavia no habia corrido.
+     * El callback recibe los ids de nombre que coinciden, o null si el texto esta vacio
+     * (no hay que filtrar). Se llama en el hilo de busqueda.
+     */
+    public void search(String text, Consumer<BitSet> callback) {
+        executor.execute(() -> {
+            if (pendingQuery != null) {
+                pendingQuery.cancel(false);
+            }
+            activeQuery = text;
+            activeCallback = callback;
+            long delay = text.isEmpty() ? 0 : debounceMs;
+            pendingQuery = executor.schedule(this::runActiveQuery, delay, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    /**
+     * Quita el listener del hub y apaga el hilo de busqueda
+     */
+    public void shutdown() {
+        hub.removePropertyChangeListener("processes", snapshotListener);
+        executor.shutdownNow();
+    }
+
+    private void scheduleIndexUpdate() {
+        // varias fotos seguidas se resuelven con una sola actualizacion
+        if (updatePending.compareAndSet(false, true)) {
+            executor.execute(this::updateIndex);
+        }
+    }
+
+    private void updateIndex() {
+        updatePending.set(false);
+        try {
+            boolean changed = index.update();
+            // un nombre nuevo puede coincidir con la consulta activa
+            if (changed && !activeQuery.isEmpty() && (pendingQuery == null || pendingQuery.isDone())) {
+                runActiveQuery();
+            }
+        } catch (RuntimeException e) {
+            logger.error("Error al actualizar el indice de busqueda", e);
+        }
+    }
+
+    private void runActiveQuery() {
+        Consumer<BitSet> callback = activeCallback;
+        if (callback == null) {
+            return;
+        }
+        try {
+            index.update();
+            callback.accept(activeQuery.isEmpty() ? null : index.query(activeQuery));
+        } catch (RuntimeException e) {
+            logger.error("Error en la busqueda de procesos", e);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package ProyectoSistemaOperativo.kernel;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Resuelve una {@link ProcessQuery} sobre una foto del hub: deja en {@link #getRows()}
+ * los indices de fila que pasan el filtro, en el orden pedido y recortados al limite.
+ * Quien muestra los procesos (la tabla, el modo sin ventana) trabaja solo sobre esas filas.
+ *
+ * Con limite y orden por CPU, memoria o E/S se usa {@link TopConsumers} en vez de ordenar
+ * todo; con orden por PID alcanza con los primeros que pasan, la foto ya viene por PID.
+ * El filtro por nombre se recuerda por id de nombre mientras no cambien la consulta ni
+ * las reglas de clasificacion.
+ *
+ * No es thread-safe, cada consumidor tiene el suyo y lo reutiliza entre ticks.
+ */
+public final class ProcessSelector {
+    private final ProcessClassifier classifier;
+    private int[] rows = new int[0];
+    private Integer[] order = new Integer[0];
+    private TopConsumers topConsumers;
+    private ProcessSnapshot current;
+
+    // por id de nombre: 0 sin decidir, 1 pasa el filtro, 2 no pasa
+    private byte[] nameMemo = new byte[256];
+    private ProcessQuery memoQuery;
+    private int memoGeneration;
+
+    public ProcessSelector(ProcessClassifier classifier) {
+        this.classifier = classifier;
+    }
+
+    /**
+     * Selecciona las filas y devuelve cuantas son. Los indices quedan en getRows()
+     * hasta la siguiente llamada.
+     */
+    public int select(ProcessSnapshot snapshot, ProcessQuery query) {
+        int n = snapshot.size();
+        if (rows.length < n) {
+            rows = new int[Math.max(n, rows.length * 2)];
+        }
+        prepareMemo(query);
+        int limit = query.getLimit();
+        ProcessQuery.Sort sort = query.getSort();
+        boolean filtered = query.isFiltered();
+        if (sort == ProcessQuery.Sort.PID) {
+            int max = limit > 0 ? limit : n;
+            int selected = 0;
+            for (int i = 0; i < n && selected < max; i++) {
+                if (!filtered || matches(snapshot, i, query)) {
+                    rows[selected++] = i;
+                }
+            }
+            return selected;
+        }
+        if (limit > 0 && sort != ProcessQuery.Sort.NAME) {
+            if (topConsumers == null || topConsumers.getLimit() != limit) {
+                topConsumers = new TopConsumers(limit);
+            }
+            return topConsumers.select(snapshot, topKey(sort), filtered ? i -> matches(snapshot, i, query) : null, rows);
+        }
+        if (order.length < n) {
+            order = new Integer[Math.max(n, order.length * 2)];
+        }
+        int matched = 0;
+        for (int i = 0; i < n; i++) {
+            if (!filtered || matches(snapshot, i, query)) {
+                order[matched++] = i;
+            }
+        }
+        current = snapshot;
+        Arrays.sort(order, 0, matched, comparator(sort));
+        current = null;
+        int selected = limit > 0 ? Math.min(limit, matched) : matched;
+        for (int k = 0; k < selected; k++) {
+            rows[k] = order[k];
+        }
+        return selected;
+    }
+
+    /**
+     * Indices de fila de la ultima seleccion; el arreglo puede ser mas largo que la cantidad
+     */
+    public int[] getRows() {
+        return rows;
+    }
+
+    private void prepareMemo(ProcessQuery query) {
+        int generation = classifier.getGeneration();
+        if (query != memoQuery || generation != memoGeneration) {
+            memoQuery = query;
+            memoGeneration = generation;
+            Arrays.fill(nameMemo, (byte) 0);
+        }
+    }
+
+    private boolean matches(ProcessSnapshot snapshot, int i, ProcessQuery query) {
+        int nameId = snapshot.getNameId(i);
+        if (nameId >= nameMemo.length) {
+            nameMemo = Arrays.copyOf(nameMemo, Math.max(nameId + 1, nameMemo.length * 2));
+        }
+        if (nameMemo[nameId] == 0) {
+            nameMemo[nameId] = query.matchesName(snapshot, i, classifier) ? (byte) 1 : (byte) 2;
+        }
+        return nameMemo[nameId] == 1 && query.matchesClass(snapshot, i, classifier);
+    }
+
+    private static TopConsumers.Key topKey(ProcessQuery.Sort sort) {
+        switch (sort) {
+            case MEMORY: return TopConsumers.Key.MEMORY;
+            case IO: return TopConsumers.Key.IO;
+            default: return TopConsumers.Key.CPU;
+        }
+    }
+
+    private Comparator<Integer> comparator(ProcessQuery.Sort sort) {
+        switch (sort) {
+            case CPU:
+                return (a, b) -> Double.compare(current.cpuPercent[b], current.cpuPercent[a]);
+            case MEMORY:
+                return (a, b) -> Long.compare(current.residentSizes[b], current.residentSizes[a]);
+            case IO:
+                return (a, b) -> Double.compare(current.ioBytesPerSec[b], current.ioBytesPerSec[a]);
+            default:
+                return (a, b) -> current.getName(a).compareToIgnoreCase(current.getName(b));
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package ProyectoSistemaOperativo.kernel;
+
+import oshi.software.os.OSProcess;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Foto de la lista de procesos tomada en un tick del muestreador, guardada
+ * por columnas en arreglos primitivos (struct-of-arrays) ordenados por PID.
+ *
+ * Los arreglos se reutilizan entre ticks: cuando nadie mas retiene la foto
+ * vuelve al pool del hub y se llena de nuevo en el siguiente tick. Mientras
+ * se tenga retenida es de solo lectura. Quien la use fuera del callback donde
+ * la recibio debe llamar a {@link #retain()} antes y a {@link #release()} al terminar.
+ */
+public final class ProcessSnapshot {
+    private static final OSProcess.State[] STATES = OSProcess.State.values();
+
+    private final NameTable names;
+    private final SnapshotPool pool;
+    private final AtomicInteger references = new AtomicInteger();
+
+    private long timestamp;
+    private int size;
+
+    int[] pids = new int[0];
+    int[] parentPids = new int[0];
+    int[] nameIds = new int[0];
+    int[] userIds = new int[0];
+    byte[] states = new byte[0];
+    int[] threadCounts = new int[0];
+    long[] residentSizes = new long[0];
+    long[] kernelTimes = new long[0];
+    long[] userTimes = new long[0];
+    long[] startTimes = new long[0];
+    double[] cpuPercent = new double[0];
+    double[] smoothedCpuPercent = new double[0];
+    long[] ioBytes = new long[0];
+    double[] ioBytesPerSec = new double[0];
+    // Arbol de procesos, lo llena ProcessTreeTracker al publicar la foto (indices de fila)
+    int[] parentIndices = new int[0];
+    int[] firstChildren = new int[0];
+    int[] nextSiblings = new int[0];
+    int[] treeOrder = new int[0];
+    int[] treePositions = new int[0];
+    int[] treeDepths = new int[0];
+    int[] subtreeSizes = new int[0];
+    double[] subtreeCpuPercent = new double[0];
+    long[] subtreeResidentSizes = new long[0];
+    int[] subtreeThreadCounts = new int[0];
+
+    ProcessSnapshot(NameTable names, SnapshotPool pool) {
+        this.names = names;
+        this.pool = pool;
+    }
+
+    /**
+     * Vacia la foto para llenarla de nuevo, los arreglos se conservan
+     */
+    void reset(long timestamp) {
+        this.timestamp = timestamp;
+        this.size = 0;
+    }
+
+    /**
+     * Agrega una fila al final y devuelve su indice. Las filas se deben
+     * agregar en orden de PID. Los arreglos solo crecen.
+     */
+    int add() {
+        if (size == pids.length) {
+            grow(Math.max(256, size + size / 2));
+        }
+        return size++;
+    }
+
+    private void grow(int capacity) {
+        pids = Arrays.copyOf(pids, capacity);
+        parentPids = Arrays.copyOf(parentPids, capacity);
+        nameIds = Arrays.copyOf(nameIds, capacity);
+        userIds = Arrays.copyOf(userIds, capacity);
+        states = Arrays.copyOf(states, capacity);
+        threadCounts = Arrays.copyOf(threadCounts, capacity);
+        residentSizes = Arrays.copyOf(residentSizes, capacity);
+        kernelTimes = Arrays.copyOf(kernelTimes, capacity);
+        userTimes = Arrays.copyOf(userTimes, capacity);
+        startTimes = Arrays.copyOf(startTimes, capacity);
+        cpuPercent = Arrays.copyOf(cpuPercent, capacity);
+        smoothedCpuPercent = Arrays.copyOf(smoothedCpuPercent, capacity);
+        ioBytes = Arrays.copyOf(ioBytes, capacity);
+        ioBytesPerSec = Arrays.copyOf(ioBytesPerSec, capacity);
+        parentIndices = Arrays.copyOf(parentIndices, capacity);
+        firstChildren = Arrays.copyOf(firstChildren, capacity);
+        nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+        treeOrder = Arrays.copyOf(treeOrder, capacity);
+        treePositions = Arrays.copyOf(treePositions, capacity);
+        treeDepths = Arrays.copyOf(treeDepths, capacity);
+        subtreeSizes = Arrays.copyOf(subtreeSizes, capacity);
+        subtreeCpuPercent = Arrays.copyOf(subtreeCpuPercent, capacity);
+        subtreeResidentSizes = Arrays.copyOf(subtreeResidentSizes, capacity);
+        subtreeThreadCounts = Arrays.copyOf(subtreeThreadCounts, capacity);
+    }
+
+    /**
+     * Copia un proceso de OSHI en la fila i
+     */
+    void set(int i, OSProcess p) {
+        pids[i] = p.getProcessID();
+        parentPids[i] = p.getParentProcessID();
+        nameIds[i] = names.intern(p.getName());
+        userIds[i] = parseUserId(p.getUserID());
+        states[i] = (byte) p.getState().ordinal();
+        threadCounts[i] = p.getThreadCount();
+        residentSizes[i] = p.getResidentSetSize();
+        kernelTimes[i] = p.getKernelTime();
+        userTimes[i] = p.getUserTime();
+        startTimes[i] = p.getStartTime();
+        ioBytes[i] = p.getBytesRead() + p.getBytesWritten();
+    }
+
+    /**
+     * Marca la foto como en uso por una referencia mas
+     */
+    public ProcessSnapshot retain() {
+        references.incrementAndGet();
+        return this;
+    }
+
+    /**
+     * Suelta una referencia, al llegar a cero la foto vuelve al pool
+     */
+    public void release() {
+        int remaining = references.decrementAndGet();
+        if (remaining == 0) {
+            pool.recycle(this);
+        } else if (remaining < 0) {
+            throw new IllegalStateException("ProcessSnapshot liberado mas veces de las retenidas");
+        }
+    }
+
+    /**
+     * Momento de la muestra en milisegundos desde epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public NameTable getNameTable() {
+        return names;
+    }
+
+    public int getPid(int index) {
+        return pids[index];
+    }
+
+    public int getParentPid(int index) {
+        return parentPids[index];
+    }
+
+    public int getNameId(int index) {
+        return nameIds[index];
+    }
+
+    public String getName(int index) {
+        return names.getName(nameIds[index]);
+    }
+
+    /**
+     * UID numerico del dueño del proceso, -1 si no se conoce
+     */
+    public int getUserId(int index) {
+        return userIds[index];
+    }
+
+    public byte getStateCode(int index) {
+        return states[index];
+    }
+
+    public OSProcess.State getState(int index) {
+        return STATES[states[index]];
+    }
+
+    /**
+     * Estado que corresponde a un codigo de getStateCode
+     */
+    public static OSProcess.State stateOf(byte code) {
+        return STATES[code];
+    }
+
+    public int getThreadCount(int index) {
+        return threadCounts[index];
+    }
+
+    public long getResidentSetSize(int index) {
+        return residentSizes[index];
+    }
+
+    public long getKernelTime(int index) {
+        return kernelTimes[index];
+    }
+
+    public long getUserTime(int index) {
+        return userTimes[index];
+    }
+
+    public long getStartTime(int index) {
+        return startTimes[index];
+    }
+
+    /**
+     * Uso de CPU del proceso i en el ultimo intervalo, de 0 a 100
+     */
+    public double getCpuPercent(int index) {
+        return cpuPercent[index];
+    }
+
+    /**
+     * Uso de CPU suavizado del proceso i, de 0 a 100
+     */
+    public double getSmoothedCpuPercent(int index) {
+        return smoothedCpuPercent[index];
+    }
+
+    /**
+     * Bytes leidos mas escritos en disco desde que arranco el proceso, -1 si no se pueden leer
+     * (por ejemplo procesos de otro usuario sin ser root)
+     */
+    public long getIoBytes(int index) {
+        return ioBytes[index];
+    }
+
+    /**
+     * Bytes de disco por segundo del proceso i en el ultimo intervalo, -1 si no se conoce
+     */
+    public double getIoBytesPerSec(int index) {
+        return ioBytesPerSec[index];
+    }
+
+    /**
+     * Fila del padre del proceso i, -1 si es una raiz (sin padre en la foto)
+     */
+    public int getParentIndex(int index) {
+        return parentIndices[index];
+    }
+
+    /**
+     * Fila del primer hijo del proceso i, -1 si no tiene. Los hijos van en orden de PID.
+     */
+    public int getFirstChild(int index) {
+        return firstChildren[index];
+    }
+
+    /**
+     * Fila del siguiente hermano del proceso i, -1 si es el ultimo
+     */
+    public int getNextSibling(int index) {
+        return nextSiblings[index];
+    }
+
+    /**
+     * Fila que ocupa la posicion k en el recorrido en preorden del arbol. El subarbol
+     * de una fila son las {@link #getSubtreeSize(int)} posiciones que empiezan en la suya.
+     */
+    public int getTreeOrder(int position) {
+        return treeOrder[position];
+    }
+
+    /**
+     * Posicion del proceso i en el preorden, la inversa de {@link #getTreeOrder(int)}
+     */
+    public int getTreePosition(int index) {
+        return treePositions[index];
+    }
+
+    /**
+     * Profundidad del proceso i, 0 para las raices
+     */
+    public int getTreeDepth(int index) {
+        return treeDepths[index];
+    }
+
+    /**
+     * Procesos en el subarbol del proceso i, contandolo a el
+     */
+    public int getSubtreeSize(int index) {
+        return subtreeSizes[index];
+    }
+
+    /**
+     * CPU del ultimo intervalo del proceso i y todos sus descendientes
+     */
+    public double getSubtreeCpuPercent(int index) {
+        return subtreeCpuPercent[index];
+    }
+
+    /**
+     * Memoria residente del proceso i y todos sus descendientes
+     */
+    public long getSubtreeResidentSetSize(int index) {
+        return subtreeResidentSizes[index];
+    }
+
+    /**
+     * Hilos del proceso i y todos sus descendientes
+     */
+    public int getSubtreeThreadCount(int index) {
+        return subtreeThreadCounts[index];
+    }
+
+    private static int parseUserId(String userId) {
+        // en Windows el id de usuario es un SID, no un numero; se evita la excepcion en cada tick
+        if (userId == null || userId.isEmpty() || userId.length() > 9) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = 0; i < userId.length(); i++) {
+            char c = userId.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Busqueda binaria por PID, devuelve -1 si el proceso no esta en la foto
+     */
+    public int indexOf(int pid) {
+        int index = Arrays.binarySearch(pids, 0, size, pid);
+        return index >= 0 ? index : -1;
+    }
+}
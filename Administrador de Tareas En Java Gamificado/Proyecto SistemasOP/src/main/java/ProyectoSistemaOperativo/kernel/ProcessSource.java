@@ -0,0 +1,42 @@
+package ProyectoSistemaOperativo.kernel;
+
+import org.apache.logging.log4j.LogManager;
+import oshi.software.os.OperatingSystem;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Fuente de datos de procesos que usa el hub en cada tick.
+ * Hay una implementacion generica sobre OSHI y una que lee /proc directo en Linux.
+ */
+public interface ProcessSource {
+
+    /**
+     * Llena la foto (ya vaciada con reset) con todos los procesos actuales en orden de PID
+     */
+    void sample(ProcessSnapshot snapshot);
+
+    /**
+     * Nombre corto para logs y benchmarks
+     */
+    String getName();
+
+    /**
+     * Elige la fuente por defecto: /proc en Linux y OSHI en el resto.
+     * La propiedad de sistema "procesos.fuente" (oshi o procfs) fuerza una de las dos.
+     */
+    static ProcessSource createDefault(OperatingSystem os) {
+        String forced = System.getProperty("procesos.fuente", "");
+        if ("oshi".equalsIgnoreCase(forced)) {
+            return new OshiProcessSource(os);
+        }
+        if (!Files.isReadable(Path.of("/proc/self/stat"))) {
+            if ("procfs".equalsIgnoreCase(forced)) {
+                LogManager.getLogger(ProcessSource.class).warn("/proc no disponible, se usa OSHI.");
+            }
+            return new OshiProcessSource(os);
+        }
+        return new LinuxProcfsProcessSource(os);
+    }
+}
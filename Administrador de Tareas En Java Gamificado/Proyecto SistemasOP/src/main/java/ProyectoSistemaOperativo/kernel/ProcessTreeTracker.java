@@ -0,0 +1,219 @@
+package ProyectoSistemaOperativo.kernel;
+
+import java.util.Arrays;
+
+/**
+ * Mantiene el arbol de procesos (padre e hijos) de una foto a la siguiente y lo
+ * escribe en las columnas de arbol de cada foto.
+ *
+ * El padre de cada fila se arrastra de la foto anterior con un merge por PID: solo los
+ * procesos que aparecieron, los que cambiaron de padre y los PIDs reutilizados buscan
+ * a su padre en la foto. Con los padres resueltos se enlazan los hijos, se arma el
+ * recorrido en preorden y en una sola pasada de abajo hacia arriba se suman CPU,
+ * memoria e hilos de cada subarbol.
+ *
+ * Un proceso solo cuelga de otro que arranco antes (o en el mismo instante con PID
+ * menor). Asi un PID de padre reutilizado, comun en Windows, no lo pone debajo de un
+ * proceso que no tiene nada que ver, y el arbol no puede tener ciclos.
+ *
+ * No es thread-safe, lo usa solo el hilo que publica las fotos.
+ */
+public class ProcessTreeTracker {
+    // Columnas del tick anterior; se copian porque esa foto vuelve al pool
+    private int[] previousPids = new int[0];
+    private int[] previousParentPids = new int[0];
+    private long[] previousStartTimes = new long[0];
+    private int[] previousParents = new int[0];
+    private int previousSize;
+
+    // Correspondencia entre filas de la foto anterior y la actual, -1 si no hay
+    private int[] previousToCurrent = new int[0];
+    private int[] currentToPrevious = new int[0];
+    private int lookups;
+
+    /**
+     * Procesos que tuvieron que buscar a su padre en el ultimo tick; el resto lo arrastro
+     */
+    public int getLookups() {
+        return lookups;
+    }
+
+    /**
+     * Resuelve el arbol de la foto y llena sus columnas de arbol y de subarbol
+     */
+    public void update(ProcessSnapshot snapshot) {
+        matchPrevious(snapshot);
+        resolveParents(snapshot);
+        linkChildren(snapshot);
+        walkPreorder(snapshot);
+        aggregate(snapshot);
+        remember(snapshot);
+    }
+
+    /**
+     * Merge de las dos fotos, las dos ordenadas por PID. Un PID con otra hora de inicio
+     * es otro proceso y no se empareja.
+     */
+    private void matchPrevious(ProcessSnapshot snapshot) {
+        int n = snapshot.size();
+        if (currentToPrevious.length < n) {
+            currentToPrevious = new int[Math.max(n, currentToPrevious.length * 2)];
+        }
+        Arrays.fill(previousToCurrent, 0, previousSize, -1);
+        int j = 0;
+        for (int i = 0; i < n; i++) {
+            int pid = snapshot.pids[i];
+            while (j < previousSize && previousPids[j] < pid) {
+                j++;
+            }
+            if (j < previousSize && previousPids[j] == pid && previousStartTimes[j] == snapshot.startTimes[i]) {
+                previousToCurrent[j] = i;
+                currentToPrevious[i] = j;
+            } else {
+                currentToPrevious[i] = -1;
+            }
+        }
+    }
+
+    private void resolveParents(ProcessSnapshot snapshot) {
+        int n = snapshot.size();
+        int[] parents = snapshot.parentIndices;
+        lookups = 0;
+        for (int i = 0; i < n; i++) {
+            int previous = currentToPrevious[i];
+            int carried = -1;
+            if (previous >= 0 && previousParentPids[previous] == snapshot.parentPids[i]) {
+                // mismo proceso con el mismo padre: el padre es la fila actual del padre anterior
+                int previousParent = previousParents[previous];
+                carried = previousParent < 0 ? -1 : previousToCurrent[previousParent];
+            }
+            // sin padre en la foto anterior (por ejemplo porque no se pudo leer) se vuelve a
+            // buscar, si no quedaria como raiz hasta que le cambie el ppid
+            parents[i] = carried >= 0 ? carried : findParent(snapshot, i);
+        }
+    }
+
+    private int findParent(ProcessSnapshot snapshot, int i) {
+        lookups++;
+        int parentPid = snapshot.parentPids[i];
+        if (parentPid == snapshot.pids[i]) {
+            return -1;
+        }
+        int parent = snapshot.indexOf(parentPid);
+        return parent >= 0 && startedBefore(snapshot, parent, i) ? parent : -1;
+    }
+
+    private static boolean startedBefore(ProcessSnapshot snapshot, int parent, int child) {
+        long parentStart = snapshot.startTimes[parent];
+        long childStart = snapshot.startTimes[child];
+        return parentStart < childStart || (parentStart == childStart && snapshot.pids[parent] < snapshot.pids[child]);
+    }
+
+    /**
+     * Listas de hijos enlazadas en arreglos; se recorre de atras para adelante
+     * para que los hijos queden en orden de PID
+     */
+    private static void linkChildren(ProcessSnapshot snapshot) {
+        int n = snapshot.size();
+        int[] parents = snapshot.parentIndices;
+        int[] firstChildren = snapshot.firstChildren;
+        int[] nextSiblings = snapshot.nextSiblings;
+        Arrays.fill(firstChildren, 0, n, -1);
+        for (int i = n - 1; i >= 0; i--) {
+            int parent = parents[i];
+            if (parent >= 0) {
+                nextSiblings[i] = firstChildren[parent];
+                firstChildren[parent] = i;
+            } else {
+                nextSiblings[i] = -1;
+            }
+        }
+    }
+
+    /**
+     * Preorden desde cada raiz sin pila: baja al primer hijo, y si no hay sube
+     * hasta encontrar un hermano
+     */
+    private static void walkPreorder(ProcessSnapshot snapshot) {
+        int n = snapshot.size();
+        int[] parents = snapshot.parentIndices;
+        int[] firstChildren = snapshot.firstChildren;
+        int[] nextSiblings = snapshot.nextSiblings;
+        int[] order = snapshot.treeOrder;
+        int[] positions = snapshot.treePositions;
+        int[] depths = snapshot.treeDepths;
+        int position = 0;
+        for (int root = 0; root < n; root++) {
+            if (parents[root] >= 0) {
+                continue;
+            }
+            int node = root;
+            int depth = 0;
+            while (true) {
+                order[position] = node;
+                positions[node] = position++;
+                depths[node] = depth;
+                if (firstChildren[node] >= 0) {
+                    node = firstChildren[node];
+                    depth++;
+                    continue;
+                }
+                while (node != root && nextSiblings[node] < 0) {
+                    node = parents[node];
+                    depth--;
+                }
+                if (node == root) {
+                    break;
+                }
+                node = nextSiblings[node];
+            }
+        }
+    }
+
+    /**
+     * En preorden los hijos van despues del padre, asi que recorriendolo al reves
+     * cada subarbol ya esta completo cuando se suma a su padre
+     */
+    private static void aggregate(ProcessSnapshot snapshot) {
+        int n = snapshot.size();
+        int[] parents = snapshot.parentIndices;
+        int[] order = snapshot.treeOrder;
+        int[] sizes = snapshot.subtreeSizes;
+        double[] cpu = snapshot.subtreeCpuPercent;
+        long[] memory = snapshot.subtreeResidentSizes;
+        int[] threads = snapshot.subtreeThreadCounts;
+        for (int i = 0; i < n; i++) {
+            sizes[i] = 1;
+            cpu[i] = snapshot.cpuPercent[i];
+            memory[i] = snapshot.residentSizes[i];
+            threads[i] = snapshot.threadCounts[i];
+        }
+        for (int position = n - 1; position >= 0; position--) {
+            int node = order[position];
+            int parent = parents[node];
+            if (parent >= 0) {
+                sizes[parent] += sizes[node];
+                cpu[parent] += cpu[node];
+                memory[parent] += memory[node];
+                threads[parent] += threads[node];
+            }
+        }
+    }
+
+    private void remember(ProcessSnapshot snapshot) {
+        int n = snapshot.size();
+        if (previousPids.length < n) {
+            int capacity = Math.max(n, previousPids.length * 2);
+            previousPids = new int[capacity];
+            previousParentPids = new int[capacity];
+            previousStartTimes = new long[capacity];
+            previousParents = new int[capacity];
+            previousToCurrent = new int[capacity];
+        }
+        System.arraycopy(snapshot.pids, 0, previousPids, 0, n);
+        System.arraycopy(snapshot.parentPids, 0, previousParentPids, 0, n);
+        System.arraycopy(snapshot.startTimes, 0, previousStartTimes, 0, n);
+        System.arraycopy(snapshot.parentIndices, 0, previousParents, 0, n);
+        previousSize = n;
+    }
+}
@@ -0,0 +1,42 @@
+package ProyectoSistemaOperativo.kernel;
+
+import ProyectoSistemaOperativo.kernel.ProcessControlResult.Action;
+import ProyectoSistemaOperativo.kernel.ProcessControlResult.Outcome;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Controlador que rechaza todas las acciones. Se usa al reproducir una grabacion:
+ * los PIDs de la grabacion no son los procesos vivos de esta maquina.
+ */
+public class ReadOnlyProcessController implements ProcessController {
+    private final String reason;
+
+    public ReadOnlyProcessController(String reason) {
+        this.reason = reason;
+    }
+
+    @Override
+    public CompletableFuture<ProcessControlResult> terminate(int pid) {
+        return denied(pid, Action.TERMINATE);
+    }
+
+    @Override
+    public CompletableFuture<ProcessControlResult> suspend(int pid) {
+        return denied(pid, Action.SUSPEND);
+    }
+
+    @Override
+    public CompletableFuture<ProcessControlResult> resume(int pid) {
+        return denied(pid, Action.RESUME);
+    }
+
+    @Override
+    public CompletableFuture<ProcessControlResult> changePriority(int pid, String priority) {
+        return denied(pid, Action.CHANGE_PRIORITY);
+    }
+
+    private CompletableFuture<ProcessControlResult> denied(int pid, Action action) {
+        return CompletableFuture.completedFuture(new ProcessControlResult(pid, action, Outcome.DENIED, reason, 0));
+    }
+}
@@ -0,0 +1,223 @@
+package ProyectoSistemaOperativo.kernel;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Autodiagnostico: cuanto cuesta la propia herramienta. Se publica por JMX para verlo
+ * con JConsole mientras se ajusta el muestreo:
+ *
+ * ProyectoSistemaOperativo:type=Autodiagnostico con los bytes reservados por tick y por
+ * aplicacion de la tabla, las actualizaciones pendientes en la cola del EDT y las que se
+ * juntaron con una mas nueva; y ProyectoSistemaOperativo:type=Latencia,name=... con un
+ * histograma por etapa (muestreo, tabla, graficos, esperaEdt).
+ *
+ * Medir no reserva memoria: solo System.nanoTime(), contadores atomicos y el contador de
+ * bytes reservados del hilo actual que lleva la JVM.
+ */
+public final class SelfMetrics implements SelfMetricsMXBean {
+    private static final Logger logger = LogManager.getLogger(SelfMetrics.class);
+    public static final String DOMAIN = "ProyectoSistemaOperativo";
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final LatencyHistogram sampleLatency = new LatencyHistogram("muestreo");
+    private final LatencyHistogram tableLatency = new LatencyHistogram("tabla");
+    private final LatencyHistogram chartLatency = new LatencyHistogram("graficos");
+    private final LatencyHistogram edtDelay = new LatencyHistogram("esperaEdt");
+    private final LatencyHistogram[] histograms = {sampleLatency, tableLatency, chartLatency, edtDelay};
+
+    private final AtomicLong ticks = new AtomicLong();
+    private final AtomicLong tickAllocated = new AtomicLong();
+    private volatile long lastTickAllocated = -1;
+    private final AtomicLong tableUpdates = new AtomicLong();
+    private final AtomicLong tableAllocated = new AtomicLong();
+    private volatile long lastTableAllocated = -1;
+    private final AtomicInteger pendingEdt = new AtomicInteger();
+    private final AtomicInteger maxPendingEdt = new AtomicInteger();
+    private final AtomicLong coalesced = new AtomicLong();
+    private boolean registered;
+
+    /**
+     * Bytes reservados hasta ahora por el hilo actual; -1 si la JVM no lo informa
+     */
+    public static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) THREADS).getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    /**
+     * Registra los MBeans en el servidor de la plataforma. Si falla (por ejemplo porque
+     * ya hay otro KernelManager registrado) solo se avisa: medir sigue funcionando.
+     */
+    public synchronized void register() {
+        if (registered) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(this, new ObjectName(DOMAIN + ":type=Autodiagnostico"));
+            for (LatencyHistogram histogram : histograms) {
+                server.registerMBean(histogram, histogramName(histogram));
+            }
+            registered = true;
+        } catch (JMException e) {
+            logger.warn("No se pudo publicar el autodiagnostico por JMX: {}", e.getMessage());
+        }
+    }
+
+    public synchronized void unregister() {
+        if (!registered) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(new ObjectName(DOMAIN + ":type=Autodiagnostico"));
+            for (LatencyHistogram histogram : histograms) {
+                server.unregisterMBean(histogramName(histogram));
+            }
+        } catch (JMException e) {
+            logger.warn("No se pudo retirar el autodiagnostico de JMX: {}", e.getMessage());
+        }
+        registered = false;
+    }
+
+    private static ObjectName histogramName(LatencyHistogram histogram) throws JMException {
+        return new ObjectName(DOMAIN + ":type=Latencia,name=" + histogram.getName());
+    }
+
+    /**
+     * Un tick de muestreo completo: duracion y bytes reservados (negativo si no se conocen)
+     */
+    void recordSample(long nanos, long allocated) {
+        sampleLatency.record(nanos);
+        ticks.incrementAndGet();
+        if (allocated >= 0) {
+            tickAllocated.addAndGet(allocated);
+            lastTickAllocated = allocated;
+        }
+    }
+
+    /**
+     * La tabla de procesos aplico una foto en el EDT
+     */
+    public void recordTableUpdate(long nanos, long allocated) {
+        tableLatency.record(nanos);
+        tableUpdates.incrementAndGet();
+        if (allocated >= 0) {
+            tableAllocated.addAndGet(allocated);
+            lastTableAllocated = allocated;
+        }
+    }
+
+    public void recordChartUpdate(long nanos) {
+        chartLatency.record(nanos);
+    }
+
+    /**
+     * Se va a encolar una actualizacion en el EDT; devuelve la marca de tiempo que hay
+     * que pasarle a {@link #edtStarted(long)} cuando corra
+     */
+    public long edtPosted() {
+        int pending = pendingEdt.incrementAndGet();
+        maxPendingEdt.accumulateAndGet(pending, Math::max);
+        return System.nanoTime();
+    }
+
+    /**
+     * La actualizacion encolada empezo a correr en el EDT
+     */
+    public void edtStarted(long postedAt) {
+        pendingEdt.decrementAndGet();
+        edtDelay.record(System.nanoTime() - postedAt);
+    }
+
+    /**
+     * Una actualizacion no se encolo porque ya habia otra pendiente que la reemplaza
+     */
+    public void coalesced() {
+        coalesced.incrementAndGet();
+    }
+
+    public LatencyHistogram getSampleLatency() {
+        return sampleLatency;
+    }
+
+    public LatencyHistogram getTableLatency() {
+        return tableLatency;
+    }
+
+    public LatencyHistogram getChartLatency() {
+        return chartLatency;
+    }
+
+    public LatencyHistogram getEdtDelay() {
+        return edtDelay;
+    }
+
+    @Override
+    public long getTicks() {
+        return ticks.get();
+    }
+
+    @Override
+    public long getLastTickAllocatedBytes() {
+        return lastTickAllocated;
+    }
+
+    @Override
+    public long getAverageTickAllocatedBytes() {
+        long n = ticks.get();
+        return n == 0 ? 0 : tickAllocated.get() / n;
+    }
+
+    @Override
+    public long getLastTableUpdateAllocatedBytes() {
+        return lastTableAllocated;
+    }
+
+    @Override
+    public long getAverageTableUpdateAllocatedBytes() {
+        long n = tableUpdates.get();
+        return n == 0 ? 0 : tableAllocated.get() / n;
+    }
+
+    @Override
+    public int getPendingEdtUpdates() {
+        return pendingEdt.get();
+    }
+
+    @Override
+    public int getMaxPendingEdtUpdates() {
+        return maxPendingEdt.get();
+    }
+
+    @Override
+    public long getCoalescedUpdates() {
+        return coalesced.get();
+    }
+
+    @Override
+    public void reset() {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+        ticks.set(0);
+        tickAllocated.set(0);
+        lastTickAllocated = -1;
+        tableUpdates.set(0);
+        tableAllocated.set(0);
+        lastTableAllocated = -1;
+        maxPendingEdt.set(pendingEdt.get());
+        coalesced.set(0);
+    }
+}
@@ -0,0 +1,27 @@
+package ProyectoSistemaOperativo.kernel;
+
+/**
+ * Vista JMX de {@link SelfMetrics}: cuanto le cuesta a la aplicacion mirarse a si misma
+ */
+public interface SelfMetricsMXBean {
+    long getTicks();
+
+    long getLastTickAllocatedBytes();
+
+    long getAverageTickAllocatedBytes();
+
+    long getLastTableUpdateAllocatedBytes();
+
+    long getAverageTableUpdateAllocatedBytes();
+
+    int getPendingEdtUpdates();
+
+    int getMaxPendingEdtUpdates();
+
+    long getCoalescedUpdates();
+
+    /**
+     * Vacia los contadores y los histogramas de latencia
+     */
+    void reset();
+}
@@ -0,0 +1,36 @@
+package ProyectoSistemaOperativo.kernel;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Pool de fotos de procesos. En regimen normal circulan dos o tres fotos y
+ * sus arreglos se reutilizan, asi un tick no genera basura en el heap.
+ */
+class SnapshotPool {
+    private final NameTable names;
+    private static final int MAX_FREE = 8;
+
+    // ArrayBlockingQueue no crea nodos al encolar, a diferencia de las colas enlazadas
+    private final ArrayBlockingQueue<ProcessSnapshot> free = new ArrayBlockingQueue<>(MAX_FREE);
+
+    SnapshotPool(NameTable names) {
+        this.names = names;
+    }
+
+    /**
+     * Devuelve una foto libre con una referencia ya retenida por quien la pide
+     */
+    ProcessSnapshot acquire() {
+        ProcessSnapshot snapshot = free.poll();
+        if (snapshot == null) {
+            // todas las fotos estan retenidas por algun consumidor, se crea otra
+            snapshot = new ProcessSnapshot(names, this);
+        }
+        return snapshot.retain();
+    }
+
+    void recycle(ProcessSnapshot snapshot) {
+        // si el pool ya esta lleno la foto sobrante se deja al GC
+        free.offer(snapshot);
+    }
+}
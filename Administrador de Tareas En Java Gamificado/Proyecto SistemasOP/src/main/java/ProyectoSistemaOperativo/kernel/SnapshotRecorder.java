@@ -0,0 +1,267 @@
+package ProyectoSistemaOperativo.kernel;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Grabador de fotos en disco para revisar despues que paso (ver {@link SnapshotReplayer}).
+ *
+ * Escribe cada tick del hub al final de un segmento mapeado en memoria: una cabecera
+ * del tick con los datos del sistema, las definiciones de los nombres que todavia no
+ * aparecieron en ese segmento y un registro de ancho fijo por proceso. Cuando un tick
+ * no entra se pasa a un segmento nuevo, y si el total supera el limite se borran los
+ * segmentos mas viejos. El archivo se crea ya con su tamaño final lleno de ceros, el
+ * primer entero en cero marca el fin de los datos.
+ *
+ * Se registra como listener de "system" y escribe en el hilo del muestreador.
+ */
+public class SnapshotRecorder implements PropertyChangeListener {
+    private static final Logger logger = LogManager.getLogger(SnapshotRecorder.class);
+
+    public static final long DEFAULT_SEGMENT_BYTES = 16L << 20;
+    public static final long DEFAULT_MAX_BYTES = 256L << 20;
+
+    // Formato, compartido con SnapshotReplayer. Todo en little endian.
+    static final int SEGMENT_MAGIC = 0x47455350; // "PSEG"
+    static final int FRAME_MAGIC = 0x314D5246; // "FRM1"
+    static final int VERSION = 1;
+    static final int SEGMENT_HEADER_BYTES = 16; // magic, version, secuencia
+    static final int FRAME_HEADER_BYTES = 4 + 8 * 8 + 4 + 4;
+    static final int PROCESS_RECORD_BYTES = 64;
+    static final String SEGMENT_PREFIX = "snapshots-";
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final long maxBytes;
+    private final ArrayDeque<Path> segments = new ArrayDeque<>();
+    private long storedBytes;
+    private long sequence;
+
+    private MappedByteBuffer buffer;
+    // nombres ya definidos en el segmento actual
+    private final BitSet definedNames = new BitSet();
+    // nombres en UTF-8 por id, se codifican una sola vez
+    private byte[][] encodedNames = new byte[256][];
+    private int[] pendingNames = new int[64];
+    private boolean failed;
+
+    public SnapshotRecorder(Path directory, long segmentBytes, long maxBytes) throws IOException {
+        if (segmentBytes < 4096 || maxBytes < segmentBytes) {
+            throw new IllegalArgumentException("Tamaños de grabacion invalidos: segmento " + segmentBytes + ", maximo " + maxBytes);
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(directory);
+        // se sigue la numeracion de una grabacion anterior y cuenta para el limite
+        for (Path existing : listSegments(directory)) {
+            segments.addLast(existing);
+            storedBytes += Files.size(existing);
+            sequence = Math.max(sequence, sequenceOf(existing));
+        }
+    }
+
+    /**
+     * Segmentos de una carpeta de grabacion en orden
+     */
+    static List<Path> listSegments(Path directory) throws IOException {
+        List<Path> found = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(p -> p.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                            && p.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .forEach(found::add);
+        }
+        found.sort((a, b) -> Long.compare(sequenceOf(a), sequenceOf(b)));
+        return found;
+    }
+
+    private static long sequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public void propertyChange(PropertyChangeEvent evt) {
+        if (failed) {
+            return;
+        }
+        try {
+            write((SystemSnapshot) evt.getNewValue());
+        } catch (IOException | RuntimeException e) {
+            // sin disco (o con un tick que no se pudo escribir) no se detiene el monitor, solo la grabacion
+            failed = true;
+            logger.error("Grabacion detenida por error de escritura", e);
+        }
+    }
+
+    /**
+     * Escribe un tick. La foto de procesos solo se lee durante la llamada.
+     */
+    public synchronized void write(SystemSnapshot snapshot) throws IOException {
+        ProcessSnapshot processes = snapshot.getProcesses();
+        NameTable names = processes.getNameTable();
+        int n = processes.size();
+
+        // primero se mide el tick para saber si entra en el segmento actual
+        int pending = collectPendingNames(processes, names);
+        long frameBytes = frameBytes(n, pending);
+        // + 4 para que siempre quede el cero de fin
+        if (buffer == null || buffer.remaining() < frameBytes + 4) {
+            // en un segmento nuevo hay que volver a definir todos los nombres del tick,
+            // asi que el tick crece y el segmento se dimensiona con ese tamaño
+            definedNames.clear();
+            pending = collectPendingNames(processes, names);
+            frameBytes = frameBytes(n, pending);
+            openSegment(frameBytes);
+        }
+
+        buffer.putInt(FRAME_MAGIC);
+        buffer.putLong(snapshot.getTimestamp());
+        buffer.putDouble(snapshot.getCpuLoad());
+        buffer.putLong(snapshot.getMemoryTotal());
+        buffer.putLong(snapshot.getMemoryAvailable());
+        buffer.putLong(snapshot.getDiskReadBytes());
+        buffer.putLong(snapshot.getDiskWriteBytes());
+        buffer.putLong(snapshot.getNetworkBytesSent());
+        buffer.putLong(snapshot.getNetworkBytesRecv());
+        buffer.putInt(pending);
+        buffer.putInt(n);
+        for (int k = 0; k < pending; k++) {
+            int id = pendingNames[k];
+            byte[] bytes = encodedNames[id];
+            buffer.putInt(id);
+            buffer.putShort((short) bytes.length);
+            buffer.put(bytes);
+            definedNames.set(id);
+        }
+        for (int i = 0; i < n; i++) {
+            buffer.putInt(processes.pids[i]);
+            buffer.putInt(processes.parentPids[i]);
+            buffer.putInt(processes.nameIds[i]);
+            buffer.putInt(processes.userIds[i]);
+            buffer.putLong(processes.residentSizes[i]);
+            buffer.putLong(processes.kernelTimes[i]);
+            buffer.putLong(processes.userTimes[i]);
+            buffer.putLong(processes.startTimes[i]);
+            buffer.putFloat((float) processes.cpuPercent[i]);
+            buffer.putFloat((float) processes.smoothedCpuPercent[i]);
+            buffer.putInt(processes.threadCounts[i]);
+            buffer.put(processes.states[i]);
+            buffer.put((byte) 0);
+            buffer.putShort((short) 0);
+        }
+    }
+
+    /**
+     * Baja a disco lo escrito del segmento actual
+     */
+    public synchronized void flush() {
+        if (buffer != null) {
+            buffer.force();
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Bytes del tick con n procesos y los primeros pending nombres de pendingNames
+     */
+    private long frameBytes(int n, int pending) {
+        long bytes = FRAME_HEADER_BYTES + (long) n * PROCESS_RECORD_BYTES;
+        for (int k = 0; k < pending; k++) {
+            bytes += 4 + 2 + encodedNames[pendingNames[k]].length;
+        }
+        return bytes;
+    }
+
+    /**
+     * Deja en pendingNames los ids del tick sin definir en este segmento, sin repetir
+     */
+    private int collectPendingNames(ProcessSnapshot processes, NameTable names) {
+        int pending = 0;
+        int n = processes.size();
+        for (int i = 0; i < n; i++) {
+            int id = processes.nameIds[i];
+            if (definedNames.get(id)) {
+                continue;
+            }
+            if (id >= encodedNames.length) {
+                encodedNames = Arrays.copyOf(encodedNames, Math.max(id + 1, encodedNames.length * 2));
+            }
+            if (encodedNames[id] == null) {
+                byte[] bytes = names.getName(id).getBytes(StandardCharsets.UTF_8);
+                encodedNames[id] = bytes.length > Short.MAX_VALUE ? Arrays.copyOf(bytes, Short.MAX_VALUE) : bytes;
+            }
+            // se marca ya para no repetirlo en este tick; si el tick va a otro segmento se limpia
+            definedNames.set(id);
+            if (pending == pendingNames.length) {
+                pendingNames = Arrays.copyOf(pendingNames, pending * 2);
+            }
+            pendingNames[pending++] = id;
+        }
+        for (int k = 0; k < pending; k++) {
+            definedNames.clear(pendingNames[k]);
+        }
+        return pending;
+    }
+
+    private void openSegment(long frameBytes) throws IOException {
+        if (buffer != null) {
+            buffer.force();
+        }
+        long size = Math.max(segmentBytes, SEGMENT_HEADER_BYTES + frameBytes + 4);
+        sequence++;
+        Path path = directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // el mapeo sigue valido despues de cerrar el canal
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(SEGMENT_MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putLong(sequence);
+        definedNames.clear();
+
+        segments.addLast(path);
+        storedBytes += size;
+        while (storedBytes > maxBytes && segments.size() > 1) {
+            Path oldest = segments.removeFirst();
+            try {
+                storedBytes -= Files.size(oldest);
+                Files.deleteIfExists(oldest);
+                logger.info("Segmento de grabacion borrado por limite: " + oldest.getFileName());
+            } catch (IOException e) {
+                // en Windows un archivo todavia mapeado no se puede borrar, se reintenta mas tarde
+                logger.warn("No se pudo borrar el segmento " + oldest.getFileName() + ": " + e.getMessage());
+                segments.addFirst(oldest);
+                break;
+            }
+        }
+        logger.info("Grabando en " + path);
+    }
+}
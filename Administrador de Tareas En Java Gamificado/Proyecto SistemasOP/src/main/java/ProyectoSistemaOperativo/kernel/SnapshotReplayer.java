@@ -0,0 +1,266 @@
+package ProyectoSistemaOperativo.kernel;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reproduce una grabacion de {@link SnapshotRecorder} a traves del hub, en lugar del
+ * muestreo en vivo. Cada tick grabado se publica como si viniera del muestreador, asi
+ * la tabla, los graficos y la historia funcionan igual. Los tiempos entre ticks se
+ * respetan divididos por la velocidad (1x a 100x).
+ *
+ * Acepta un segmento suelto o la carpeta de la grabacion (todos sus segmentos en orden).
+ */
+public class SnapshotReplayer {
+    private static final Logger logger = LogManager.getLogger(SnapshotReplayer.class);
+    public static final double MIN_SPEED = 1;
+    public static final double MAX_SPEED = 100;
+
+    private final MetricsHub hub;
+    private final List<Path> segments;
+    private final ScheduledExecutorService scheduler;
+    private volatile double speed;
+
+    // Solo se tocan en el hilo de reproduccion
+    private int segmentIndex = -1;
+    private MappedByteBuffer buffer;
+    private long lastTimestamp = Long.MIN_VALUE;
+    // id grabado -> id en la tabla de nombres del hub, -1 si no se vio
+    private int[] nameMap = new int[256];
+    private ScheduledFuture<?> task;
+    private boolean finished;
+    private volatile Runnable onFinished;
+
+    public SnapshotReplayer(MetricsHub hub, Path recording, double speed) throws IOException {
+        this.hub = hub;
+        this.segments = Files.isDirectory(recording) ? SnapshotRecorder.listSegments(recording) : List.of(recording);
+        if (segments.isEmpty()) {
+            throw new IOException("No hay segmentos de grabacion en " + recording);
+        }
+        setSpeed(speed);
+        Arrays.fill(nameMap, -1);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "snapshot-replay");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public double getSpeed() {
+        return speed;
+    }
+
+    /**
+     * Velocidad de reproduccion, se limita al rango 1x - 100x
+     */
+    public void setSpeed(double speed) {
+        this.speed = Math.max(MIN_SPEED, Math.min(MAX_SPEED, speed));
+    }
+
+    /**
+     * Empieza o sigue la reproduccion
+     */
+    public synchronized void start() {
+        if (task == null && !scheduler.isShutdown()) {
+            task = scheduler.schedule(this::step, 0, TimeUnit.MILLISECONDS);
+            logger.info("Reproduciendo grabacion a " + speed + "x");
+        }
+    }
+
+    /**
+     * Pausa la reproduccion, start() sigue desde el mismo tick
+     */
+    public synchronized void stop() {
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return task != null;
+    }
+
+    /**
+     * Se llama en el hilo de reproduccion cuando se publica el ultimo tick de la grabacion
+     */
+    public void setOnFinished(Runnable onFinished) {
+        this.onFinished = onFinished;
+    }
+
+    public void shutdown() {
+        stop();
+        scheduler.shutdownNow();
+    }
+
+    private void step() {
+        try {
+            long timestamp = publishNext();
+            if (timestamp == Long.MIN_VALUE) {
+                logger.info("Fin de la grabacion.");
+                synchronized (this) {
+                    task = null;
+                }
+                Runnable callback = onFinished;
+                if (callback != null) {
+                    callback.run();
+                }
+                return;
+            }
+            lastTimestamp = timestamp;
+        } catch (IOException | RuntimeException e) {
+            logger.error("Error leyendo la grabacion, se detiene la reproduccion", e);
+            synchronized (this) {
+                task = null;
+            }
+            return;
+        }
+        long delayMs = peekDelay();
+        synchronized (this) {
+            // si se pauso mientras se publicaba no se programa el siguiente
+            if (task != null) {
+                task = scheduler.schedule(this::step, Math.max(0, delayMs), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Tiempo de espera hasta el proximo tick segun la grabacion y la velocidad
+     */
+    private long peekDelay() {
+        try {
+            long next = peekTimestamp();
+            return next == Long.MIN_VALUE ? 0 : (long) ((next - lastTimestamp) / speed);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Lee el siguiente tick y lo publica. Devuelve su tiempo, o Long.MIN_VALUE al final.
+     */
+    private long publishNext() throws IOException {
+        if (!ensureFrame()) {
+            finished = true;
+            return Long.MIN_VALUE;
+        }
+        MappedByteBuffer in = buffer;
+        in.getInt(); // magic
+        long timestamp = in.getLong();
+        double cpuLoad = in.getDouble();
+        long memoryTotal = in.getLong();
+        long memoryAvailable = in.getLong();
+        long diskRead = in.getLong();
+        long diskWrite = in.getLong();
+        long sent = in.getLong();
+        long recv = in.getLong();
+        int nameDefs = in.getInt();
+        int n = in.getInt();
+
+        NameTable names = hub.getNameTable();
+        for (int k = 0; k < nameDefs; k++) {
+            int recordedId = in.getInt();
+            int length = in.getShort() & 0xFFFF;
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            if (recordedId >= nameMap.length) {
+                int old = nameMap.length;
+                nameMap = Arrays.copyOf(nameMap, Math.max(recordedId + 1, old * 2));
+                Arrays.fill(nameMap, old, nameMap.length, -1);
+            }
+            if (nameMap[recordedId] == -1) {
+                nameMap[recordedId] = names.intern(new String(bytes, StandardCharsets.UTF_8));
+            }
+        }
+
+        ProcessSnapshot processes = hub.acquireSnapshot();
+        processes.reset(timestamp);
+        for (int k = 0; k < n; k++) {
+            int i = processes.add();
+            processes.pids[i] = in.getInt();
+            processes.parentPids[i] = in.getInt();
+            int recordedId = in.getInt();
+            processes.nameIds[i] = recordedId < nameMap.length && nameMap[recordedId] >= 0
+                    ? nameMap[recordedId] : names.intern("?");
+            processes.userIds[i] = in.getInt();
+            processes.residentSizes[i] = in.getLong();
+            processes.kernelTimes[i] = in.getLong();
+            processes.userTimes[i] = in.getLong();
+            processes.startTimes[i] = in.getLong();
+            processes.cpuPercent[i] = in.getFloat();
+            processes.smoothedCpuPercent[i] = in.getFloat();
+            processes.threadCounts[i] = in.getInt();
+            processes.states[i] = in.get();
+            // la grabacion no guarda E/S por proceso
+            processes.ioBytes[i] = -1;
+            processes.ioBytesPerSec[i] = -1;
+            in.position(in.position() + 3);
+        }
+        hub.publish(new SystemSnapshot(timestamp, cpuLoad, memoryTotal, memoryAvailable,
+                diskRead, diskWrite, sent, recv, processes));
+        return timestamp;
+    }
+
+    private long peekTimestamp() throws IOException {
+        if (!ensureFrame()) {
+            return Long.MIN_VALUE;
+        }
+        return buffer.getLong(buffer.position() + 4);
+    }
+
+    /**
+     * Deja el buffer parado al comienzo de un tick, pasando de segmento si hace falta.
+     * Devuelve false si no quedan ticks.
+     */
+    private boolean ensureFrame() throws IOException {
+        while (!finished) {
+            if (buffer != null && buffer.remaining() >= 4) {
+                int magic = buffer.getInt(buffer.position());
+                if (magic == SnapshotRecorder.FRAME_MAGIC) {
+                    return true;
+                }
+                if (magic != 0) {
+                    throw new IOException("Tick corrupto en " + segments.get(segmentIndex) + " posicion " + buffer.position());
+                }
+            }
+            // fin del segmento actual (cero o sin espacio)
+            if (segmentIndex + 1 >= segments.size()) {
+                return false;
+            }
+            openSegment(segments.get(++segmentIndex));
+        }
+        return false;
+    }
+
+    private void openSegment(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < SnapshotRecorder.SEGMENT_HEADER_BYTES
+                || buffer.getInt() != SnapshotRecorder.SEGMENT_MAGIC) {
+            throw new IOException("No es un segmento de grabacion: " + path);
+        }
+        int version = buffer.getInt();
+        if (version != SnapshotRecorder.VERSION) {
+            throw new IOException("Version de grabacion no soportada " + version + " en " + path);
+        }
+        buffer.getLong(); // secuencia
+        logger.info("Reproduciendo segmento " + path.getFileName());
+    }
+}
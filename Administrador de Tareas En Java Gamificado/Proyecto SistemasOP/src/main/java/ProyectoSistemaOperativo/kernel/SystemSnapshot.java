@@ -0,0 +1,120 @@
+package ProyectoSistemaOperativo.kernel;
+
+/**
+ * Foto inmutable de las metricas del sistema tomada en un tick del hub.
+ * Incluye la foto de procesos del mismo tick para que todas las vistas
+ * trabajen sobre los mismos datos.
+ */
+public final class SystemSnapshot {
+    private final long timestamp;
+    private final double cpuLoad;
+    private final long memoryTotal;
+    private final long memoryAvailable;
+    private final long diskReadBytes;
+    private final long diskWriteBytes;
+    private final long networkBytesSent;
+    private final long networkBytesRecv;
+    private final ProcessSnapshot processes;
+    private final IoRates ioRates;
+
+    /**
+     * Foto sin tasas de disco y red; el hub las completa desde los contadores acumulados al publicarla
+     */
+    public SystemSnapshot(long timestamp, double cpuLoad, long memoryTotal, long memoryAvailable,
+                          long diskReadBytes, long diskWriteBytes, long networkBytesSent, long networkBytesRecv,
+                          ProcessSnapshot processes) {
+        this(timestamp, cpuLoad, memoryTotal, memoryAvailable, diskReadBytes, diskWriteBytes,
+                networkBytesSent, networkBytesRecv, processes, null);
+    }
+
+    public SystemSnapshot(long timestamp, double cpuLoad, long memoryTotal, long memoryAvailable,
+                          long diskReadBytes, long diskWriteBytes, long networkBytesSent, long networkBytesRecv,
+                          ProcessSnapshot processes, IoRates ioRates) {
+        this.timestamp = timestamp;
+        this.cpuLoad = cpuLoad;
+        this.memoryTotal = memoryTotal;
+        this.memoryAvailable = memoryAvailable;
+        this.diskReadBytes = diskReadBytes;
+        this.diskWriteBytes = diskWriteBytes;
+        this.networkBytesSent = networkBytesSent;
+        this.networkBytesRecv = networkBytesRecv;
+        this.processes = processes;
+        this.ioRates = ioRates;
+    }
+
+    /**
+     * La misma foto con otras tasas de disco y red
+     */
+    SystemSnapshot withIoRates(IoRates ioRates) {
+        return new SystemSnapshot(timestamp, cpuLoad, memoryTotal, memoryAvailable, diskReadBytes, diskWriteBytes,
+                networkBytesSent, networkBytesRecv, processes, ioRates);
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Uso de CPU del sistema entre este tick y el anterior, de 0 a 1
+     */
+    public double getCpuLoad() {
+        return cpuLoad;
+    }
+
+    public long getMemoryTotal() {
+        return memoryTotal;
+    }
+
+    public long getMemoryAvailable() {
+        return memoryAvailable;
+    }
+
+    public long getMemoryUsed() {
+        return memoryTotal - memoryAvailable;
+    }
+
+    /**
+     * Porcentaje de memoria usada, de 0 a 100
+     */
+    public double getMemoryPercent() {
+        return memoryTotal == 0 ? 0 : (double) getMemoryUsed() / memoryTotal * 100;
+    }
+
+    /**
+     * Bytes leidos por todos los discos desde el arranque (contador acumulado, no una tasa)
+     */
+    public long getDiskReadBytes() {
+        return diskReadBytes;
+    }
+
+    public long getDiskWriteBytes() {
+        return diskWriteBytes;
+    }
+
+    /**
+     * Bytes enviados por todas las placas desde el arranque (contador acumulado, no una tasa)
+     */
+    public long getNetworkBytesSent() {
+        return networkBytesSent;
+    }
+
+    public long getNetworkBytesRecv() {
+        return networkBytesRecv;
+    }
+
+    /**
+     * Tasas de disco y red desde el tick anterior, por dispositivo y totales.
+     * En las fotos publicadas por el hub nunca es null.
+     */
+    public IoRates getIoRates() {
+        return ioRates;
+    }
+
+    /**
+     * Foto de procesos del mismo tick. Solo es valida dentro del callback que
+     * recibio este SystemSnapshot, para usarla despues hay que retenerla.
+     */
+    public ProcessSnapshot getProcesses() {
+        return processes;
+    }
+}
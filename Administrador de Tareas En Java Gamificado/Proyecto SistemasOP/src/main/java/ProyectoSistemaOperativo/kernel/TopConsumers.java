@@ -0,0 +1,129 @@
+package ProyectoSistemaOperativo.kernel;
+
+import java.util.function.IntPredicate;
+
+/**
+ * Elige los k procesos que mas consumen de una foto sin ordenar la lista entera.
+ * Recorre las columnas una vez con un heap de minimos de tamaño k sobre un int[]
+ * de indices de fila: O(n log k) y en la practica casi siempre una sola comparacion
+ * contra la raiz, porque la mayoria de los procesos no entra al top.
+ *
+ * Los empates se desempatan por PID ascendente para que el top no salte entre ticks.
+ * No es thread-safe, cada consumidor tiene el suyo y lo reutiliza entre ticks.
+ */
+public final class TopConsumers {
+
+    /**
+     * Recurso por el que se arma el top
+     */
+    public enum Key {
+        CPU, MEMORY, IO
+    }
+
+    private final int k;
+    private final int[] heap;
+    private ProcessSnapshot snapshot;
+    private Key key;
+
+    public TopConsumers(int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("El top debe tener al menos un proceso: " + k);
+        }
+        this.k = k;
+        this.heap = new int[k];
+    }
+
+    public int getLimit() {
+        return k;
+    }
+
+    /**
+     * Deja en out los indices de fila de los que mas consumen, del mayor al menor,
+     * y devuelve cuantos son (a lo sumo k). out debe tener lugar para k indices.
+     */
+    public int select(ProcessSnapshot snapshot, Key key, int[] out) {
+        return select(snapshot, key, null, out);
+    }
+
+    /**
+     * Igual que {@link #select(ProcessSnapshot, Key, int[])} pero solo entre las filas que
+     * acepta filter (null acepta todas)
+     */
+    public int select(ProcessSnapshot snapshot, Key key, IntPredicate filter, int[] out) {
+        this.snapshot = snapshot;
+        this.key = key;
+        int n = snapshot.size();
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            if (filter != null && !filter.test(i)) {
+                continue;
+            }
+            if (size < k) {
+                heap[size] = i;
+                siftUp(size++);
+            } else if (before(i, heap[0])) {
+                // entra al top y desplaza al menor
+                heap[0] = i;
+                siftDown(0, size);
+            }
+        }
+        // se vacia el heap de atras para adelante: el menor queda al final
+        for (int end = size - 1; end >= 0; end--) {
+            out[end] = heap[0];
+            heap[0] = heap[end];
+            siftDown(0, end);
+        }
+        this.snapshot = null;
+        return size;
+    }
+
+    /**
+     * true si la fila a va antes que la b en el top
+     */
+    private boolean before(int a, int b) {
+        int c;
+        switch (key) {
+            case CPU:
+                c = Double.compare(snapshot.cpuPercent[a], snapshot.cpuPercent[b]);
+                break;
+            case MEMORY:
+                c = Long.compare(snapshot.residentSizes[a], snapshot.residentSizes[b]);
+                break;
+            default:
+                c = Double.compare(snapshot.ioBytesPerSec[a], snapshot.ioBytesPerSec[b]);
+                break;
+        }
+        return c != 0 ? c > 0 : snapshot.pids[a] < snapshot.pids[b];
+    }
+
+    private void siftUp(int index) {
+        int row = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!before(heap[parent], row)) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = row;
+    }
+
+    private void siftDown(int index, int size) {
+        int row = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && before(heap[child], heap[right])) {
+                child = right;
+            }
+            if (!before(row, heap[child])) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = row;
+    }
+}
@@ -0,0 +1,52 @@
+package ProyectoSistemaOperativo.kernel;
+
+/**
+ * Lectura rapida del proceso vigilado, entre dos fotos completas. Inmutable.
+ */
+public final class WatchedSample {
+    private final int pid;
+    private final long timestamp;
+    private final boolean alive;
+    private final double cpuPercent;
+    private final long residentSize;
+    private final int threadCount;
+
+    WatchedSample(int pid, long timestamp, boolean alive, double cpuPercent, long residentSize, int threadCount) {
+        this.pid = pid;
+        this.timestamp = timestamp;
+        this.alive = alive;
+        this.cpuPercent = cpuPercent;
+        this.residentSize = residentSize;
+        this.threadCount = threadCount;
+    }
+
+    public int getPid() {
+        return pid;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * false si el proceso ya no existe; el resto de los valores no sirve
+     */
+    public boolean isAlive() {
+        return alive;
+    }
+
+    /**
+     * CPU desde la lectura anterior en porcentaje del total, -1 en la primera lectura
+     */
+    public double getCpuPercent() {
+        return cpuPercent;
+    }
+
+    public long getResidentSetSize() {
+        return residentSize;
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+}
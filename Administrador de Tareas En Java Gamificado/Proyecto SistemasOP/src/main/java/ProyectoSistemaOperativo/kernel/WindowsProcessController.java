@@ -0,0 +1,80 @@
+package ProyectoSistemaOperativo.kernel;
+
+import ProyectoSistemaOperativo.kernel.ProcessControlResult.Action;
+import ProyectoSistemaOperativo.kernel.ProcessControlResult.Outcome;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Control de procesos en Windows con las herramientas de siempre
+ * (taskkill, pssuspend de Sysinternals y wmic), pero sin bloquear:
+ * el exit code se recibe de forma asincrona.
+ */
+public class WindowsProcessController implements ProcessController {
+
+    @Override
+    public CompletableFuture<ProcessControlResult> terminate(int pid) {
+        return command(pid, Action.TERMINATE, List.of("taskkill", "/PID", String.valueOf(pid), "/F"));
+    }
+
+    /**
+     * Requiere pssuspend.exe en el PATH
+     */
+    @Override
+    public CompletableFuture<ProcessControlResult> suspend(int pid) {
+        return command(pid, Action.SUSPEND, List.of("pssuspend.exe", String.valueOf(pid)));
+    }
+
+    /**
+     * pssuspend -r reanuda el proceso, tambien requiere pssuspend.exe en el PATH
+     */
+    @Override
+    public CompletableFuture<ProcessControlResult> resume(int pid) {
+        return command(pid, Action.RESUME, List.of("pssuspend.exe", "-r", String.valueOf(pid)));
+    }
+
+    @Override
+    public CompletableFuture<ProcessControlResult> changePriority(int pid, String priority) {
+        return command(pid, Action.CHANGE_PRIORITY, List.of("wmic", "process", "where", "ProcessId=" + pid,
+                "call", "setpriority", getPriorityClass(priority)));
+    }
+
+    private CompletableFuture<ProcessControlResult> command(int pid, Action action, List<String> command) {
+        long start = System.nanoTime();
+        if (ProcessHandle.of(pid).isEmpty()) {
+            return CompletableFuture.completedFuture(
+                    new ProcessControlResult(pid, action, Outcome.NOT_FOUND, "El proceso no existe", System.nanoTime() - start));
+        }
+        return CommandRunner.run(command).thenApply(code -> {
+            Outcome outcome;
+            String message;
+            if (code == 0) {
+                outcome = Outcome.OK;
+                message = "Accion aplicada";
+            } else if (code == -1) {
+                outcome = Outcome.FAILED;
+                message = "No se encontro " + command.get(0) + " en el PATH";
+            } else if (code == -2) {
+                outcome = Outcome.TIMEOUT;
+                message = command.get(0) + " no respondio a tiempo";
+            } else {
+                outcome = Outcome.FAILED;
+                message = command.get(0) + " termino con codigo " + code;
+            }
+            return new ProcessControlResult(pid, action, outcome, message, System.nanoTime() - start);
+        });
+    }
+
+    private static String getPriorityClass(String priority) {
+        switch (priority.toUpperCase()) {
+            case "REALTIME": return "256";
+            case "HIGH": return "128";
+            case "ABOVE_NORMAL": return "32768";
+            case "NORMAL": return "32";
+            case "BELOW_NORMAL": return "16384";
+            case "LOW": return "64";
+            default: return "32"; // NORMAL
+        }
+    }
+}
@@ -1,8 +1,7 @@
 package ProyectoSistemaOperativo.observer;
 
-import oshi.software.os.OSProcess;
-import java.util.List;
+import ProyectoSistemaOperativo.kernel.ProcessSnapshot;
 
 public interface ProcessObserver {
-    void onProcessUpdate(List<OSProcess> processes);
+    void onProcessUpdate(ProcessSnapshot snapshot);
 }
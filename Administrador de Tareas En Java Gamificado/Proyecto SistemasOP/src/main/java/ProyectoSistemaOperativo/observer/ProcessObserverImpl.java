@@ -1,25 +1,30 @@
 package ProyectoSistemaOperativo.observer;
 
+import ProyectoSistemaOperativo.kernel.ProcessSnapshot;
+import ProyectoSistemaOperativo.kernel.SelfMetrics;
 import ProyectoSistemaOperativo.ui.TaskManagerFrame;
-import oshi.software.os.OSProcess;
 
 import javax.swing.*;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
-import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 
 public class ProcessObserverImpl implements ProcessObserver, PropertyChangeListener {
     private PropertyChangeSupport support;
     private TaskManagerFrame frame;
+    private final SelfMetrics metrics;
+    // Foto que espera al EDT; si llega otra antes de aplicarla se reemplaza
+    private final AtomicReference<ProcessSnapshot> pending = new AtomicReference<>();
 
     private int observedProcessId;
 
 
-    public ProcessObserverImpl(TaskManagerFrame frame) {
+    public ProcessObserverImpl(TaskManagerFrame frame, SelfMetrics metrics) {
         support = new PropertyChangeSupport(this);
         this.frame = frame;
+        this.metrics = metrics;
     }
 
     public void addPropertyChangeListener(PropertyChangeListener pcl) {
@@ -43,15 +48,32 @@ public class ProcessObserverImpl implements ProcessObserver, PropertyChangeListe
     @Override
     public void propertyChange(PropertyChangeEvent evt) {
         if ("processes".equals(evt.getPropertyName())) {
-            List<OSProcess> processes = (List<OSProcess>) evt.getNewValue();
-            onProcessUpdate(processes);
+            ProcessSnapshot snapshot = (ProcessSnapshot) evt.getNewValue();
+            onProcessUpdate(snapshot);
         }
     }
 
     @Override
-    public void onProcessUpdate(List<OSProcess> processes) {
+    public void onProcessUpdate(ProcessSnapshot snapshot) {
+        // llega desde el hilo del muestreador, el EDT solo aplica la foto terminada.
+        // La foto se retiene hasta que el EDT la aplique para que el pool no la reutilice antes.
+        // Si el EDT viene atrasado no se acumulan tareas: la foto nueva reemplaza a la pendiente.
+        snapshot.retain();
+        ProcessSnapshot previous = pending.getAndSet(snapshot);
+        if (previous != null) {
+            previous.release();
+            metrics.coalesced();
+            return;
+        }
+        long postedAt = metrics.edtPosted();
         SwingUtilities.invokeLater(() -> {
-            frame.updateProcessTable(processes);
+            metrics.edtStarted(postedAt);
+            ProcessSnapshot latest = pending.getAndSet(null);
+            try {
+                frame.updateProcessTable(latest);
+            } finally {
+                latest.release();
+            }
         });
     }
 }
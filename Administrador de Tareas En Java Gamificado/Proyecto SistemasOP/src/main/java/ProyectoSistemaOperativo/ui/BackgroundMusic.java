@@ -0,0 +1,175 @@
+package ProyectoSistemaOperativo.ui;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.BooleanControl;
+import javax.sound.sampled.FloatControl;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Musica de fondo leida del classpath por partes hacia un SourceDataLine, en un hilo
+ * daemon propio. A diferencia de Clip no decodifica el archivo entero en memoria: solo
+ * vive el buffer de la linea y uno de lectura, de alrededor de un cuarto de segundo.
+ *
+ * No hace nada hasta {@link #start()}. Si el recurso no existe o no hay salida de audio
+ * se avisa en el log y la aplicacion sigue sin musica.
+ */
+final class BackgroundMusic {
+    private static final Logger logger = LogManager.getLogger(BackgroundMusic.class);
+    // buffer de la linea y de lectura, en milisegundos de audio
+    private static final int BUFFER_MS = 250;
+    private static final float MIN_GAIN_DB = -80f;
+
+    private final String resource;
+    private final Object lock = new Object();
+    private Thread thread;
+    private volatile boolean stopped;
+    private volatile boolean muted;
+    private volatile float volume = 1f;
+    // la linea abierta, para aplicar volumen y silencio desde el EDT
+    private volatile SourceDataLine line;
+
+    BackgroundMusic(String resource) {
+        this.resource = resource;
+    }
+
+    /**
+     * Arranca la reproduccion en segundo plano, no bloquea a quien llama
+     */
+    void start() {
+        synchronized (lock) {
+            if (thread != null) {
+                return;
+            }
+            thread = new Thread(this::play, "background-music");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Detiene la reproduccion y libera la linea
+     */
+    void stop() {
+        stopped = true;
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+    }
+
+    boolean isMuted() {
+        return muted;
+    }
+
+    /**
+     * Silenciar pausa la linea, al volver sigue desde el mismo punto
+     */
+    void setMuted(boolean muted) {
+        this.muted = muted;
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+        applyControls();
+    }
+
+    float getVolume() {
+        return volume;
+    }
+
+    /**
+     * Volumen de 0 a 1
+     */
+    void setVolume(float volume) {
+        this.volume = Math.max(0f, Math.min(1f, volume));
+        applyControls();
+    }
+
+    private void play() {
+        InputStream resourceStream = BackgroundMusic.class.getResourceAsStream(resource);
+        if (resourceStream == null) {
+            logger.warn("No se encontro el audio " + resource + ", se sigue sin musica");
+            return;
+        }
+        // getAudioInputStream necesita mark/reset para leer la cabecera
+        try (AudioInputStream source = AudioSystem.getAudioInputStream(new BufferedInputStream(resourceStream));
+             AudioInputStream pcm = toPcm(source)) {
+            AudioFormat format = pcm.getFormat();
+            int frameSize = Math.max(1, format.getFrameSize());
+            int bufferBytes = Math.max(frameSize, (int) (format.getFrameRate() * BUFFER_MS / 1000) * frameSize);
+            SourceDataLine opened = AudioSystem.getSourceDataLine(format);
+            opened.open(format, bufferBytes);
+            try {
+                line = opened;
+                applyControls();
+                logger.info("Reproduciendo audio: " + resource);
+                stream(pcm, opened, new byte[bufferBytes]);
+            } finally {
+                line = null;
+                opened.close();
+            }
+        } catch (UnsupportedAudioFileException | IOException | LineUnavailableException | IllegalArgumentException e) {
+            // IllegalArgumentException: el sistema no tiene una linea para ese formato
+            logger.warn("No se pudo reproducir el audio " + resource + ": " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void stream(AudioInputStream pcm, SourceDataLine out, byte[] buffer) throws IOException, InterruptedException {
+        out.start();
+        int read;
+        while (!stopped && (read = pcm.read(buffer, 0, buffer.length)) > 0) {
+            if (muted) {
+                out.stop();
+                synchronized (lock) {
+                    while (muted && !stopped) {
+                        lock.wait();
+                    }
+                }
+                out.start();
+            }
+            out.write(buffer, 0, read);
+        }
+        if (!stopped) {
+            out.drain();
+        }
+    }
+
+    /**
+     * Los formatos comprimidos se decodifican al vuelo a PCM de 16 bits
+     */
+    private static AudioInputStream toPcm(AudioInputStream source) {
+        AudioFormat format = source.getFormat();
+        if (format.getEncoding() == AudioFormat.Encoding.PCM_SIGNED || format.getEncoding() == AudioFormat.Encoding.PCM_UNSIGNED) {
+            return source;
+        }
+        AudioFormat pcm = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, format.getSampleRate(), 16,
+                format.getChannels(), format.getChannels() * 2, format.getSampleRate(), false);
+        return AudioSystem.getAudioInputStream(pcm, source);
+    }
+
+    private void applyControls() {
+        SourceDataLine current = line;
+        if (current == null) {
+            return;
+        }
+        if (current.isControlSupported(BooleanControl.Type.MUTE)) {
+            ((BooleanControl) current.getControl(BooleanControl.Type.MUTE)).setValue(muted);
+        }
+        if (current.isControlSupported(FloatControl.Type.MASTER_GAIN)) {
+            FloatControl gain = (FloatControl) current.getControl(FloatControl.Type.MASTER_GAIN);
+            // el volumen es lineal, la ganancia en decibeles
+            float db = volume <= 0f ? MIN_GAIN_DB : (float) (20 * Math.log10(volume));
+            gain.setValue(Math.max(gain.getMinimum(), Math.min(gain.getMaximum(), Math.max(MIN_GAIN_DB, db))));
+        }
+    }
+}
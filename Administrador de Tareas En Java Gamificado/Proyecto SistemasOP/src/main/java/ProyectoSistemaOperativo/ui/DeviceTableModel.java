@@ -0,0 +1,80 @@
+package ProyectoSistemaOperativo.ui;
+
+import ProyectoSistemaOperativo.kernel.DeviceRate;
+import ProyectoSistemaOperativo.kernel.IoHistory;
+import ProyectoSistemaOperativo.kernel.IoRates;
+import ProyectoSistemaOperativo.kernel.MetricsHistory;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tabla de discos y placas de red con sus tasas del ultimo tick y el uso maximo de
+ * los ultimos minutos, para ver cual esta saturado. Se usa solo en el EDT.
+ */
+class DeviceTableModel extends AbstractTableModel {
+    static final long PEAK_WINDOW_MS = 5 * 60_000L;
+    private static final String[] COLUMNS = {
+            "Dispositivo", "Tipo", "Lectura / Recibido", "Escritura / Enviado", "Ops/s", "Cola", "Uso", "Uso máx 5 min"
+    };
+
+    private final List<DeviceRate> rows = new ArrayList<>();
+    private double[] peaks = new double[0];
+    private final IoHistory.Points points = new IoHistory.Points();
+
+    /**
+     * Reemplaza las filas con las tasas del tick y busca el pico de uso de cada una en la historia
+     */
+    void update(IoRates rates, IoHistory history, long now) {
+        rows.clear();
+        rows.addAll(rates.getDisks());
+        rows.addAll(rates.getNetworks());
+        if (peaks.length < rows.size()) {
+            peaks = new double[rows.size()];
+        }
+        for (int i = 0; i < rows.size(); i++) {
+            history.copy(rows.get(i).getName(), MetricsHistory.Resolution.RAW, now - PEAK_WINDOW_MS, points);
+            peaks[i] = points.maxUtilization();
+        }
+        fireTableDataChanged();
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        DeviceRate rate = rows.get(rowIndex);
+        switch (columnIndex) {
+            case 0: return rate.getName();
+            case 1: return rate.getKind() == DeviceRate.Kind.DISK ? "Disco" : "Red";
+            case 2: return bytesPerSecond(rate.getReadBytesPerSec());
+            case 3: return bytesPerSecond(rate.getWriteBytesPerSec());
+            case 4: return String.format("%.0f", rate.getOpsPerSec());
+            case 5: return rate.getQueueLength() < 0 ? "-" : String.format("%.0f", rate.getQueueLength());
+            case 6: return percentOrDash(rate.getUtilization());
+            default: return percentOrDash(peaks[rowIndex]);
+        }
+    }
+
+    static String bytesPerSecond(double value) {
+        return FormatCache.bytes((long) value) + "/s";
+    }
+
+    static String percentOrDash(double value) {
+        return value < 0 ? "-" : FormatCache.percent(value);
+    }
+}
@@ -0,0 +1,46 @@
+package ProyectoSistemaOperativo.ui;
+
+import static oshi.util.FormatUtil.formatBytes;
+
+/**
+ * Textos ya formateados para los renderers, asi pintar una celda no crea Strings.
+ * Los porcentajes con un decimal son solo 1001 valores y se arman una vez; los
+ * tamaños en bytes van a una cache de mapeo directo que se llena al primer uso.
+ */
+final class FormatCache {
+    private static final String[] PERCENTS = new String[1001];
+    private static final int BYTES_SLOTS = 4096;
+    private static final long[] byteKeys = new long[BYTES_SLOTS];
+    private static final String[] byteTexts = new String[BYTES_SLOTS];
+
+    static {
+        for (int i = 0; i < PERCENTS.length; i++) {
+            PERCENTS[i] = String.format("%.1f%%", i / 10.0);
+        }
+    }
+
+    private FormatCache() {
+    }
+
+    /**
+     * Porcentaje de 0 a 100 con un decimal, por ejemplo "12.3%"
+     */
+    static String percent(double value) {
+        int tenths = (int) Math.round(value * 10);
+        return PERCENTS[Math.max(0, Math.min(1000, tenths))];
+    }
+
+    /**
+     * Igual que FormatUtil.formatBytes pero cacheado. Solo se usa desde el EDT.
+     */
+    static String bytes(long value) {
+        int slot = (int) ((value ^ (value >>> 29)) * 0x9E3779B97F4A7C15L >>> 52);
+        String text = byteTexts[slot];
+        if (text == null || byteKeys[slot] != value) {
+            text = formatBytes(value);
+            byteKeys[slot] = value;
+            byteTexts[slot] = text;
+        }
+        return text;
+    }
+}
@@ -0,0 +1,104 @@
+package ProyectoSistemaOperativo.ui;
+
+import ProyectoSistemaOperativo.kernel.MetricsHistory;
+import org.jfree.data.DomainOrder;
+import org.jfree.data.xy.AbstractXYDataset;
+
+/**
+ * Dataset de JFreeChart que lee un tramo de {@link MetricsHistory} en arreglos propios.
+ * No crea un objeto por punto como TimeSeries: cada refresco copia el tramo sobre los
+ * mismos arreglos y avisa al grafico. Se usa solo en el EDT.
+ */
+class HistoryDataset extends AbstractXYDataset {
+
+    /**
+     * Que se grafica de la historia
+     */
+    enum Metric {
+        CPU, MEMORY_PERCENT
+    }
+
+    private final String key;
+    private final Metric metric;
+    private long[] times = new long[0];
+    private float[] cpu = new float[0];
+    private long[] bytes = new long[0];
+    private int count;
+    // para MEMORY_PERCENT: memoria total del sistema en bytes
+    private long totalBytes = 1;
+
+    HistoryDataset(String key, Metric metric) {
+        this.key = key;
+        this.metric = metric;
+    }
+
+    /**
+     * Vuelve a copiar el tramo del sistema desde since
+     */
+    void loadSystem(MetricsHistory history, MetricsHistory.Resolution resolution, long since, long totalBytes) {
+        ensureCapacity(history.getSystemCapacity(resolution));
+        this.totalBytes = Math.max(1, totalBytes);
+        count = history.copySystem(resolution, since, times, cpu, bytes);
+        fireDatasetChanged();
+    }
+
+    /**
+     * Vuelve a copiar el tramo de un proceso desde since, queda vacio si pid es -1
+     */
+    void loadProcess(MetricsHistory history, int pid, MetricsHistory.Resolution resolution, long since) {
+        ensureCapacity(MetricsHistory.getProcessCapacity(resolution));
+        count = pid == -1 ? 0 : history.copyProcess(pid, resolution, since, times, cpu, bytes);
+        fireDatasetChanged();
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (times.length < capacity) {
+            times = new long[capacity];
+            cpu = new float[capacity];
+            bytes = new long[capacity];
+        }
+    }
+
+    @Override
+    public DomainOrder getDomainOrder() {
+        return DomainOrder.ASCENDING;
+    }
+
+    @Override
+    public int getSeriesCount() {
+        return 1;
+    }
+
+    @Override
+    public Comparable<?> getSeriesKey(int series) {
+        return key;
+    }
+
+    @Override
+    public int getItemCount(int series) {
+        return count;
+    }
+
+    @Override
+    public double getXValue(int series, int item) {
+        return times[item];
+    }
+
+    @Override
+    public double getYValue(int series, int item) {
+        if (metric == Metric.CPU) {
+            return Math.min(cpu[item], 100.0);
+        }
+        return bytes[item] * 100.0 / totalBytes;
+    }
+
+    @Override
+    public Number getX(int series, int item) {
+        return getXValue(series, item);
+    }
+
+    @Override
+    public Number getY(int series, int item) {
+        return getYValue(series, item);
+    }
+}
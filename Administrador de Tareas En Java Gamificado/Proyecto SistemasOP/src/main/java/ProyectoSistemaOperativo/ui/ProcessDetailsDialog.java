@@ -1,6 +1,7 @@
 package ProyectoSistemaOperativo.ui;
 
 import ProyectoSistemaOperativo.kernel.KernelManager;
+import ProyectoSistemaOperativo.kernel.ProcessSnapshot;
 import oshi.software.os.OSProcess;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -18,6 +19,9 @@ import java.time.format.DateTimeFormatter;
  */
 public class ProcessDetailsDialog extends JDialog {
     private static final Logger logger = LogManager.getLogger(ProcessDetailsDialog.class);
+    private static final String[] LABELS = {"Nombre de la Criatura:", "Ruta del Ejecutable:", "Nivel:", "Parent Nivel:",
+            "Poder de Ataque:", "Vida:", "Tiempo de Invocación:", "Estado:",
+            "Descendientes:", "Ataque del clan:", "Vida del clan:", "Hilos del clan:"};
     private KernelManager kernelManager;
     private int pid;
 
@@ -29,7 +33,7 @@ public class ProcessDetailsDialog extends JDialog {
         initUI();
         loadProcessDetails();
 
-        setSize(400, 300);
+        setSize(480, 420);
         setLocationRelativeTo(parent);
         logger.info("ProcessDetailsDialog inicializado para PID: " + pid);
     }
@@ -43,7 +47,7 @@ public class ProcessDetailsDialog extends JDialog {
         gbc.anchor = GridBagConstraints.WEST;
 
         // Labels para los detalles
-        String[] labels = {"Nombre de la Criatura:", "Ruta del Ejecutable:", "Nivel:", "Parent Nivel:", "Poder de Ataque:", "Vida:", "Tiempo de Invocación:", "Estado:"};
+        String[] labels = LABELS;
         JTextField[] fields = new JTextField[labels.length];
 
         for (int i = 0; i < labels.length; i++) {
@@ -77,7 +81,7 @@ public class ProcessDetailsDialog extends JDialog {
             // Obtener los componentes del panel
             Container detailsPanel = (Container) ((JScrollPane) getContentPane().getComponent(0)).getViewport().getView();
             Component[] components = detailsPanel.getComponents();
-            JTextField[] fields = new JTextField[8];
+            JTextField[] fields = new JTextField[LABELS.length];
             int fieldIndex = 0;
             for (Component comp : components) {
                 if (comp instanceof JTextField) {
@@ -89,13 +93,11 @@ public class ProcessDetailsDialog extends JDialog {
             fields[0].setText(process.getName());
             fields[1].setText(process.getPath()); // Ruta del ejecutable
             fields[2].setText(String.valueOf(process.getProcessID()));
-            fields[3].setText(String.valueOf(process.getParentProcessID()));
-            double cpuLoad = process.getProcessCpuLoadCumulative();
-            double cpuPercentValue = Math.min(cpuLoad * 100, 100.0); // Cap at 100%
-            fields[4].setText(String.format("%.2f%%", cpuPercentValue));
+            fields[4].setText(formatCpu());
             fields[5].setText(formatBytes(process.getResidentSetSize()));
             fields[6].setText(formatStartTime(process.getStartTime()));
             fields[7].setText(process.getState().name());
+            fillTreeFields(fields, process.getParentProcessID());
 
             logger.info("Detalles del proceso cargados para PID: " + pid);
         } else {
@@ -104,6 +106,48 @@ public class ProcessDetailsDialog extends JDialog {
         }
     }
 
+    /**
+     * CPU del ultimo intervalo y suavizado, tomados de la ultima foto del hub
+     */
+    private String formatCpu() {
+        ProcessSnapshot processes = kernelManager.getMetricsHub().acquireLastProcesses();
+        if (processes == null) return "N/A";
+        try {
+            int index = processes.indexOf(pid);
+            if (index < 0) return "N/A";
+            return String.format("%.2f%% (promedio %.2f%%)",
+                    processes.getCpuPercent(index), processes.getSmoothedCpuPercent(index));
+        } finally {
+            processes.release();
+        }
+    }
+
+    /**
+     * Padre con su nombre y los totales del subarbol, de la ultima foto del hub
+     */
+    private void fillTreeFields(JTextField[] fields, int parentPid) {
+        fields[3].setText(String.valueOf(parentPid));
+        for (int k = 8; k < fields.length; k++) {
+            fields[k].setText("N/A");
+        }
+        ProcessSnapshot processes = kernelManager.getMetricsHub().acquireLastProcesses();
+        if (processes == null) return;
+        try {
+            int index = processes.indexOf(pid);
+            if (index < 0) return;
+            int parent = processes.getParentIndex(index);
+            if (parent >= 0) {
+                fields[3].setText(parentPid + " (" + processes.getName(parent) + ")");
+            }
+            fields[8].setText(String.valueOf(processes.getSubtreeSize(index) - 1));
+            fields[9].setText(String.format("%.2f%%", processes.getSubtreeCpuPercent(index)));
+            fields[10].setText(formatBytes(processes.getSubtreeResidentSetSize(index)));
+            fields[11].setText(String.valueOf(processes.getSubtreeThreadCount(index)));
+        } finally {
+            processes.release();
+        }
+    }
+
     private String formatBytes(long bytes) {
         if (bytes < 1024) return bytes + " B";
         int exp = (int) (Math.log(bytes) / Math.log(1024));
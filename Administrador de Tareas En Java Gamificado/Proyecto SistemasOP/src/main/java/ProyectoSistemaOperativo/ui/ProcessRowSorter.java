@@ -0,0 +1,75 @@
+package ProyectoSistemaOperativo.ui;
+
+import javax.swing.DefaultRowSorter;
+import javax.swing.table.TableRowSorter;
+import java.util.Comparator;
+
+/**
+ * Sorter de la tabla de procesos que ordena las columnas numericas comparando
+ * primitivos. Para esas columnas el sorter no ve el valor de la celda sino el
+ * indice de fila (un Integer ya creado) y el comparador lee el double o long
+ * directamente del modelo: ordenar no parsea Strings ni encajona valores.
+ */
+class ProcessRowSorter extends TableRowSorter<ProcessTableModel> {
+
+    ProcessRowSorter(ProcessTableModel model) {
+        super(model);
+        setModelWrapper(new IndexWrapper(model));
+        setComparator(ProcessTableModel.COL_PID,
+                (Comparator<Integer>) (a, b) -> Integer.compare(model.getPidAt(a), model.getPidAt(b)));
+        setComparator(ProcessTableModel.COL_CPU,
+                (Comparator<Integer>) (a, b) -> Double.compare(model.getCpuAt(a), model.getCpuAt(b)));
+        setComparator(ProcessTableModel.COL_MEMORY,
+                (Comparator<Integer>) (a, b) -> Long.compare(model.getMemoryAt(a), model.getMemoryAt(b)));
+        setComparator(ProcessTableModel.COL_IO,
+                (Comparator<Integer>) (a, b) -> Long.compare(model.getIoAt(a), model.getIoAt(b)));
+        // con comparaciones baratas se puede mantener el orden cuando cambian los valores
+        setSortsOnUpdates(true);
+    }
+
+    private static boolean isNumeric(int column) {
+        return column == ProcessTableModel.COL_PID
+                || column == ProcessTableModel.COL_CPU
+                || column == ProcessTableModel.COL_MEMORY
+                || column == ProcessTableModel.COL_IO;
+    }
+
+    private static final class IndexWrapper extends DefaultRowSorter.ModelWrapper<ProcessTableModel, Integer> {
+        private final ProcessTableModel model;
+
+        IndexWrapper(ProcessTableModel model) {
+            this.model = model;
+        }
+
+        @Override
+        public ProcessTableModel getModel() {
+            return model;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return model.getColumnCount();
+        }
+
+        @Override
+        public int getRowCount() {
+            return model.getRowCount();
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            return isNumeric(column) ? model.getRowIndex(row) : model.getValueAt(row, column);
+        }
+
+        @Override
+        public String getStringValueAt(int row, int column) {
+            Object value = model.getValueAt(row, column);
+            return value == null ? "" : value.toString();
+        }
+
+        @Override
+        public Integer getIdentifier(int row) {
+            return model.getRowIndex(row);
+        }
+    }
+}
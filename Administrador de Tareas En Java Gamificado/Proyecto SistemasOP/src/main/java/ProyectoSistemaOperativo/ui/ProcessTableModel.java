@@ -0,0 +1,328 @@
+package ProyectoSistemaOperativo.ui;
+
+import ProyectoSistemaOperativo.kernel.ProcessClassifier;
+import ProyectoSistemaOperativo.kernel.ProcessSnapshot;
+
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntFunction;
+
+/**
+ * Modelo de la tabla de procesos indexado por PID.
+ * En cada foto calcula la diferencia contra la anterior y solo dispara
+ * eventos de filas insertadas, actualizadas o borradas. Las filas que no
+ * cambiaron no cuestan nada y la seleccion se mantiene sola.
+ *
+ * Las columnas Nivel, Ataque, Vida y E/S guardan numeros (Integer, Double, Long);
+ * el texto lo arma el renderer al pintar. Los valores se encajonan una sola vez
+ * cuando cambian, asi getValueAt no reserva memoria en cada repintado.
+ *
+ * Tambien puede mostrar solo algunas filas de la foto (por ejemplo el top de
+ * consumidores o los que pasan la busqueda): entonces el modelo tiene esas k filas
+ * y no las n de la foto.
+ *
+ * La ruta y la linea de comandos no vienen en la foto; se piden al cargador la primera
+ * vez que se consultan para una fila y quedan guardadas mientras sea el mismo proceso.
+ * El cargador lee fuera del EDT; cuando llega la respuesta se avisa con una fila actualizada.
+ */
+class ProcessTableModel extends AbstractTableModel {
+    static final int COL_PID = 0;
+    static final int COL_NAME = 1;
+    static final int COL_CPU = 2;
+    static final int COL_MEMORY = 3;
+    static final int COL_STATE = 4;
+    static final int COL_TYPE = 5;
+    static final int COL_IO = 6;
+
+    private static final String[] COLUMNS = {"Nivel", "Criatura", "Ataque", "Vida", "Estado", "Clase", "E/S"};
+
+    private final ProcessClassifier classifier;
+    private final IntFunction<CompletableFuture<String>> commandLoader;
+    // Filas ordenadas por PID, igual que la foto, para poder hacer un merge lineal
+    private final List<Row> rows = new ArrayList<>();
+    // Indices de fila ya encajonados que usa ProcessRowSorter para comparar sin boxing
+    private Integer[] rowIndices = new Integer[0];
+
+    /**
+     * commandLoader recibe un PID y completa con su ruta y linea de comandos, o null si no
+     * se conocen; no debe leer en el hilo que lo llama (el EDT)
+     */
+    ProcessTableModel(ProcessClassifier classifier, IntFunction<CompletableFuture<String>> commandLoader) {
+        this.classifier = classifier;
+        this.commandLoader = commandLoader;
+    }
+
+    /**
+     * Datos de una fila, los valores encajonados se recalculan solo si cambia el valor crudo
+     */
+    private final class Row {
+        final int pid;
+        final Integer pidValue;
+        long startTime;
+        int nameId = -1;
+        int generation = -1;
+        String creatureName;
+        String type;
+        double cpuPercent = -1;
+        Double cpuValue;
+        long memory = -1;
+        Long memoryValue;
+        byte state = -1;
+        String stateText;
+        long ioRate = Long.MIN_VALUE;
+        Long ioValue;
+        // se carga recien cuando alguien la pide, ver getCommandAt
+        String command;
+        boolean commandRequested;
+        boolean commandLoaded;
+        // sube al cambiar de proceso, una respuesta con otro valor es del proceso anterior
+        int commandRequest;
+
+        Row(int pid) {
+            this.pid = pid;
+            this.pidValue = pid;
+        }
+
+        /**
+         * Copia los valores de la fila i de la foto, devuelve true si algo visible cambio
+         */
+        boolean update(ProcessSnapshot snapshot, int i) {
+            boolean changed = false;
+            int newNameId = snapshot.getNameId(i);
+            int currentGeneration = classifier.getGeneration();
+            if (startTime != snapshot.getStartTime(i) || newNameId != nameId || generation != currentGeneration) {
+                // PID reutilizado, exec de otro binario o reglas recargadas: se reclasifica
+                startTime = snapshot.getStartTime(i);
+                nameId = newNameId;
+                generation = currentGeneration;
+                creatureName = classifier.getCreatureName(newNameId);
+                type = classifier.getProcessClass(pid, newNameId);
+                command = null;
+                commandRequested = false;
+                commandLoaded = false;
+                commandRequest++;
+                changed = true;
+            }
+            double cpu = snapshot.getCpuPercent(i);
+            // se compara con la precision que se muestra para no repintar por ruido
+            if (Math.round(cpu * 10) != Math.round(cpuPercent * 10)) {
+                cpuPercent = cpu;
+                cpuValue = cpu;
+                changed = true;
+            }
+            long rss = snapshot.getResidentSetSize(i);
+            if (rss != memory) {
+                memory = rss;
+                memoryValue = rss;
+                changed = true;
+            }
+            byte newState = snapshot.getStateCode(i);
+            if (newState != state) {
+                state = newState;
+                stateText = ProcessSnapshot.stateOf(newState).name();
+                changed = true;
+            }
+            // bytes por segundo enteros, -1 si no se conoce
+            long io = (long) snapshot.getIoBytesPerSec(i);
+            if (io != ioRate) {
+                ioRate = io;
+                ioValue = io;
+                changed = true;
+            }
+            return changed;
+        }
+    }
+
+    /**
+     * Aplica una foto nueva, se llama en el EDT.
+     * La foto y las filas estan ordenadas por PID asi que la diferencia sale en una pasada.
+     */
+    void applySnapshot(ProcessSnapshot snapshot) {
+        applyRows(snapshot, null, snapshot.size());
+    }
+
+    /**
+     * Muestra solo las filas de la foto que estan en indices, que deben venir en orden
+     * creciente (es decir por PID). El resto de las filas del modelo se borran.
+     */
+    void applySnapshot(ProcessSnapshot snapshot, int[] indices, int count) {
+        applyRows(snapshot, indices, count);
+    }
+
+    private void applyRows(ProcessSnapshot snapshot, int[] indices, int n) {
+        int i = 0; // indice en rows
+        int j = 0; // indice en las filas a mostrar
+        while (i < rows.size() || j < n) {
+            Row row = i < rows.size() ? rows.get(i) : null;
+            int pid = j < n ? snapshot.getPid(row(indices, j)) : Integer.MAX_VALUE;
+            if (j == n || (row != null && row.pid < pid)) {
+                // el proceso ya no existe, se borra un bloque contiguo de una vez
+                int end = i;
+                while (end + 1 < rows.size() && rows.get(end + 1).pid < pid) {
+                    end++;
+                }
+                rows.subList(i, end + 1).clear();
+                fireTableRowsDeleted(i, end);
+            } else if (row == null || pid < row.pid) {
+                // proceso nuevo, se insertan juntos los que caen en el mismo hueco
+                int start = i;
+                while (j < n && (row == null || snapshot.getPid(row(indices, j)) < row.pid)) {
+                    int index = row(indices, j);
+                    Row inserted = new Row(snapshot.getPid(index));
+                    inserted.update(snapshot, index);
+                    rows.add(i++, inserted);
+                    j++;
+                }
+                fireTableRowsInserted(start, i - 1);
+            } else {
+                if (row.update(snapshot, row(indices, j))) {
+                    fireTableRowsUpdated(i, i);
+                }
+                i++;
+                j++;
+            }
+        }
+    }
+
+    private static int row(int[] indices, int j) {
+        return indices == null ? j : indices[j];
+    }
+
+    int getPidAt(int modelRow) {
+        return rows.get(modelRow).pid;
+    }
+
+    int getNameIdAt(int modelRow) {
+        return rows.get(modelRow).nameId;
+    }
+
+    /**
+     * Ruta y linea de comandos de la fila, null si no se conocen o si todavia no llegaron
+     * (ver {@link #isCommandLoaded(int)}). La primera consulta la pide al cargador.
+     */
+    String getCommandAt(int modelRow) {
+        Row row = rows.get(modelRow);
+        if (!row.commandRequested) {
+            row.commandRequested = true;
+            int request = row.commandRequest;
+            commandLoader.apply(row.pid).whenComplete((command, error) ->
+                    SwingUtilities.invokeLater(() -> commandArrived(row, request, error == null ? command : null)));
+        }
+        return row.command;
+    }
+
+    boolean isCommandLoaded(int modelRow) {
+        return rows.get(modelRow).commandLoaded;
+    }
+
+    /**
+     * Llego la respuesta del cargador; se descarta si la fila ya es otro proceso o ya no esta
+     */
+    private void commandArrived(Row row, int request, String command) {
+        if (row.commandRequest != request) {
+            return;
+        }
+        row.command = command;
+        row.commandLoaded = true;
+        int index = indexOfPid(row.pid);
+        if (index >= 0 && rows.get(index) == row) {
+            fireTableRowsUpdated(index, index);
+        }
+    }
+
+    /**
+     * Busqueda binaria, las filas estan ordenadas por PID
+     */
+    private int indexOfPid(int pid) {
+        int low = 0;
+        int high = rows.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midPid = rows.get(mid).pid;
+            if (midPid < pid) {
+                low = mid + 1;
+            } else if (midPid > pid) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    double getCpuAt(int modelRow) {
+        return rows.get(modelRow).cpuPercent;
+    }
+
+    long getMemoryAt(int modelRow) {
+        return rows.get(modelRow).memory;
+    }
+
+    long getIoAt(int modelRow) {
+        return rows.get(modelRow).ioRate;
+    }
+
+    /**
+     * El indice de fila como Integer ya creado, no reserva memoria
+     */
+    Integer getRowIndex(int modelRow) {
+        if (rowIndices.length <= modelRow) {
+            Integer[] grown = new Integer[Math.max(modelRow + 1, rowIndices.length * 2)];
+            System.arraycopy(rowIndices, 0, grown, 0, rowIndices.length);
+            for (int k = rowIndices.length; k < grown.length; k++) {
+                grown[k] = k;
+            }
+            rowIndices = grown;
+        }
+        return rowIndices[modelRow];
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        switch (column) {
+            case COL_PID: return Integer.class;
+            case COL_CPU: return Double.class;
+            case COL_MEMORY: return Long.class;
+            case COL_IO: return Long.class;
+            default: return String.class;
+        }
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int column) {
+        Row row = rows.get(rowIndex);
+        switch (column) {
+            case COL_PID: return row.pidValue; // Nivel
+            case COL_NAME: return row.creatureName; // Criatura
+            case COL_CPU: return row.cpuValue; // Ataque
+            case COL_MEMORY: return row.memoryValue; // Vida
+            case COL_STATE: return row.stateText; // Estado
+            case COL_TYPE: return row.type; // Clase
+            case COL_IO: return row.ioValue; // E/S
+            default: return null;
+        }
+    }
+}
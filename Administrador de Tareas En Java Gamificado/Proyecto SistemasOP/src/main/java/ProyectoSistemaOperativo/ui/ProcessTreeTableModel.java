@@ -0,0 +1,307 @@
+package ProyectoSistemaOperativo.ui;
+
+import ProyectoSistemaOperativo.kernel.ProcessClassifier;
+import ProyectoSistemaOperativo.kernel.ProcessSnapshot;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Modelo de la vista de arbol. Solo tiene las filas visibles: las raices y los hijos
+ * de los nodos expandidos. Se recorre el preorden de la foto y cada nodo colapsado se
+ * salta entero con el tamaño de su subarbol, asi el costo depende de lo que se ve y
+ * no de la cantidad de procesos.
+ *
+ * Las columnas de totales son del subarbol completo aunque este colapsado. Guarda la
+ * ultima foto retenida para poder expandir o colapsar sin esperar al siguiente tick.
+ * Se usa solo en el EDT.
+ */
+class ProcessTreeTableModel extends AbstractTableModel {
+    static final int COL_TREE = 0;
+    static final int COL_PID = 1;
+    static final int COL_CPU = 2;
+    static final int COL_TREE_CPU = 3;
+    static final int COL_TREE_MEMORY = 4;
+    static final int COL_TREE_THREADS = 5;
+    static final int COL_DESCENDANTS = 6;
+
+    private static final String[] COLUMNS = {
+            "Criatura", "Nivel", "Ataque", "Ataque del clan", "Vida del clan", "Hilos del clan", "Descendientes"
+    };
+
+    private final ProcessClassifier classifier;
+    // por PID; un PID reutilizado hereda el estado, no hace daño
+    private final BitSet expanded = new BitSet();
+    private final List<Row> rows = new ArrayList<>();
+    private ProcessSnapshot snapshot;
+    private boolean rootsExpanded;
+
+    ProcessTreeTableModel(ProcessClassifier classifier) {
+        this.classifier = classifier;
+    }
+
+    /**
+     * Datos de una fila visible, los valores encajonados se recalculan solo si cambia el valor crudo
+     */
+    private final class Row {
+        int pid = -1;
+        int depth;
+        boolean hasChildren;
+        boolean open;
+        int nameId = -1;
+        int generation = -1;
+        String label;
+        Integer pidValue;
+        double cpu = -1;
+        Double cpuValue;
+        double treeCpu = -1;
+        Double treeCpuValue;
+        long treeMemory = -1;
+        Long treeMemoryValue;
+        int treeThreads = -1;
+        Integer treeThreadsValue;
+        int descendants = -1;
+        Integer descendantsValue;
+
+        /**
+         * Copia el proceso i de la foto, devuelve true si algo visible cambio
+         */
+        boolean update(ProcessSnapshot snapshot, int i) {
+            boolean changed = false;
+            int pid = snapshot.getPid(i);
+            boolean children = snapshot.getFirstChild(i) >= 0;
+            boolean isOpen = children && expanded.get(pid);
+            int newNameId = snapshot.getNameId(i);
+            int currentGeneration = classifier.getGeneration();
+            if (pid != this.pid || children != hasChildren || isOpen != open || newNameId != nameId
+                    || generation != currentGeneration) {
+                this.pid = pid;
+                pidValue = pid;
+                hasChildren = children;
+                open = isOpen;
+                nameId = newNameId;
+                generation = currentGeneration;
+                label = (children ? (isOpen ? "▾ " : "▸ ") : "   ") + classifier.getCreatureName(newNameId);
+                changed = true;
+            }
+            depth = snapshot.getTreeDepth(i);
+            double newCpu = snapshot.getCpuPercent(i);
+            if (Math.round(newCpu * 10) != Math.round(cpu * 10)) {
+                cpu = newCpu;
+                cpuValue = newCpu;
+                changed = true;
+            }
+            double newTreeCpu = snapshot.getSubtreeCpuPercent(i);
+            if (Math.round(newTreeCpu * 10) != Math.round(treeCpu * 10)) {
+                treeCpu = newTreeCpu;
+                treeCpuValue = newTreeCpu;
+                changed = true;
+            }
+            long newTreeMemory = snapshot.getSubtreeResidentSetSize(i);
+            if (newTreeMemory != treeMemory) {
+                treeMemory = newTreeMemory;
+                treeMemoryValue = newTreeMemory;
+                changed = true;
+            }
+            int newTreeThreads = snapshot.getSubtreeThreadCount(i);
+            if (newTreeThreads != treeThreads) {
+                treeThreads = newTreeThreads;
+                treeThreadsValue = newTreeThreads;
+                changed = true;
+            }
+            int newDescendants = snapshot.getSubtreeSize(i) - 1;
+            if (newDescendants != descendants) {
+                descendants = newDescendants;
+                descendantsValue = newDescendants;
+                changed = true;
+            }
+            return changed;
+        }
+    }
+
+    /**
+     * Aplica una foto nueva. Si las filas visibles son los mismos procesos en el mismo
+     * orden solo se avisan las que cambiaron y la seleccion se mantiene.
+     */
+    void applySnapshot(ProcessSnapshot newSnapshot) {
+        newSnapshot.retain();
+        if (snapshot != null) {
+            snapshot.release();
+        }
+        snapshot = newSnapshot;
+        if (!rootsExpanded) {
+            // la primera vez se abren las raices para que se vea el primer nivel
+            for (int i = 0; i < newSnapshot.size(); i++) {
+                if (newSnapshot.getParentIndex(i) < 0) {
+                    expanded.set(newSnapshot.getPid(i));
+                }
+            }
+            rootsExpanded = true;
+        }
+        rebuild();
+    }
+
+    /**
+     * Suelta la foto retenida, por ejemplo al cerrar la ventana
+     */
+    void clear() {
+        if (snapshot != null) {
+            snapshot.release();
+            snapshot = null;
+        }
+        if (!rows.isEmpty()) {
+            rows.clear();
+            fireTableDataChanged();
+        }
+    }
+
+    /**
+     * Expande o colapsa el nodo de la fila. Devuelve false si la fila no tiene hijos.
+     */
+    boolean toggle(int modelRow) {
+        Row row = rows.get(modelRow);
+        if (!row.hasChildren) {
+            return false;
+        }
+        expanded.set(row.pid, !row.open);
+        rebuild();
+        return true;
+    }
+
+    /**
+     * Expande el nodo de la fila si tiene hijos y esta cerrado, o lo colapsa si esta abierto
+     */
+    void setExpanded(int modelRow, boolean open) {
+        Row row = rows.get(modelRow);
+        if (row.hasChildren && row.open != open) {
+            toggle(modelRow);
+        }
+    }
+
+    void expandAll() {
+        if (snapshot == null) {
+            return;
+        }
+        for (int i = 0; i < snapshot.size(); i++) {
+            if (snapshot.getFirstChild(i) >= 0) {
+                expanded.set(snapshot.getPid(i));
+            }
+        }
+        rebuild();
+    }
+
+    void collapseAll() {
+        expanded.clear();
+        rebuild();
+    }
+
+    private void rebuild() {
+        if (snapshot == null) {
+            return;
+        }
+        int n = snapshot.size();
+        int count = 0;
+        boolean sameRows = true;
+        int position = 0;
+        while (position < n) {
+            int i = snapshot.getTreeOrder(position);
+            int pid = snapshot.getPid(i);
+            boolean open = snapshot.getFirstChild(i) >= 0 && expanded.get(pid);
+            // un nodo cerrado se salta con todo su subarbol
+            position += open ? 1 : snapshot.getSubtreeSize(i);
+            if (count == rows.size()) {
+                rows.add(new Row());
+                sameRows = false;
+            } else if (rows.get(count).pid != pid) {
+                sameRows = false;
+            }
+            Row row = rows.get(count);
+            boolean changed = row.update(snapshot, i);
+            if (sameRows && changed) {
+                fireTableRowsUpdated(count, count);
+            }
+            count++;
+        }
+        if (count < rows.size()) {
+            rows.subList(count, rows.size()).clear();
+            sameRows = false;
+        }
+        if (!sameRows) {
+            fireTableDataChanged();
+        }
+    }
+
+    int getPidAt(int modelRow) {
+        return rows.get(modelRow).pid;
+    }
+
+    int getDepthAt(int modelRow) {
+        return rows.get(modelRow).depth;
+    }
+
+    /**
+     * Fila visible del proceso, -1 si esta dentro de un nodo colapsado o ya no existe
+     */
+    int rowOf(int pid) {
+        for (int k = 0; k < rows.size(); k++) {
+            if (rows.get(k).pid == pid) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        switch (column) {
+            case COL_PID:
+            case COL_TREE_THREADS:
+            case COL_DESCENDANTS:
+                return Integer.class;
+            case COL_CPU:
+            case COL_TREE_CPU:
+                return Double.class;
+            case COL_TREE_MEMORY:
+                return Long.class;
+            default:
+                return String.class;
+        }
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int column) {
+        Row row = rows.get(rowIndex);
+        switch (column) {
+            case COL_TREE: return row.label;
+            case COL_PID: return row.pidValue;
+            case COL_CPU: return row.cpuValue;
+            case COL_TREE_CPU: return row.treeCpuValue;
+            case COL_TREE_MEMORY: return row.treeMemoryValue;
+            case COL_TREE_THREADS: return row.treeThreadsValue;
+            case COL_DESCENDANTS: return row.descendantsValue;
+            default: return null;
+        }
+    }
+}
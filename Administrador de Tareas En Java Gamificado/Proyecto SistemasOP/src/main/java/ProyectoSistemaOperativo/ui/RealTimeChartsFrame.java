@@ -1,6 +1,14 @@
 package ProyectoSistemaOperativo.ui;
 
 import ProyectoSistemaOperativo.kernel.KernelManager;
+import ProyectoSistemaOperativo.kernel.MetricsHistory;
+import ProyectoSistemaOperativo.kernel.MetricsHub;
+import ProyectoSistemaOperativo.kernel.ProcessSampler;
+import ProyectoSistemaOperativo.kernel.ProcessSnapshot;
+import ProyectoSistemaOperativo.kernel.SelfMetrics;
+import ProyectoSistemaOperativo.kernel.SystemSnapshot;
+import ProyectoSistemaOperativo.kernel.TopConsumers;
+import ProyectoSistemaOperativo.kernel.WatchedSample;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jfree.chart.ChartFactory;
@@ -8,45 +16,125 @@ import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
 import org.jfree.chart.axis.ValueAxis;
 import org.jfree.chart.plot.XYPlot;
-import org.jfree.data.time.Millisecond;
-import org.jfree.data.time.TimeSeries;
-import org.jfree.data.time.TimeSeriesCollection;
-import oshi.SystemInfo;
-import oshi.hardware.CentralProcessor;
-import oshi.hardware.GlobalMemory;
 import oshi.software.os.OSProcess;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.Date;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntToDoubleFunction;
 
 /**
  * Ventana de Gráficos en Tiempo Real - MÓDULO 6
  * Muestra gráficos similares al "Performance Graph" del Task Manager
+ * Los datos llegan del hub de metricas compartido, no hay Timer propio.
+ * Los graficos leen la historia del hub, asi al abrir la ventana o elegir otro
+ * proceso ya se ve todo lo registrado desde que arranco la aplicacion.
+ *
+ * En el ultimo minuto se usan graficos de tira ({@link StripChart}) que avanzan 10 veces
+ * por segundo con el ultimo valor conocido de cada serie y solo dibujan la franja nueva;
+ * ademas hay uno con las criaturas que mas CPU usan superpuestas. Las ventanas largas
+ * siguen con JFreeChart, y con -Dgraficos.jfreechart=true se usa JFreeChart siempre.
  */
-public class RealTimeChartsFrame extends JFrame {
+public class RealTimeChartsFrame extends JFrame implements PropertyChangeListener {
     private static final Logger logger = LogManager.getLogger(RealTimeChartsFrame.class);
+    private static final boolean FORCE_JFREECHART = Boolean.getBoolean("graficos.jfreechart");
+    // 10 columnas por segundo, 600 columnas son el ultimo minuto
+    private static final int LIVE_RATE_MS = 100;
+    private static final int LIVE_COLUMNS = 600;
+    private static final int LIVE_STEP = 2;
+    private static final int TOP_PROCESSES = 24;
+    // un valor mas viejo que esto ya no se repite en el grafico en vivo, queda un hueco
+    private static final long MAX_HOLD_MS = ProcessSampler.MAX_INTERVAL_MS;
+    private static final String CARD_LIVE = "vivo";
+    private static final String CARD_HISTORY = "historia";
     private KernelManager kernelManager;
-    private Timer updateTimer;
 
-    // Series de datos para los gráficos
-    private TimeSeries cpuSeries;
-    private TimeSeries memorySeries;
-    private TimeSeries processCpuSeries;
+    /**
+     * Ventana de tiempo a mostrar y resolucion de la historia que se usa para el sistema y los procesos
+     */
+    enum TimeWindow {
+        LAST_MINUTE("Último minuto", 60_000L, MetricsHistory.Resolution.RAW, MetricsHistory.Resolution.RAW),
+        LAST_5_MINUTES("Últimos 5 minutos", 300_000L, MetricsHistory.Resolution.RAW, MetricsHistory.Resolution.RAW),
+        LAST_HOUR("Última hora", 3_600_000L, MetricsHistory.Resolution.MINUTE, MetricsHistory.Resolution.MINUTE),
+        LAST_DAY("Últimas 24 horas", 86_400_000L, MetricsHistory.Resolution.MINUTE, MetricsHistory.Resolution.HOUR);
+
+        final String label;
+        final long spanMs;
+        final MetricsHistory.Resolution systemResolution;
+        final MetricsHistory.Resolution processResolution;
+
+        TimeWindow(String label, long spanMs, MetricsHistory.Resolution systemResolution, MetricsHistory.Resolution processResolution) {
+            this.label = label;
+            this.spanMs = spanMs;
+            this.systemResolution = systemResolution;
+            this.processResolution = processResolution;
+        }
 
-    // Componentes de OSHI
-    private SystemInfo systemInfo;
-    private CentralProcessor processor;
-    private GlobalMemory memory;
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    // Datos de los gráficos, se copian de la historia en cada tick
+    private final HistoryDataset cpuDataset = new HistoryDataset("CPU %", HistoryDataset.Metric.CPU);
+    private final HistoryDataset memoryDataset = new HistoryDataset("RAM %", HistoryDataset.Metric.MEMORY_PERCENT);
+    private final HistoryDataset processCpuDataset = new HistoryDataset("CPU Proceso %", HistoryDataset.Metric.CPU);
+    private TimeWindow timeWindow = TimeWindow.LAST_MINUTE;
+
+    // Graficos en vivo; solo se tocan en el EDT
+    private final StripChart cpuStrip = new StripChart("Poder de Ataque del Reino (último minuto)", 0, 100, LIVE_STEP, LIVE_COLUMNS);
+    private final StripChart memoryStrip = new StripChart("Uso de Memoria RAM (último minuto)", 0, 100, LIVE_STEP, LIVE_COLUMNS);
+    private final StripChart processStrip = new StripChart("Poder de Ataque de la Criatura Seleccionada", 0, 100, LIVE_STEP, LIVE_COLUMNS);
+    private final StripChart topStrip = new StripChart("Criaturas más fuertes (CPU)", 0, 100, LIVE_STEP, LIVE_COLUMNS);
+    private final List<JPanel> cardPanels = new ArrayList<>();
+    private final Timer liveTimer = new Timer(LIVE_RATE_MS, e -> pushLive());
+    private final double[] liveRow = new double[1];
+    private final double[] backfill = new double[LIVE_COLUMNS];
+    private long[] historyTimes = new long[0];
+    private float[] historyCpu = new float[0];
+    private long[] historyBytes = new long[0];
+    // CPU de la criatura seleccionada: la ultima foto o la ultima lectura rapida, lo que sea mas nuevo
+    private double selectedCpu = Double.NaN;
+    // Criaturas del grafico superpuesto: cada serie tiene un PID (-1 libre) y su ultimo valor
+    private final TopConsumers topConsumers = new TopConsumers(TOP_PROCESSES);
+    private final int[] topRows = new int[TOP_PROCESSES];
+    private final int[] topPids = new int[TOP_PROCESSES];
+    private final double[] topValues = new double[TOP_PROCESSES];
 
     // ID del proceso seleccionado
-    private int selectedPid = -1;
+    private volatile int selectedPid = -1;
+
+    private JLabel samplingLabel;
+    private JLabel watchLabel;
+    private SamplingDemand samplingDemand;
+    private final SelfMetrics metrics;
+    // hay un refresco encolado en el EDT; los ticks que llegan mientras tanto no encolan otro
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
+    // Lecturas rapidas del proceso seleccionado, llegan entre los ticks
+    private final PropertyChangeListener watchListener = evt -> {
+        WatchedSample sample = (WatchedSample) evt.getNewValue();
+        SwingUtilities.invokeLater(() -> showWatched(sample));
+    };
 
     public RealTimeChartsFrame(KernelManager kernelManager) {
         this.kernelManager = kernelManager;
-        this.systemInfo = new SystemInfo();
-        this.processor = systemInfo.getHardware().getProcessor();
-        this.memory = systemInfo.getHardware().getMemory();
+        this.metrics = kernelManager.getMetricsHub().getSelfMetrics();
+        for (StripChart strip : new StripChart[]{cpuStrip, memoryStrip, processStrip}) {
+            strip.setSeriesCount(1);
+            strip.setUnit("%");
+        }
+        cpuStrip.setSeriesLabel(0, "CPU");
+        memoryStrip.setSeriesLabel(0, "RAM");
+        topStrip.setSeriesCount(TOP_PROCESSES);
+        topStrip.setUnit("%");
+        Arrays.fill(topPids, -1);
+        Arrays.fill(topValues, Double.NaN);
 
         setTitle("Gráficos en Tiempo Real");
         setSize(800, 600);
@@ -61,10 +149,17 @@ public class RealTimeChartsFrame extends JFrame {
 
     public void setSelectedProcess(int pid) {
         this.selectedPid = pid;
+        selectedCpu = Double.NaN;
+        watchLabel.setText(" ");
+        processStrip.setSeriesLabel(0, pid != -1 ? "PID " + pid : null);
+        updateWatch();
+        backfillProcess();
+        refreshCharts();
         if (pid != -1) {
             OSProcess process = kernelManager.getProcessById(pid);
             if (process != null) {
                 setTitle("Gráficos en Tiempo Real - Proceso: " + process.getName() + " (PID: " + pid + ")");
+                processStrip.setSeriesLabel(0, process.getName() + " (" + pid + ")");
             }
         } else {
             setTitle("Gráficos en Tiempo Real");
@@ -79,39 +174,71 @@ public class RealTimeChartsFrame extends JFrame {
 
         // Gráfico de CPU General
         JPanel cpuPanel = createCpuChartPanel();
-        tabbedPane.addTab("Poder del Reino", cpuPanel);
+        tabbedPane.addTab("Poder del Reino", createCards(cpuStrip, cpuPanel));
 
         // Gráfico de RAM General
         JPanel memoryPanel = createMemoryChartPanel();
-        tabbedPane.addTab("Energía Vital", memoryPanel);
+        tabbedPane.addTab("Energía Vital", createCards(memoryStrip, memoryPanel));
 
         // Gráfico de CPU por Proceso
         JPanel processCpuPanel = createProcessCpuChartPanel();
-        tabbedPane.addTab("Poder de Criatura", processCpuPanel);
+        tabbedPane.addTab("Poder de Criatura", createCards(processStrip, processCpuPanel));
+
+        // Las que mas CPU usan, superpuestas; solo existe en vivo
+        if (!FORCE_JFREECHART) {
+            tabbedPane.addTab("Criaturas más Fuertes", topStrip);
+        }
+        showCards();
 
         add(tabbedPane, BorderLayout.CENTER);
 
         // Panel de botones
         JPanel buttonPanel = new JPanel(new FlowLayout());
         buttonPanel.setBackground(new Color(20, 20, 40)); // Fondo oscuro
+        JComboBox<TimeWindow> windowComboBox = new JComboBox<>(TimeWindow.values());
+        windowComboBox.setBackground(new Color(50, 50, 70));
+        windowComboBox.setForeground(Color.WHITE);
+        windowComboBox.addActionListener(e -> {
+            boolean wasLive = isLive();
+            timeWindow = (TimeWindow) windowComboBox.getSelectedItem();
+            showCards();
+            if (isLive() && !wasLive) {
+                backfillSystem();
+                backfillProcess();
+            }
+            updateLiveTimer();
+            refreshCharts();
+        });
+        JLabel windowLabel = new JLabel("Ventana:");
+        windowLabel.setForeground(Color.WHITE);
+        buttonPanel.add(windowLabel);
+        buttonPanel.add(windowComboBox);
         JButton closeButton = new JButton("Cerrar");
         closeButton.setBackground(new Color(100, 50, 50)); // Rojo oscuro
         closeButton.setForeground(Color.WHITE);
         closeButton.addActionListener(e -> dispose());
         buttonPanel.add(closeButton);
 
-        add(buttonPanel, BorderLayout.SOUTH);
+        watchLabel = new JLabel(" ");
+        watchLabel.setForeground(Color.WHITE);
+        samplingLabel = new JLabel(" ");
+        samplingLabel.setForeground(Color.LIGHT_GRAY);
+        JPanel statusPanel = new JPanel(new GridLayout(2, 1));
+        statusPanel.setBackground(new Color(20, 20, 40));
+        statusPanel.add(watchLabel);
+        statusPanel.add(samplingLabel);
+        JPanel southPanel = new JPanel(new BorderLayout());
+        southPanel.add(buttonPanel, BorderLayout.CENTER);
+        southPanel.add(statusPanel, BorderLayout.SOUTH);
+        add(southPanel, BorderLayout.SOUTH);
     }
 
     private JPanel createCpuChartPanel() {
-        cpuSeries = new TimeSeries("CPU %");
-        TimeSeriesCollection dataset = new TimeSeriesCollection(cpuSeries);
-
         JFreeChart chart = ChartFactory.createTimeSeriesChart(
                 "Poder de Ataque del Reino",
                 "Tiempo",
                 "Porcentaje (%)",
-                dataset,
+                cpuDataset,
                 false,
                 true,
                 false
@@ -128,14 +255,11 @@ public class RealTimeChartsFrame extends JFrame {
     }
 
     private JPanel createMemoryChartPanel() {
-        memorySeries = new TimeSeries("RAM %");
-        TimeSeriesCollection dataset = new TimeSeriesCollection(memorySeries);
-
         JFreeChart chart = ChartFactory.createTimeSeriesChart(
                 "Uso de Memoria RAM",
                 "Tiempo",
                 "Porcentaje (%)",
-                dataset,
+                memoryDataset,
                 false,
                 true,
                 false
@@ -152,14 +276,11 @@ public class RealTimeChartsFrame extends JFrame {
     }
 
     private JPanel createProcessCpuChartPanel() {
-        processCpuSeries = new TimeSeries("CPU Proceso %");
-        TimeSeriesCollection dataset = new TimeSeriesCollection(processCpuSeries);
-
         JFreeChart chart = ChartFactory.createTimeSeriesChart(
                 "Poder de Ataque de la Criatura Seleccionada",
                 "Tiempo",
                 "Porcentaje (%)",
-                dataset,
+                processCpuDataset,
                 false,
                 true,
                 false
@@ -176,58 +297,285 @@ public class RealTimeChartsFrame extends JFrame {
     }
 
     private void startUpdates() {
-        updateTimer = new Timer(1000, e -> updateCharts());
-        updateTimer.start();
+        kernelManager.getMetricsHub().addPropertyChangeListener("system", this);
+        kernelManager.getMetricsHub().addPropertyChangeListener("watched", watchListener);
+        // el proceso elegido solo se lee varias veces por segundo mientras la ventana se ve
+        samplingDemand = new SamplingDemand(kernelManager, this, "graficos", ProcessSampler.DEFAULT_INTERVAL_MS,
+                visible -> {
+                    updateWatch();
+                    updateLiveTimer();
+                });
+        backfillSystem();
+        refreshCharts();
+        updateLiveTimer();
     }
 
-    private void updateCharts() {
-        try {
-            Millisecond now = new Millisecond(new Date());
+    private void updateWatch() {
+        if (selectedPid != -1 && samplingDemand != null && samplingDemand.isVisible()) {
+            kernelManager.watchProcess(selectedPid);
+        } else {
+            kernelManager.unwatchProcess();
+        }
+    }
+
+    /**
+     * Valor en vivo del proceso seleccionado, mas seguido que el grafico
+     */
+    private void showWatched(WatchedSample sample) {
+        if (sample.getPid() != selectedPid) {
+            return;
+        }
+        if (!sample.isAlive()) {
+            selectedCpu = Double.NaN;
+            watchLabel.setText("La criatura " + sample.getPid() + " ya no existe");
+            return;
+        }
+        if (sample.getCpuPercent() >= 0) {
+            selectedCpu = sample.getCpuPercent();
+        }
+        watchLabel.setText(String.format("Criatura %d en vivo (cada %d ms): Ataque %s | Vida %.1f MB | Hilos %d",
+                sample.getPid(), ProcessSampler.WATCH_INTERVAL_MS,
+                sample.getCpuPercent() < 0 ? "-" : String.format("%.1f%%", sample.getCpuPercent()),
+                sample.getResidentSetSize() / (1024.0 * 1024.0), sample.getThreadCount()));
+    }
 
-            // Actualizar CPU General
-            double[] load = processor.getSystemLoadAverage(1);
-            double cpuLoad = Math.min(load[0] * 100, 100.0);
-            cpuSeries.add(now, cpuLoad);
+    @Override
+    public void propertyChange(PropertyChangeEvent evt) {
+        // llega desde el hilo del muestreador; la historia ya tiene la muestra nueva.
+        // El refresco lee la historia entera, asi que uno pendiente ya cubre este tick.
+        if (!refreshPending.compareAndSet(false, true)) {
+            metrics.coalesced();
+            return;
+        }
+        long postedAt = metrics.edtPosted();
+        SwingUtilities.invokeLater(() -> {
+            metrics.edtStarted(postedAt);
+            refreshPending.set(false);
+            refreshCharts();
+        });
+    }
 
-            // Mantener solo los últimos 60 puntos (1 minuto)
-            if (cpuSeries.getItemCount() > 60) {
-                cpuSeries.delete(0, cpuSeries.getItemCount() - 61);
+    /**
+     * Copia de la historia el tramo de la ventana elegida, se llama en el EDT
+     */
+    private void refreshCharts() {
+        long started = System.nanoTime();
+        try {
+            if (isLive()) {
+                // los graficos en vivo avanzan con el Timer, aqui solo se toman los valores del tick
+                updateLiveValues();
+                samplingLabel.setText(SamplingDemand.describe(kernelManager));
+                return;
             }
+            MetricsHistory history = kernelManager.getMetricsHub().getHistory();
+            SystemSnapshot last = kernelManager.getMetricsHub().getLastSnapshot();
+            long now = last != null ? last.getTimestamp() : System.currentTimeMillis();
+            long totalMemory = last != null ? last.getMemoryTotal() : 1;
+            long since = now - timeWindow.spanMs;
+
+            cpuDataset.loadSystem(history, timeWindow.systemResolution, since, totalMemory);
+            memoryDataset.loadSystem(history, timeWindow.systemResolution, since, totalMemory);
+            processCpuDataset.loadProcess(history, selectedPid, timeWindow.processResolution, since);
+            samplingLabel.setText(SamplingDemand.describe(kernelManager));
+        } catch (Exception e) {
+            logger.error("Error actualizando gráficos", e);
+        } finally {
+            metrics.recordChartUpdate(System.nanoTime() - started);
+        }
+    }
+
+    private boolean isLive() {
+        return !FORCE_JFREECHART && timeWindow == TimeWindow.LAST_MINUTE;
+    }
 
-            // Actualizar Memoria
-            long totalMemory = memory.getTotal();
-            long availableMemory = memory.getAvailable();
-            long usedMemory = totalMemory - availableMemory;
-            double memoryPercent = (double) usedMemory / totalMemory * 100;
-            memorySeries.add(now, memoryPercent);
+    /**
+     * Panel con el grafico en vivo y el de JFreeChart, se ve uno u otro segun la ventana de tiempo
+     */
+    private JPanel createCards(StripChart live, JPanel history) {
+        JPanel cards = new JPanel(new CardLayout());
+        cards.add(live, CARD_LIVE);
+        cards.add(history, CARD_HISTORY);
+        cardPanels.add(cards);
+        return cards;
+    }
+
+    private void showCards() {
+        for (JPanel cards : cardPanels) {
+            ((CardLayout) cards.getLayout()).show(cards, isLive() ? CARD_LIVE : CARD_HISTORY);
+        }
+    }
 
-            if (memorySeries.getItemCount() > 60) {
-                memorySeries.delete(0, memorySeries.getItemCount() - 61);
+    /**
+     * El Timer corre solo en vivo y con la ventana a la vista
+     */
+    private void updateLiveTimer() {
+        if (isLive() && samplingDemand != null && samplingDemand.isVisible()) {
+            if (!liveTimer.isRunning()) {
+                liveTimer.start();
             }
+        } else {
+            liveTimer.stop();
+        }
+    }
 
-            // Actualizar CPU del proceso seleccionado
-            if (selectedPid != -1) {
-                OSProcess process = kernelManager.getProcessById(selectedPid);
-                if (process != null) {
-                    double processCpu = process.getProcessCpuLoadCumulative() * 100;
-                    processCpuSeries.add(now, Math.min(processCpu, 100.0));
+    /**
+     * Reloj de los datos: en vivo la hora actual, reproduciendo la de la ultima foto
+     */
+    private long liveNow(SystemSnapshot last) {
+        return kernelManager.isReplaying() && last != null ? last.getTimestamp() : System.currentTimeMillis();
+    }
 
-                    if (processCpuSeries.getItemCount() > 60) {
-                        processCpuSeries.delete(0, processCpuSeries.getItemCount() - 61);
-                    }
+    /**
+     * Una columna nueva en cada grafico en vivo con el ultimo valor conocido
+     */
+    private void pushLive() {
+        long started = System.nanoTime();
+        SystemSnapshot last = kernelManager.getMetricsHub().getLastSnapshot();
+        boolean fresh = last != null && liveNow(last) - last.getTimestamp() <= MAX_HOLD_MS;
+        liveRow[0] = fresh ? Math.min(last.getCpuLoad() * 100, 100.0) : Double.NaN;
+        cpuStrip.push(liveRow);
+        liveRow[0] = fresh ? last.getMemoryPercent() : Double.NaN;
+        memoryStrip.push(liveRow);
+        liveRow[0] = fresh && selectedPid != -1 ? selectedCpu : Double.NaN;
+        processStrip.push(liveRow);
+        if (!fresh) {
+            Arrays.fill(topValues, Double.NaN);
+        }
+        topStrip.push(topValues);
+        metrics.recordChartUpdate(System.nanoTime() - started);
+    }
+
+    /**
+     * Toma de la ultima foto la CPU de la criatura seleccionada y arma el top del grafico
+     * superpuesto. Una criatura que sigue en el top conserva su serie; las que salen dejan
+     * la serie libre y solo se borra cuando la ocupa otra.
+     */
+    private void updateLiveValues() {
+        ProcessSnapshot processes = kernelManager.getMetricsHub().acquireLastProcesses();
+        if (processes == null) {
+            return;
+        }
+        try {
+            int selected = selectedPid != -1 ? processes.indexOf(selectedPid) : -1;
+            selectedCpu = selected >= 0 ? processes.getCpuPercent(selected) : Double.NaN;
+            int count = topConsumers.select(processes, TopConsumers.Key.CPU, topRows);
+            for (int slot = 0; slot < TOP_PROCESSES; slot++) {
+                int pid = topPids[slot];
+                int index = pid != -1 ? processes.indexOf(pid) : -1;
+                if (index >= 0 && contains(processes, topRows, count, pid)) {
+                    topValues[slot] = processes.getCpuPercent(index);
+                } else if (pid != -1) {
+                    topPids[slot] = -1;
+                    topValues[slot] = Double.NaN;
+                    topStrip.setSeriesLabel(slot, null);
                 }
             }
+            for (int k = 0; k < count; k++) {
+                int row = topRows[k];
+                int pid = processes.getPid(row);
+                if (slotOf(pid) >= 0) {
+                    continue;
+                }
+                int slot = slotOf(-1);
+                topPids[slot] = pid;
+                topValues[slot] = processes.getCpuPercent(row);
+                topStrip.clearSeries(slot);
+                topStrip.setSeriesLabel(slot, processes.getName(row) + " (" + pid + ")");
+            }
+        } finally {
+            processes.release();
+        }
+    }
 
-        } catch (Exception e) {
-            logger.error("Error actualizando gráficos", e);
+    private static boolean contains(ProcessSnapshot processes, int[] rows, int count, int pid) {
+        for (int k = 0; k < count; k++) {
+            if (processes.getPid(rows[k]) == pid) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int slotOf(int pid) {
+        for (int slot = 0; slot < TOP_PROCESSES; slot++) {
+            if (topPids[slot] == pid) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Llena los graficos en vivo del sistema con el ultimo minuto de la historia
+     */
+    private void backfillSystem() {
+        MetricsHub hub = kernelManager.getMetricsHub();
+        SystemSnapshot last = hub.getLastSnapshot();
+        cpuStrip.clear();
+        memoryStrip.clear();
+        if (last == null) {
+            return;
+        }
+        MetricsHistory history = hub.getHistory();
+        ensureHistoryCapacity(history.getSystemCapacity(MetricsHistory.Resolution.RAW));
+        long now = liveNow(last);
+        int count = history.copySystem(MetricsHistory.Resolution.RAW, now - (long) LIVE_COLUMNS * LIVE_RATE_MS,
+                historyTimes, historyCpu, historyBytes);
+        double totalMemory = Math.max(1, last.getMemoryTotal());
+        resample(count, now, i -> Math.min(historyCpu[i], 100.0));
+        cpuStrip.load(0, backfill, LIVE_COLUMNS);
+        resample(count, now, i -> historyBytes[i] * 100.0 / totalMemory);
+        memoryStrip.load(0, backfill, LIVE_COLUMNS);
+    }
+
+    /**
+     * Llena el grafico en vivo de la criatura seleccionada con su ultimo minuto
+     */
+    private void backfillProcess() {
+        processStrip.clearSeries(0);
+        SystemSnapshot last = kernelManager.getMetricsHub().getLastSnapshot();
+        if (selectedPid == -1 || last == null) {
+            return;
+        }
+        ensureHistoryCapacity(MetricsHistory.getProcessCapacity(MetricsHistory.Resolution.RAW));
+        long now = liveNow(last);
+        int count = kernelManager.getMetricsHub().getHistory().copyProcess(selectedPid, MetricsHistory.Resolution.RAW,
+                now - (long) LIVE_COLUMNS * LIVE_RATE_MS, historyTimes, historyCpu, historyBytes);
+        resample(count, now, i -> Math.min(historyCpu[i], 100.0));
+        processStrip.load(0, backfill, LIVE_COLUMNS);
+    }
+
+    private void ensureHistoryCapacity(int capacity) {
+        if (historyTimes.length < capacity) {
+            historyTimes = new long[capacity];
+            historyCpu = new float[capacity];
+            historyBytes = new long[capacity];
+        }
+    }
+
+    /**
+     * Pasa las muestras de la historia (a los tiempos del muestreo) a columnas cada
+     * LIVE_RATE_MS terminando en now, repitiendo el ultimo valor igual que en vivo
+     */
+    private void resample(int count, long now, IntToDoubleFunction value) {
+        int sample = -1;
+        for (int column = 0; column < LIVE_COLUMNS; column++) {
+            long time = now - (long) (LIVE_COLUMNS - 1 - column) * LIVE_RATE_MS;
+            while (sample + 1 < count && historyTimes[sample + 1] <= time) {
+                sample++;
+            }
+            backfill[column] = sample >= 0 && time - historyTimes[sample] <= MAX_HOLD_MS
+                    ? value.applyAsDouble(sample) : Double.NaN;
         }
     }
 
     @Override
     public void dispose() {
-        if (updateTimer != null) {
-            updateTimer.stop();
-        }
+        kernelManager.getMetricsHub().removePropertyChangeListener("system", this);
+        kernelManager.getMetricsHub().removePropertyChangeListener("watched", watchListener);
+        samplingDemand.release();
+        liveTimer.stop();
+        kernelManager.unwatchProcess();
         super.dispose();
     }
 }
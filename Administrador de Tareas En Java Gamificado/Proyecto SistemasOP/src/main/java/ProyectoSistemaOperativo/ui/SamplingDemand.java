@@ -0,0 +1,141 @@
+package ProyectoSistemaOperativo.ui;
+
+import ProyectoSistemaOperativo.kernel.KernelManager;
+
+import java.awt.Frame;
+import java.awt.Window;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Pide muestras al kernel solo mientras la ventana se puede ver: con el intervalo
+ * completo si tiene el foco, con el doble si esta abierta pero sin foco (puede estar
+ * tapada por otra, AWT no permite saberlo) y nada si esta minimizada, oculta o cerrada.
+ * Se usa solo en el EDT.
+ */
+final class SamplingDemand extends WindowAdapter {
+    private static final int UNFOCUSED_FACTOR = 2;
+
+    private final KernelManager kernelManager;
+    private final Window window;
+    private final String consumer;
+    private final long intervalMs;
+    private final Consumer<Boolean> visibilityListener;
+    private final ComponentAdapter componentListener = new ComponentAdapter() {
+        @Override
+        public void componentShown(ComponentEvent e) {
+            update();
+        }
+
+        @Override
+        public void componentHidden(ComponentEvent e) {
+            update();
+        }
+    };
+    private boolean visible;
+
+    SamplingDemand(KernelManager kernelManager, Window window, String consumer, long intervalMs) {
+        this(kernelManager, window, consumer, intervalMs, null);
+    }
+
+    /**
+     * visibilityListener recibe true o false cada vez que la ventana pasa a verse o deja de verse
+     */
+    SamplingDemand(KernelManager kernelManager, Window window, String consumer, long intervalMs,
+                   Consumer<Boolean> visibilityListener) {
+        this.kernelManager = kernelManager;
+        this.window = window;
+        this.consumer = consumer;
+        this.intervalMs = intervalMs;
+        this.visibilityListener = visibilityListener;
+        window.addWindowListener(this);
+        window.addWindowStateListener(this);
+        window.addWindowFocusListener(this);
+        window.addComponentListener(componentListener);
+        update();
+    }
+
+    /**
+     * Retira el pedido y deja de escuchar la ventana, por ejemplo desde su dispose()
+     */
+    void release() {
+        window.removeWindowListener(this);
+        window.removeWindowStateListener(this);
+        window.removeWindowFocusListener(this);
+        window.removeComponentListener(componentListener);
+        kernelManager.removeSamplingDemand(consumer);
+        setVisible(false);
+    }
+
+    boolean isVisible() {
+        return visible;
+    }
+
+    private void update() {
+        boolean iconified = window instanceof Frame && (((Frame) window).getExtendedState() & Frame.ICONIFIED) != 0;
+        boolean showing = window.isShowing() && !iconified;
+        if (showing) {
+            kernelManager.setSamplingDemand(consumer, window.isFocused() ? intervalMs : intervalMs * UNFOCUSED_FACTOR);
+        } else {
+            kernelManager.removeSamplingDemand(consumer);
+        }
+        setVisible(showing);
+    }
+
+    private void setVisible(boolean showing) {
+        if (showing != visible) {
+            visible = showing;
+            if (visibilityListener != null) {
+                visibilityListener.accept(showing);
+            }
+        }
+    }
+
+    /**
+     * "Muestreo: 1000 ms | Consumo propio: 0.8%" para la barra de estado de las ventanas
+     */
+    static String describe(KernelManager kernelManager) {
+        double self = kernelManager.getSelfCpuPercent();
+        return "Muestreo: " + kernelManager.describeSampling() + " | Consumo propio: "
+                + (self < 0 ? "-" : String.format(Locale.ROOT, "%.1f%%", self));
+    }
+
+    @Override
+    public void windowOpened(WindowEvent e) {
+        update();
+    }
+
+    @Override
+    public void windowClosed(WindowEvent e) {
+        release();
+    }
+
+    @Override
+    public void windowIconified(WindowEvent e) {
+        update();
+    }
+
+    @Override
+    public void windowDeiconified(WindowEvent e) {
+        update();
+    }
+
+    @Override
+    public void windowStateChanged(WindowEvent e) {
+        update();
+    }
+
+    @Override
+    public void windowGainedFocus(WindowEvent e) {
+        update();
+    }
+
+    @Override
+    public void windowLostFocus(WindowEvent e) {
+        update();
+    }
+}
@@ -0,0 +1,385 @@
+package ProyectoSistemaOperativo.ui;
+
+import javax.swing.JComponent;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Grafico de tira (strip chart) liviano para datos en vivo. Cada serie es un anillo de
+ * double[] con una columna por muestra; {@link #push(double[])} agrega una columna a
+ * todas las series a la vez.
+ *
+ * Se dibuja sobre una imagen propia: al llegar una columna la imagen se corre a la
+ * izquierda con copyArea y solo se dibuja la franja nueva de la derecha, sin recorrer
+ * la historia. paintComponent solo copia la imagen y pinta encima la escala y la leyenda.
+ * El dibujo completo se hace solo al cambiar de tamaño, de escala o de series, o si
+ * llegaron columnas mientras el componente no se veia. Asi aguanta 10 columnas por
+ * segundo con decenas de series sin que cueste casi nada.
+ *
+ * Un NaN es un hueco: la linea se corta ahi. Se usa solo en el EDT.
+ */
+class StripChart extends JComponent {
+    private static final Color BACKGROUND = new Color(15, 15, 30);
+    private static final Color GRID = new Color(60, 60, 90);
+    private static final Color TEXT = new Color(200, 200, 220);
+    private static final int GRID_LINES = 4;
+
+    private final String title;
+    private final int step;
+    private double min;
+    private double max;
+    private String maxLabel;
+    private String midLabel;
+    private String minLabel;
+    private String unit = "";
+
+    // values[serie][columna]; head es donde va la proxima columna
+    private double[][] values = new double[0][];
+    private String[] labels = new String[0];
+    private Color[] colors = new Color[0];
+    private int seriesCount;
+    private int capacity;
+    private int head;
+    private int size;
+
+    private BufferedImage image;
+    private boolean dirty = true;
+    private int[] xs = new int[0];
+    private int[] ys = new int[0];
+    private BasicStroke stroke;
+
+    /**
+     * step: pixeles por columna; capacity: columnas que se guardan aunque no entren
+     * en el ancho (crece sola si el componente es mas ancho)
+     */
+    StripChart(String title, double min, double max, int step, int capacity) {
+        this.title = title;
+        this.step = Math.max(1, step);
+        this.capacity = Math.max(2, capacity);
+        setRange(min, max);
+        setOpaque(true);
+        setPreferredSize(new Dimension(750, 400));
+    }
+
+    void setRange(double min, double max) {
+        this.min = min;
+        this.max = max > min ? max : min + 1;
+        updateScaleLabels();
+        invalidateImage();
+    }
+
+    /**
+     * Unidad que se agrega a la escala y a la leyenda, por ejemplo "%"
+     */
+    void setUnit(String unit) {
+        this.unit = unit;
+        updateScaleLabels();
+        repaint();
+    }
+
+    /**
+     * Deja count series vacias (todo NaN); los nombres y colores se ponen con setSeriesLabel y setSeriesColor
+     */
+    void setSeriesCount(int count) {
+        values = new double[count][];
+        for (int s = 0; s < count; s++) {
+            values[s] = new double[capacity];
+            Arrays.fill(values[s], Double.NaN);
+        }
+        labels = Arrays.copyOf(labels, count);
+        colors = Arrays.copyOf(colors, count);
+        for (int s = 0; s < count; s++) {
+            if (colors[s] == null) {
+                colors[s] = defaultColor(s);
+            }
+        }
+        seriesCount = count;
+        stroke = new BasicStroke(count > 4 ? 1f : 1.5f);
+        invalidateImage();
+    }
+
+    int getSeriesCount() {
+        return seriesCount;
+    }
+
+    /**
+     * Nombre de la serie en la leyenda, null la deja fuera de la leyenda
+     */
+    void setSeriesLabel(int series, String label) {
+        labels[series] = label;
+        repaint();
+    }
+
+    void setSeriesColor(int series, Color color) {
+        colors[series] = color;
+        invalidateImage();
+    }
+
+    /**
+     * Borra la historia de una serie, por ejemplo porque pasa a mostrar otro proceso
+     */
+    void clearSeries(int series) {
+        Arrays.fill(values[series], Double.NaN);
+        invalidateImage();
+    }
+
+    /**
+     * Borra la historia de todas las series
+     */
+    void clear() {
+        for (int s = 0; s < seriesCount; s++) {
+            Arrays.fill(values[s], Double.NaN);
+        }
+        head = 0;
+        size = 0;
+        invalidateImage();
+    }
+
+    /**
+     * Carga la historia de una serie de una vez: history[0] es la columna mas vieja y
+     * history[count - 1] la mas nueva, alineada con la ultima columna ya agregada
+     */
+    void load(int series, double[] history, int count) {
+        int n = Math.min(count, capacity);
+        double[] ring = values[series];
+        for (int age = 0; age < n; age++) {
+            ring[index(age)] = history[count - 1 - age];
+        }
+        size = Math.max(size, n);
+        invalidateImage();
+    }
+
+    /**
+     * Agrega una columna: row[s] es el valor de la serie s (NaN para un hueco)
+     */
+    void push(double[] row) {
+        for (int s = 0; s < seriesCount; s++) {
+            values[s][head] = s < row.length ? row[s] : Double.NaN;
+        }
+        head = (head + 1) % capacity;
+        size = Math.min(size + 1, capacity);
+        if (image != null && !dirty && isShowing()) {
+            scrollImage();
+        } else {
+            dirty = true;
+        }
+        repaint();
+    }
+
+    /**
+     * Valor de la serie en la columna de edad age (0 es la ultima agregada)
+     */
+    double getValue(int series, int age) {
+        return age < size ? values[series][index(age)] : Double.NaN;
+    }
+
+    private int index(int age) {
+        return ((head - 1 - age) % capacity + capacity) % capacity;
+    }
+
+    private void invalidateImage() {
+        dirty = true;
+        repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        int width = getWidth();
+        int height = getHeight();
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        if (image == null || image.getWidth() != width || image.getHeight() != height) {
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            ensureCapacity(width / step + 2);
+            dirty = true;
+        }
+        if (dirty) {
+            redrawImage();
+        }
+        g.drawImage(image, 0, 0, null);
+        paintOverlay((Graphics2D) g, width, height);
+    }
+
+    /**
+     * Agranda los anillos para cubrir el ancho, conservando las columnas en orden
+     */
+    private void ensureCapacity(int columns) {
+        if (columns <= capacity) {
+            return;
+        }
+        int grown = Math.max(columns, capacity * 2);
+        for (int s = 0; s < seriesCount; s++) {
+            double[] ring = new double[grown];
+            Arrays.fill(ring, Double.NaN);
+            for (int age = 0; age < size; age++) {
+                ring[size - 1 - age] = values[s][index(age)];
+            }
+            values[s] = ring;
+        }
+        head = size % grown;
+        capacity = grown;
+    }
+
+    /**
+     * Corre la imagen una columna a la izquierda y dibuja solo la franja nueva
+     */
+    void scrollImage() {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        Graphics2D g = image.createGraphics();
+        try {
+            g.copyArea(step, 0, width - step, height, -step, 0);
+            int strip = width - step;
+            g.setColor(BACKGROUND);
+            g.fillRect(strip, 0, step, height);
+            drawGrid(g, strip, width, height);
+            prepare(g);
+            int x1 = width - 1;
+            int x0 = x1 - step;
+            for (int s = 0; s < seriesCount; s++) {
+                double v1 = getValue(s, 0);
+                double v0 = getValue(s, 1);
+                if (Double.isNaN(v1) || Double.isNaN(v0)) {
+                    continue;
+                }
+                g.setColor(colors[s]);
+                g.drawLine(x0, y(v0, height), x1, y(v1, height));
+            }
+        } finally {
+            g.dispose();
+        }
+    }
+
+    private void redrawImage() {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setColor(BACKGROUND);
+            g.fillRect(0, 0, width, height);
+            drawGrid(g, 0, width, height);
+            prepare(g);
+            int columns = Math.min(size, width / step + 2);
+            if (xs.length < columns) {
+                xs = new int[columns];
+                ys = new int[columns];
+            }
+            for (int s = 0; s < seriesCount; s++) {
+                g.setColor(colors[s]);
+                // tramos sin huecos, cada uno con un solo drawPolyline
+                int points = 0;
+                for (int age = columns - 1; age >= 0; age--) {
+                    double v = getValue(s, age);
+                    if (Double.isNaN(v)) {
+                        if (points > 1) {
+                            g.drawPolyline(xs, ys, points);
+                        }
+                        points = 0;
+                        continue;
+                    }
+                    xs[points] = width - 1 - age * step;
+                    ys[points] = y(v, height);
+                    points++;
+                }
+                if (points > 1) {
+                    g.drawPolyline(xs, ys, points);
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+        dirty = false;
+    }
+
+    /**
+     * Con pocas series se suaviza; con muchas el suavizado hace que redibujar todo cueste
+     * cientos de milisegundos, y entre tantas lineas ni se nota
+     */
+    private void prepare(Graphics2D g) {
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                seriesCount > 4 ? RenderingHints.VALUE_ANTIALIAS_OFF : RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setStroke(stroke != null ? stroke : new BasicStroke(1.5f));
+    }
+
+    private void drawGrid(Graphics2D g, int fromX, int toX, int height) {
+        g.setColor(GRID);
+        for (int k = 1; k < GRID_LINES; k++) {
+            int y = (height - 1) * k / GRID_LINES;
+            g.drawLine(fromX, y, toX - 1, y);
+        }
+    }
+
+    private int y(double value, int height) {
+        double clamped = Math.max(min, Math.min(max, value));
+        return (int) Math.round((height - 1) * (1 - (clamped - min) / (max - min)));
+    }
+
+    /**
+     * Titulo, escala y leyenda; se pintan encima de la imagen porque no se corren con ella
+     */
+    private void paintOverlay(Graphics2D g, int width, int height) {
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        Font font = getFont();
+        if (font != null) {
+            g.setFont(font);
+        }
+        FontMetrics metrics = g.getFontMetrics();
+        int line = metrics.getHeight();
+        g.setColor(TEXT);
+        g.drawString(maxLabel, 4, metrics.getAscent() + 2);
+        g.drawString(midLabel, 4, height / 2 + metrics.getAscent() / 2);
+        g.drawString(minLabel, 4, height - metrics.getDescent() - 2);
+        if (title != null) {
+            g.drawString(title, (width - metrics.stringWidth(title)) / 2, metrics.getAscent() + 2);
+        }
+        // leyenda arriba a la derecha, con el ultimo valor; las que no entran se omiten
+        int y = line + metrics.getAscent() + 2;
+        for (int s = 0; s < seriesCount && y < height - line; s++) {
+            if (labels[s] == null) {
+                continue;
+            }
+            double last = getValue(s, 0);
+            String value = Double.isNaN(last) ? "-" : "%".equals(unit) ? FormatCache.percent(last) : formatValue(last);
+            int textWidth = metrics.stringWidth(labels[s]) + metrics.stringWidth(value) + 8;
+            int x = width - textWidth - 16;
+            g.setColor(colors[s]);
+            g.fillRect(x, y - metrics.getAscent() + 2, 8, 8);
+            g.setColor(TEXT);
+            g.drawString(labels[s], x + 12, y);
+            g.drawString(value, width - metrics.stringWidth(value) - 4, y);
+            y += line;
+        }
+    }
+
+    private String formatValue(double value) {
+        return String.format("%.1f%s", value, unit);
+    }
+
+    private void updateScaleLabels() {
+        maxLabel = formatValue(max);
+        midLabel = formatValue((min + max) / 2);
+        minLabel = formatValue(min);
+    }
+
+    /**
+     * Colores bien distintos entre si para las primeras series, despues se reparten por tono
+     */
+    static Color defaultColor(int series) {
+        Color[] base = {new Color(255, 90, 90), new Color(90, 200, 255), new Color(120, 230, 120),
+                new Color(255, 200, 60), new Color(200, 120, 255), new Color(255, 140, 200)};
+        if (series < base.length) {
+            return base[series];
+        }
+        float hue = (series * 0.618034f) % 1f;
+        return Color.getHSBColor(hue, 0.6f, 1f);
+    }
+}
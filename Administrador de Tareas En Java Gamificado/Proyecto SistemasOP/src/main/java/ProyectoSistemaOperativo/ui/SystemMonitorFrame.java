@@ -1,25 +1,25 @@
 package ProyectoSistemaOperativo.ui;
 
+import ProyectoSistemaOperativo.kernel.DeviceRate;
+import ProyectoSistemaOperativo.kernel.IoRates;
 import ProyectoSistemaOperativo.kernel.KernelManager;
-import oshi.SystemInfo;
-import oshi.hardware.CentralProcessor;
-import oshi.hardware.GlobalMemory;
-import oshi.hardware.HWDiskStore;
-import oshi.hardware.NetworkIF;
+import ProyectoSistemaOperativo.kernel.ProcessSampler;
+import ProyectoSistemaOperativo.kernel.SystemSnapshot;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.List;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
 
 /**
  * Ventana del Monitor del Sistema - MÓDULO 5
  * Muestra estadísticas de rendimiento del sistema similares al Task Manager
+ * Se suscribe al hub de metricas compartido, no consulta el hardware por su cuenta
  */
-public class SystemMonitorFrame extends JFrame {
+public class SystemMonitorFrame extends JFrame implements PropertyChangeListener {
     private static final Logger logger = LogManager.getLogger(SystemMonitorFrame.class);
-    private Timer refreshTimer;
     private KernelManager kernelManager;
 
     // Componentes de CPU
@@ -34,23 +34,24 @@ public class SystemMonitorFrame extends JFrame {
     // Componentes de Disco
     private JLabel diskReadLabel;
     private JLabel diskWriteLabel;
+    private JLabel diskDetailsLabel;
 
     // Componentes de Red
     private JLabel networkUpLabel;
     private JLabel networkDownLabel;
+    private JLabel networkDetailsLabel;
 
-    private SystemInfo systemInfo;
-    private CentralProcessor processor;
-    private GlobalMemory memory;
+    // Desglose por dispositivo
+    private DeviceTableModel deviceTableModel;
+
+    private JLabel samplingLabel;
+    private SamplingDemand samplingDemand;
 
     public SystemMonitorFrame(KernelManager kernelManager) {
         this.kernelManager = kernelManager;
-        systemInfo = new SystemInfo();
-        processor = systemInfo.getHardware().getProcessor();
-        memory = systemInfo.getHardware().getMemory();
 
         setTitle("Monitor del Sistema");
-        setSize(600, 400);
+        setSize(760, 600);
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
         setLocationRelativeTo(null);
 
@@ -88,11 +89,24 @@ public class SystemMonitorFrame extends JFrame {
         gbc.gridx = 1; gbc.gridy = 2; gbc.gridwidth = 1;
         mainPanel.add(networkPanel, gbc);
 
+        // Tabla por dispositivo
+        deviceTableModel = new DeviceTableModel();
+        JTable deviceTable = new JTable(deviceTableModel);
+        JScrollPane deviceScroll = new JScrollPane(deviceTable);
+        deviceScroll.setBorder(BorderFactory.createTitledBorder("Dispositivos"));
+        deviceScroll.setPreferredSize(new Dimension(720, 160));
+        gbc.gridx = 0; gbc.gridy = 3; gbc.gridwidth = 2;
+        gbc.fill = GridBagConstraints.BOTH;
+        mainPanel.add(deviceScroll, gbc);
+
         add(mainPanel, BorderLayout.CENTER);
 
         // Panel de botones
         JPanel buttonPanel = new JPanel(new FlowLayout());
         buttonPanel.setBackground(new Color(20, 20, 40)); // Fondo oscuro
+        samplingLabel = new JLabel(" ");
+        samplingLabel.setForeground(Color.LIGHT_GRAY);
+        buttonPanel.add(samplingLabel);
         JButton closeButton = new JButton("Cerrar");
         closeButton.setBackground(new Color(100, 50, 50)); // Rojo oscuro
         closeButton.setForeground(Color.WHITE);
@@ -138,60 +152,77 @@ public class SystemMonitorFrame extends JFrame {
     }
 
     private JPanel createDiskPanel() {
-        JPanel panel = new JPanel(new GridLayout(2, 1));
+        JPanel panel = new JPanel(new GridLayout(3, 1));
         panel.setBorder(BorderFactory.createTitledBorder("Disco"));
 
         diskReadLabel = new JLabel("Lectura: Calculando...");
         diskWriteLabel = new JLabel("Escritura: Calculando...");
+        diskDetailsLabel = new JLabel("IOPS: -- | Cola: -- | Ocupado: --");
 
         panel.add(diskReadLabel);
         panel.add(diskWriteLabel);
+        panel.add(diskDetailsLabel);
 
         return panel;
     }
 
     private JPanel createNetworkPanel() {
-        JPanel panel = new JPanel(new GridLayout(2, 1));
+        JPanel panel = new JPanel(new GridLayout(3, 1));
         panel.setBorder(BorderFactory.createTitledBorder("Red"));
 
         networkUpLabel = new JLabel("Subida: Calculando...");
         networkDownLabel = new JLabel("Bajada: Calculando...");
+        networkDetailsLabel = new JLabel("Paquetes/s: -- | Enlace: --");
 
         panel.add(networkUpLabel);
         panel.add(networkDownLabel);
+        panel.add(networkDetailsLabel);
 
         return panel;
     }
 
     private void startAutoRefresh() {
-        refreshTimer = new Timer(1000, e -> updateSystemStats());
-        refreshTimer.start();
+        kernelManager.getMetricsHub().addPropertyChangeListener("system", this);
+        samplingDemand = new SamplingDemand(kernelManager, this, "monitor del sistema", ProcessSampler.DEFAULT_INTERVAL_MS);
+        SystemSnapshot last = kernelManager.getMetricsHub().getLastSnapshot();
+        if (last != null) {
+            updateSystemStats(last);
+        }
     }
 
-    private void updateSystemStats() {
+    @Override
+    public void propertyChange(PropertyChangeEvent evt) {
+        // llega desde el hilo del muestreador
+        SystemSnapshot snapshot = (SystemSnapshot) evt.getNewValue();
+        SwingUtilities.invokeLater(() -> updateSystemStats(snapshot));
+    }
+
+    private void updateSystemStats(SystemSnapshot snapshot) {
         try {
-            updateCpuStats();
-            updateMemoryStats();
-            updateDiskStats();
-            updateNetworkStats();
+            updateCpuStats(snapshot);
+            updateMemoryStats(snapshot);
+            IoRates ioRates = snapshot.getIoRates() != null ? snapshot.getIoRates() : IoRates.EMPTY;
+            updateDiskStats(ioRates.getDiskTotal());
+            updateNetworkStats(ioRates.getNetworkTotal());
+            deviceTableModel.update(ioRates, kernelManager.getMetricsHub().getIoHistory(), snapshot.getTimestamp());
+            samplingLabel.setText(SamplingDemand.describe(kernelManager));
         } catch (Exception e) {
             logger.error("Error actualizando estadísticas del sistema", e);
         }
     }
 
-    private void updateCpuStats() {
-        double[] load = processor.getSystemLoadAverage(1);
-        double cpuLoad = load[0] * 100;
+    private void updateCpuStats(SystemSnapshot snapshot) {
+        double cpuLoad = snapshot.getCpuLoad() * 100;
         cpuLabel.setText(String.format("Uso de CPU: %.1f%%", cpuLoad));
         cpuProgressBar.setValue((int) cpuLoad);
     }
 
-    private void updateMemoryStats() {
-        long totalMemory = memory.getTotal();
-        long availableMemory = memory.getAvailable();
-        long usedMemory = totalMemory - availableMemory;
+    private void updateMemoryStats(SystemSnapshot snapshot) {
+        long totalMemory = snapshot.getMemoryTotal();
+        long availableMemory = snapshot.getMemoryAvailable();
+        long usedMemory = snapshot.getMemoryUsed();
 
-        double memoryPercent = (double) usedMemory / totalMemory * 100;
+        double memoryPercent = snapshot.getMemoryPercent();
 
         memoryLabel.setText(String.format("Uso de Memoria: %.1f%%", memoryPercent));
         memoryProgressBar.setValue((int) memoryPercent);
@@ -204,37 +235,30 @@ public class SystemMonitorFrame extends JFrame {
                 totalGB, usedGB, availableGB));
     }
 
-    private void updateDiskStats() {
-        List<HWDiskStore> disks = systemInfo.getHardware().getDiskStores();
-        long totalReadBytes = 0;
-        long totalWriteBytes = 0;
-
-        for (HWDiskStore disk : disks) {
-            totalReadBytes += disk.getReadBytes();
-            totalWriteBytes += disk.getWriteBytes();
-        }
-
-        String readMB = String.format("%.1f MB/s", totalReadBytes / (1024.0 * 1024.0));
-        String writeMB = String.format("%.1f MB/s", totalWriteBytes / (1024.0 * 1024.0));
-
-        diskReadLabel.setText("Lectura: " + readMB);
-        diskWriteLabel.setText("Escritura: " + writeMB);
+    /**
+     * Tasas entre ticks; antes se mostraban los contadores acumulados desde el arranque como MB/s
+     */
+    private void updateDiskStats(DeviceRate disks) {
+        diskReadLabel.setText("Lectura: " + DeviceTableModel.bytesPerSecond(disks.getReadBytesPerSec()));
+        diskWriteLabel.setText("Escritura: " + DeviceTableModel.bytesPerSecond(disks.getWriteBytesPerSec()));
+        diskDetailsLabel.setText(String.format("IOPS: %s | Cola: %s | Ocupado: %s",
+                disks.getOpsPerSec() < 0 ? "-" : String.format("%.0f", disks.getOpsPerSec()),
+                disks.getQueueLength() < 0 ? "-" : String.format("%.0f", disks.getQueueLength()),
+                DeviceTableModel.percentOrDash(disks.getUtilization())));
     }
 
-    private void updateNetworkStats() {
-        List<NetworkIF> networks = systemInfo.getHardware().getNetworkIFs();
-        long totalBytesSent = 0;
-        long totalBytesRecv = 0;
-
-        for (NetworkIF net : networks) {
-            totalBytesSent += net.getBytesSent();
-            totalBytesRecv += net.getBytesRecv();
-        }
-
-        String upMB = String.format("%.1f MB", totalBytesSent / (1024.0 * 1024.0));
-        String downMB = String.format("%.1f MB", totalBytesRecv / (1024.0 * 1024.0));
+    private void updateNetworkStats(DeviceRate networks) {
+        networkUpLabel.setText("Subida: " + DeviceTableModel.bytesPerSecond(networks.getWriteBytesPerSec()));
+        networkDownLabel.setText("Bajada: " + DeviceTableModel.bytesPerSecond(networks.getReadBytesPerSec()));
+        networkDetailsLabel.setText(String.format("Paquetes/s: %s | Enlace: %s",
+                networks.getOpsPerSec() < 0 ? "-" : String.format("%.0f", networks.getOpsPerSec()),
+                DeviceTableModel.percentOrDash(networks.getUtilization())));
+    }
 
-        networkUpLabel.setText("Subida: " + upMB);
-        networkDownLabel.setText("Bajada: " + downMB);
+    @Override
+    public void dispose() {
+        kernelManager.getMetricsHub().removePropertyChangeListener("system", this);
+        samplingDemand.release();
+        super.dispose();
     }
 }
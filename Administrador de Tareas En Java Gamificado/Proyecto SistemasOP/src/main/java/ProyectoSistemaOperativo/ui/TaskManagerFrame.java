@@ -1,33 +1,36 @@
 package ProyectoSistemaOperativo.ui;
 
+import ProyectoSistemaOperativo.kernel.AlertEngine;
 import ProyectoSistemaOperativo.kernel.KernelManager;
+import ProyectoSistemaOperativo.kernel.ProcessControlResult;
+import ProyectoSistemaOperativo.kernel.ProcessQuery;
+import ProyectoSistemaOperativo.kernel.ProcessSampler;
+import ProyectoSistemaOperativo.kernel.ProcessSearch;
+import ProyectoSistemaOperativo.kernel.ProcessSelector;
+import ProyectoSistemaOperativo.kernel.ProcessSnapshot;
+import ProyectoSistemaOperativo.kernel.SelfMetrics;
 import ProyectoSistemaOperativo.observer.ProcessObserver;
 import ProyectoSistemaOperativo.observer.ProcessObserverImpl;
 import oshi.software.os.OSProcess;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.util.Unbox;
 import javax.swing.*;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableRowSorter;
 import java.awt.*;
 import java.awt.event.ActionListener;
+import java.awt.event.MouseEvent;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
-import java.io.File;
-import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
-import javax.sound.sampled.AudioInputStream;
-import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.Clip;
-import javax.sound.sampled.LineUnavailableException;
-import javax.sound.sampled.UnsupportedAudioFileException;
+import java.util.concurrent.CompletableFuture;
 import javax.swing.RowSorter;
 import javax.swing.SortOrder;
 
-import static oshi.util.FormatUtil.formatBytes;
-
 /**
  * Ventana principal del administrador de tareas,osea la interfaz grafica
  * implementa el patrón observer para ver que proceso esta seleccionado
@@ -35,14 +38,31 @@ import static oshi.util.FormatUtil.formatBytes;
  */
 public class TaskManagerFrame extends JFrame implements PropertyChangeListener {
     private static final Logger logger = LogManager.getLogger(TaskManagerFrame.class);
-    private Timer refreshTimer;
+    private static final String SCOPE_SELECTION = "Seleccionados";
+    private static final String SCOPE_TREE = "Árbol del seleccionado";
+    private static final String SCOPE_FILTERED = "Todos los filtrados";
+    private static final String VIEW_ALL = "Todos los procesos";
+    private static final String VIEW_TOP_CPU = "Top Ataque (CPU)";
+    private static final String VIEW_TOP_MEMORY = "Top Vida (Memoria)";
+    private static final String VIEW_TOP_IO = "Top E/S (Disco)";
+    // filas que tiene el modelo en las vistas de top, en vez de todos los procesos
+    private static final int TOP_CONSUMERS = 50;
+    private static final String MUSIC_RESOURCE = "/ProyectoSistemaOperativo/Undertale  fallen down 1 hour.wav";
 
     private JTable processTable;
-    private DefaultTableModel processTableModel;
+    private ProcessTableModel processTableModel;
+    private JTable treeTable;
+    private ProcessTreeTableModel treeTableModel;
+    private JTabbedPane viewTabs;
     private KernelManager kernelManager;
     private ProcessObserverImpl processObserver;
+    private ProcessSearch processSearch;
+    // Ids de nombre que coinciden con la busqueda, null si no hay texto. Solo en el EDT.
+    private BitSet searchMatches;
 
     private JPanel infoPanel;
+    private JLabel samplingLabel;
+    private SamplingDemand samplingDemand;
     private JButton terminateButton;
     private JButton suspendButton;
     private JButton resumeButton;
@@ -51,9 +71,16 @@ public class TaskManagerFrame extends JFrame implements PropertyChangeListener {
     private JTextField searchField;
     private JComboBox<String> filterComboBox;
     private JComboBox<String> sortComboBox;
-    private TableRowSorter<DefaultTableModel> sorter;
+    private JComboBox<String> scopeComboBox;
+    private JComboBox<String> viewComboBox;
+    // busqueda, clase y top de la vista: solo las filas que pasan llegan al modelo
+    private ProcessQuery query = ProcessQuery.ALL;
+    private ProcessQuery.Sort topSort;
+    private ProcessSelector selector;
+    private TableRowSorter<ProcessTableModel> sorter;
     private int selectedPid = -1;
     private ActionListener priorityListener;
+    private final BackgroundMusic backgroundMusic = new BackgroundMusic(MUSIC_RESOURCE);
 
     public TaskManagerFrame(KernelManager kernelManager) {
         setTitle("System Guardians");
@@ -63,35 +90,50 @@ public class TaskManagerFrame extends JFrame implements PropertyChangeListener {
         getContentPane().setBackground(new Color(20, 20, 40)); // Dark fantasy background
 
         this.kernelManager = kernelManager;
-        processObserver = new ProcessObserverImpl(this);
+        processSearch = new ProcessSearch(kernelManager.getMetricsHub(), ProcessSearch.DEFAULT_DEBOUNCE_MS);
+        processObserver = new ProcessObserverImpl(this, kernelManager.getMetricsHub().getSelfMetrics());
         processObserver.addPropertyChangeListener(this);
         kernelManager.addPropertyChangeListener(processObserver);
 
         initUI();
-        loadProcesses();
         startAutoRefresh();
         initializeResources();
     }
 
     private void initUI() {
-        String[] columns = {"Nivel", "Criatura", "Ataque", "Vida", "Estado", "Clase"};
-        processTableModel = new DefaultTableModel(columns, 0) {
+        selector = new ProcessSelector(kernelManager.getMetricsHub().getClassifier());
+        processTableModel = new ProcessTableModel(kernelManager.getMetricsHub().getClassifier(),
+                kernelManager::describeProcessCommand);
+        processTable = new JTable(processTableModel) {
+            // la ruta y la linea de comandos se piden solo para la fila bajo el mouse, en el
+            // hilo de muestreo; mientras llegan se muestra un aviso
             @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
+            public String getToolTipText(MouseEvent e) {
+                int viewRow = rowAtPoint(e.getPoint());
+                if (viewRow < 0) {
+                    return null;
+                }
+                int modelRow = convertRowIndexToModel(viewRow);
+                String command = processTableModel.getCommandAt(modelRow);
+                if (!processTableModel.isCommandLoaded(modelRow)) {
+                    return "Leyendo ruta y comando...";
+                }
+                return command == null || command.isEmpty() ? null : toHtml(command);
             }
         };
-        processTable = new JTable(processTableModel);
-        processTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        ToolTipManager.sharedInstance().registerComponent(processTable);
+        processTable.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
         processTable.setBackground(new Color(30, 30, 50));
         processTable.setForeground(Color.WHITE);
         processTable.setGridColor(new Color(100, 100, 150));
 
-        sorter = new TableRowSorter<>(processTableModel);
+        sorter = new ProcessRowSorter(processTableModel);
         processTable.setRowSorter(sorter);
 
         // Custom renderer for CPU column to highlight high CPU usage
-        processTable.getColumnModel().getColumn(2).setCellRenderer(new HighCpuRenderer());
+        processTable.getColumnModel().getColumn(ProcessTableModel.COL_CPU).setCellRenderer(new HighCpuRenderer());
+        processTable.getColumnModel().getColumn(ProcessTableModel.COL_MEMORY).setCellRenderer(new MemoryRenderer());
+        processTable.getColumnModel().getColumn(ProcessTableModel.COL_IO).setCellRenderer(new IoRenderer());
 
         processTable.getSelectionModel().addListSelectionListener(new ListSelectionListener() {
             @Override
@@ -99,7 +141,7 @@ public class TaskManagerFrame extends JFrame implements PropertyChangeListener {
                 int selectedRow = processTable.getSelectedRow();
                 if (selectedRow != -1) {
                     int modelRow = processTable.convertRowIndexToModel(selectedRow);
-                    int pid = (int) processTableModel.getValueAt(modelRow, 0);
+                    int pid = processTableModel.getPidAt(modelRow);
                     processObserver.setObservedProcessId(pid);
                 }
             }
@@ -108,6 +150,12 @@ public class TaskManagerFrame extends JFrame implements PropertyChangeListener {
         JScrollPane scrollPane = new JScrollPane(processTable);
         scrollPane.setBackground(new Color(20, 20, 40));
 
+        // Vista de arbol: padres e hijos con los totales de cada subarbol
+        viewTabs = new JTabbedPane();
+        viewTabs.addTab("Lista", scrollPane);
+        viewTabs.addTab("Árbol", createTreePanel());
+        viewTabs.addChangeListener(e -> loadProcesses());
+
         // Panel de búsqueda y filtros
         JPanel searchPanel = new JPanel(new FlowLayout());
         searchPanel.setBackground(new Color(40, 40, 60));
@@ -115,27 +163,51 @@ public class TaskManagerFrame extends JFrame implements PropertyChangeListener {
         searchField.setBackground(Color.BLACK);
         searchField.setForeground(Color.WHITE);
         searchField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
-            public void changedUpdate(javax.swing.event.DocumentEvent e) { applyFilters(); }
-            public void removeUpdate(javax.swing.event.DocumentEvent e) { applyFilters(); }
-            public void insertUpdate(javax.swing.event.DocumentEvent e) { applyFilters(); }
+            public void changedUpdate(javax.swing.event.DocumentEvent e) { searchProcesses(); }
+            public void removeUpdate(javax.swing.event.DocumentEvent e) { searchProcesses(); }
+            public void insertUpdate(javax.swing.event.DocumentEvent e) { searchProcesses(); }
         });
-        filterComboBox = new JComboBox<>(new String[]{"Todos", "Guardianes", "Aliados", "Enemigos"});
+        filterComboBox = new JComboBox<>();
+        fillClassFilter();
         filterComboBox.setBackground(new Color(50, 50, 70));
         filterComboBox.setForeground(Color.WHITE);
         filterComboBox.addActionListener(e -> applyFilters());
-        sortComboBox = new JComboBox<>(new String[]{"Ninguno", "Nivel Ascendente", "Nivel Descendente", "Nombre Ascendente", "Nombre Descendente", "Ataque Descendente", "Vida Descendente"});
+        sortComboBox = new JComboBox<>(new String[]{"Ninguno", "Nivel Ascendente", "Nivel Descendente", "Nombre Ascendente", "Nombre Descendente", "Ataque Descendente", "Vida Descendente", "E/S Descendente"});
         sortComboBox.setBackground(new Color(50, 50, 70));
         sortComboBox.setForeground(Color.WHITE);
         sortComboBox.addActionListener(e -> applySorting());
+        viewComboBox = new JComboBox<>(new String[]{VIEW_ALL, VIEW_TOP_CPU, VIEW_TOP_MEMORY, VIEW_TOP_IO});
+        viewComboBox.setBackground(new Color(50, 50, 70));
+        viewComboBox.setForeground(Color.WHITE);
+        viewComboBox.addActionListener(e -> applyView());
         searchPanel.add(new JLabel("Rastreador de Criaturas:"));
         searchPanel.add(searchField);
         searchPanel.add(new JLabel("Filtro de Clase:"));
         searchPanel.add(filterComboBox);
         searchPanel.add(new JLabel("Ordenar por:"));
         searchPanel.add(sortComboBox);
+        searchPanel.add(new JLabel("Vista:"));
+        searchPanel.add(viewComboBox);
+        JButton reloadRulesButton = new JButton("Recargar Clases");
+        reloadRulesButton.setBackground(new Color(50, 50, 70));
+        reloadRulesButton.setForeground(Color.WHITE);
+        reloadRulesButton.addActionListener(e -> reloadClassificationRules());
+        searchPanel.add(reloadRulesButton);
+
+        JCheckBox muteCheckBox = new JCheckBox("Silenciar");
+        muteCheckBox.setBackground(new Color(40, 40, 60));
+        muteCheckBox.setForeground(Color.WHITE);
+        muteCheckBox.addActionListener(e -> backgroundMusic.setMuted(muteCheckBox.isSelected()));
+        JSlider volumeSlider = new JSlider(0, 100, 100);
+        volumeSlider.setPreferredSize(new Dimension(100, volumeSlider.getPreferredSize().height));
+        volumeSlider.setBackground(new Color(40, 40, 60));
+        volumeSlider.addChangeListener(e -> backgroundMusic.setVolume(volumeSlider.getValue() / 100f));
+        searchPanel.add(new JLabel("Música:"));
+        searchPanel.add(volumeSlider);
+        searchPanel.add(muteCheckBox);
 
         // Panel de información del proceso seleccionado
-        infoPanel = new JPanel(new GridLayout(4, 2));
+        infoPanel = new JPanel(new GridLayout(5, 2));
         terminateButton = new JButton("Terminar Proceso");
         terminateButton.setEnabled(false);
         terminateButton.setBackground(new Color(150, 50, 50)); // Rojo oscuro
@@ -161,6 +233,11 @@ public class TaskManagerFrame extends JFrame implements PropertyChangeListener {
         priorityListener = e -> changePriority();
         priorityComboBox.addActionListener(priorityListener);
 
+        // Alcance de las acciones: la seleccion, el arbol del proceso o todo lo que muestra el filtro
+        scopeComboBox = new JComboBox<>(new String[]{SCOPE_SELECTION, SCOPE_TREE, SCOPE_FILTERED});
+        scopeComboBox.setBackground(new Color(50, 50, 70));
+        scopeComboBox.setForeground(Color.WHITE);
+
         detailsButton = new JButton("Detalles del Proceso");
         detailsButton.setEnabled(false);
         detailsButton.setBackground(new Color(100, 50, 100)); // Morado oscuro
@@ -190,179 +267,284 @@ public class TaskManagerFrame extends JFrame implements PropertyChangeListener {
         infoPanel.add(chartsButton);
         infoPanel.add(systemMonitorButton);
         infoPanel.add(closeButton);
+        infoPanel.add(new JLabel("Alcance de Terminar/Suspender/Reanudar:"));
+        infoPanel.add(scopeComboBox);
+
+        // Barra de estado: ritmo de muestreo y cuanto consume la propia aplicacion
+        samplingLabel = new JLabel(" ");
+        samplingLabel.setForeground(Color.LIGHT_GRAY);
+        JPanel southPanel = new JPanel(new BorderLayout());
+        southPanel.setBackground(new Color(20, 20, 40));
+        southPanel.add(infoPanel, BorderLayout.CENTER);
+        southPanel.add(samplingLabel, BorderLayout.SOUTH);
 
         setLayout(new BorderLayout());
         add(searchPanel, BorderLayout.NORTH);
-        add(scrollPane, BorderLayout.CENTER);
-        add(infoPanel, BorderLayout.SOUTH);
+        add(viewTabs, BorderLayout.CENTER);
+        add(southPanel, BorderLayout.SOUTH);
         logger.info("Interfaz TaskManagerFrame inicializada.");
     }
 
+    /**
+     * Tabla del arbol de procesos con botones para expandir y colapsar todo.
+     * Un clic en la flecha o doble clic en la fila expande o colapsa; tambien las flechas del teclado.
+     */
+    private JPanel createTreePanel() {
+        treeTableModel = new ProcessTreeTableModel(kernelManager.getMetricsHub().getClassifier());
+        treeTable = new JTable(treeTableModel);
+        treeTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        treeTable.setBackground(new Color(30, 30, 50));
+        treeTable.setForeground(Color.WHITE);
+        treeTable.setGridColor(new Color(100, 100, 150));
+        treeTable.getColumnModel().getColumn(ProcessTreeTableModel.COL_TREE).setPreferredWidth(320);
+        treeTable.getColumnModel().getColumn(ProcessTreeTableModel.COL_TREE).setCellRenderer(new TreeLabelRenderer());
+        treeTable.getColumnModel().getColumn(ProcessTreeTableModel.COL_CPU).setCellRenderer(new HighCpuRenderer());
+        treeTable.getColumnModel().getColumn(ProcessTreeTableModel.COL_TREE_CPU).setCellRenderer(new HighCpuRenderer());
+        treeTable.getColumnModel().getColumn(ProcessTreeTableModel.COL_TREE_MEMORY).setCellRenderer(new MemoryRenderer());
+
+        treeTable.getSelectionModel().addListSelectionListener(e -> {
+            int selectedRow = treeTable.getSelectedRow();
+            if (!e.getValueIsAdjusting() && selectedRow != -1) {
+                processObserver.setObservedProcessId(treeTableModel.getPidAt(selectedRow));
+            }
+        });
+        treeTable.addMouseListener(new java.awt.event.MouseAdapter() {
+            @Override
+            public void mouseClicked(java.awt.event.MouseEvent e) {
+                int row = treeTable.rowAtPoint(e.getPoint());
+                if (row < 0) {
+                    return;
+                }
+                Rectangle cell = treeTable.getCellRect(row, ProcessTreeTableModel.COL_TREE, false);
+                int arrowStart = cell.x + treeTableModel.getDepthAt(row) * TreeLabelRenderer.INDENT;
+                boolean onArrow = e.getX() >= arrowStart && e.getX() < arrowStart + TreeLabelRenderer.INDENT;
+                if (onArrow || e.getClickCount() == 2) {
+                    treeTableModel.toggle(row);
+                    restoreTreeSelection();
+                }
+            }
+        });
+        treeTable.getInputMap(JComponent.WHEN_ANCESTOR_OF_FOCUSED_COMPONENT).put(KeyStroke.getKeyStroke("RIGHT"), "expandir");
+        treeTable.getInputMap(JComponent.WHEN_ANCESTOR_OF_FOCUSED_COMPONENT).put(KeyStroke.getKeyStroke("LEFT"), "colapsar");
+        treeTable.getActionMap().put("expandir", new AbstractAction() {
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                setSelectedTreeNodeExpanded(true);
+            }
+        });
+        treeTable.getActionMap().put("colapsar", new AbstractAction() {
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                setSelectedTreeNodeExpanded(false);
+            }
+        });
+
+        JButton expandAllButton = new JButton("Expandir todo");
+        expandAllButton.setBackground(new Color(50, 50, 70));
+        expandAllButton.setForeground(Color.WHITE);
+        expandAllButton.addActionListener(e -> {
+            treeTableModel.expandAll();
+            restoreTreeSelection();
+        });
+        JButton collapseAllButton = new JButton("Colapsar todo");
+        collapseAllButton.setBackground(new Color(50, 50, 70));
+        collapseAllButton.setForeground(Color.WHITE);
+        collapseAllButton.addActionListener(e -> {
+            treeTableModel.collapseAll();
+            restoreTreeSelection();
+        });
+        JPanel treeButtons = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        treeButtons.setBackground(new Color(40, 40, 60));
+        treeButtons.add(expandAllButton);
+        treeButtons.add(collapseAllButton);
+
+        JScrollPane treeScrollPane = new JScrollPane(treeTable);
+        treeScrollPane.setBackground(new Color(20, 20, 40));
+        JPanel treePanel = new JPanel(new BorderLayout());
+        treePanel.add(treeButtons, BorderLayout.NORTH);
+        treePanel.add(treeScrollPane, BorderLayout.CENTER);
+        return treePanel;
+    }
+
+    private void setSelectedTreeNodeExpanded(boolean open) {
+        int row = treeTable.getSelectedRow();
+        if (row != -1) {
+            treeTableModel.setExpanded(row, open);
+            restoreTreeSelection();
+        }
+    }
+
+    /**
+     * Si el arbol cambio de filas la seleccion se pierde; se vuelve a marcar el proceso observado
+     */
+    private void restoreTreeSelection() {
+        if (selectedPid == -1 || treeTable.getSelectedRow() != -1) {
+            return;
+        }
+        int row = treeTableModel.rowOf(selectedPid);
+        if (row != -1) {
+            treeTable.setRowSelectionInterval(row, row);
+        }
+    }
+
+    private boolean isTreeVisible() {
+        return viewTabs.getSelectedIndex() == 1;
+    }
+
     private void initializeResources() {
         // Cargar icono
         try {
             ImageIcon icon = new ImageIcon(TaskManagerFrame.class.getResource("/ProyectoSistemaOperativo/icono.png"));
             setIconImage(icon.getImage());
+            // las alertas llegan tambien con la ventana minimizada
+            if (TrayAlertNotifier.isSupported()) {
+                kernelManager.getAlertEngine().addNotifier(AlertEngine.TRAY, new TrayAlertNotifier(icon.getImage()));
+            }
         } catch (Exception e) {
             logger.error("Error al cargar el icono", e);
         }
 
-        // Reproducir música después de que la ventana sea visible
-        SwingUtilities.invokeLater(() -> playAudio("/ProyectoSistemaOperativo/Undertale  fallen down 1 hour.wav"));
-    }
-
-    private void playAudio(String audioFilePath) {
-        try {
-            // Obtener el archivo de audio desde el classpath
-            File audioFile = new File(TaskManagerFrame.class.getResource(audioFilePath).toURI());
-            AudioInputStream audioStream = AudioSystem.getAudioInputStream(audioFile);
-            Clip clip = AudioSystem.getClip();
-            clip.open(audioStream);
-            clip.start();
-            logger.info("Reproduciendo audio: " + audioFilePath);
-        } catch (UnsupportedAudioFileException | IOException | LineUnavailableException | java.net.URISyntaxException e) {
-            logger.error("Error al reproducir el audio", e);
-        }
+        // Música después de que la ventana sea visible; se lee por partes en su propio hilo
+        SwingUtilities.invokeLater(backgroundMusic::start);
     }
 
     private void loadProcesses() {
-        List<OSProcess> processes = kernelManager.getProcesses();
-        processTableModel.setRowCount(0);
-        for (OSProcess process : processes) {
-            double cpuLoad = process.getProcessCpuLoadCumulative();
-            double cpuPercentValue = Math.min(cpuLoad * 100, 100.0); // Cap at 100%
-            String cpuPercent = String.format("%.1f%%", cpuPercentValue);
-            String type = getProcessType(process);
-            String creatureName = getCreatureName(process.getName());
-            Object[] row = {
-                    process.getProcessID(), // Nivel
-                    creatureName, // Criatura
-                    cpuPercent, // Ataque
-                    formatBytes(process.getResidentSetSize()), // Vida
-                    process.getState().name(), // Estado
-                    type // Clase
-            };
-            processTableModel.addRow(row);
-        }
-        logger.info("Cargadas " + processes.size() + " criaturas en el reino.");
-    }
-
-    private String getCreatureName(String processName) {
-        // Map common processes to creature names
-        switch (processName.toLowerCase()) {
-            case "chrome.exe": return "Dragón de Fuego";
-            case "explorer.exe": return "Guardián del Bosque";
-            case "svchost.exe": return "Espíritu Ancestral";
-            case "system": return "Rey de las Sombras";
-            case "idle": return "Espíritu Pacífico";
-            case "python.exe": return "Mago Oscuro";
-            case "java.exe": return "Caballero Místico";
-            case "steam.exe": return "Invocador";
-            default: return processName; // Keep original if not mapped
-        }
+        // La muestra se toma en el hilo del muestreador y llega por updateProcessTable
+        kernelManager.requestRefresh();
     }
 
-    private String getProcessType(OSProcess process) {
-        int pid = process.getProcessID();
-        String name = process.getName().toLowerCase();
-        if (pid < 100) {
-            return "Guardianes";
-        } else if (name.contains("discord") || name.contains("word") || name.contains("excel") || name.contains("powerpoint") || name.contains("notepad") || name.contains("calc")) {
-            return "Enemigos";
-        } else {
-            return "Aliados";
+    /**
+     * Llena el filtro de clase con las clases que definen las reglas actuales
+     */
+    private void fillClassFilter() {
+        Object selected = filterComboBox.getSelectedItem();
+        filterComboBox.removeAllItems();
+        filterComboBox.addItem("Todos");
+        for (String className : kernelManager.getMetricsHub().getClassifier().getClassNames()) {
+            filterComboBox.addItem(className);
         }
+        filterComboBox.setSelectedItem(selected != null ? selected : "Todos");
     }
 
-    private void applyFilters() {
-        String searchText = searchField.getText().toLowerCase();
-        String filter = (String) filterComboBox.getSelectedItem();
-
-        RowFilter<DefaultTableModel, Object> rowFilter = new RowFilter<DefaultTableModel, Object>() {
-            public boolean include(Entry<? extends DefaultTableModel, ? extends Object> entry) {
-                String name = entry.getStringValue(1).toLowerCase();
-                if (!name.contains(searchText)) return false;
-
-                if ("Guardianes".equals(filter)) {
-                    String type = entry.getStringValue(5); // Tipo is column 5
-                    if (!"Guardianes".equals(type)) return false;
-                } else if ("Aliados".equals(filter)) {
-                    String type = entry.getStringValue(5); // Tipo is column 5
-                    if (!"Aliados".equals(type)) return false;
-                } else if ("Enemigos".equals(filter)) {
-                    String type = entry.getStringValue(5); // Tipo is column 5
-                    if (!"Enemigos".equals(type)) return false;
-                }
+    /**
+     * Relee el archivo de reglas; las filas se reclasifican en el siguiente tick
+     */
+    private void reloadClassificationRules() {
+        kernelManager.getMetricsHub().getClassifier().reload();
+        fillClassFilter();
+        loadProcesses();
+    }
 
-                return true;
-            }
-        };
-        sorter.setRowFilter(rowFilter);
+    /**
+     * La busqueda se resuelve en el hilo de ProcessSearch; aqui solo se recibe el resultado
+     */
+    private void searchProcesses() {
+        processSearch.search(searchField.getText(), matches -> SwingUtilities.invokeLater(() -> {
+            searchMatches = matches;
+            applyFilters();
+        }));
     }
 
-    private double parseMemory(String memStr) {
+    /**
+     * Arma la consulta con la busqueda, la clase y la vista, y la aplica sobre la ultima
+     * foto sin esperar al siguiente tick
+     */
+    private void applyFilters() {
+        String filter = (String) filterComboBox.getSelectedItem();
+        ProcessQuery next = ProcessQuery.ALL
+                .withNameIds(searchMatches)
+                .withProcessClass(filter == null || "Todos".equals(filter) ? null : filter);
+        if (topSort != null) {
+            next = next.withSort(topSort).withLimit(TOP_CONSUMERS);
+        }
+        query = next;
+        ProcessSnapshot last = kernelManager.getMetricsHub().acquireLastProcesses();
+        if (last == null) {
+            return;
+        }
         try {
-            if (memStr.endsWith("GB")) {
-                return Double.parseDouble(memStr.replace("GB", "").trim()) * 1024;
-            } else if (memStr.endsWith("MB")) {
-                return Double.parseDouble(memStr.replace("MB", "").trim());
-            } else if (memStr.endsWith("KB")) {
-                return Double.parseDouble(memStr.replace("KB", "").trim()) / 1024;
-            } else {
-                return Double.parseDouble(memStr.replace("B", "").trim()) / 1024 / 1024;
-            }
-        } catch (NumberFormatException e) {
-            return 0;
+            updateProcessTable(last);
+        } finally {
+            last.release();
         }
     }
 
-    private double parseCpu(String cpuStr) {
-        try {
-            return Double.parseDouble(cpuStr.replace("%", "").trim());
-        } catch (NumberFormatException e) {
-            return 0;
+    /**
+     * Texto de varias lineas para un tooltip, que solo respeta los saltos en HTML
+     */
+    private static String toHtml(String text) {
+        StringBuilder html = new StringBuilder("<html>");
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<': html.append("&lt;"); break;
+                case '>': html.append("&gt;"); break;
+                case '&': html.append("&amp;"); break;
+                case '\n': html.append("<br>"); break;
+                default: html.append(c);
+            }
         }
+        return html.append("</html>").toString();
     }
 
+    /**
+     * La ventana pide una foto por segundo mientras se ve; minimizada no pide nada
+     */
     private void startAutoRefresh() {
-        refreshTimer = new Timer(1000, e -> {
-            kernelManager.updateProcessList();
-        });
-        refreshTimer.start();
-    }
-
-    public void updateProcessTable(List<OSProcess> processes) {
-        DefaultTableModel model = (DefaultTableModel) processTable.getModel();
-        model.setRowCount(0);
-
-        for (OSProcess p : processes) {
-            double cpuLoad = p.getProcessCpuLoadCumulative();
-            double cpuPercentValue = Math.min(cpuLoad * 100, 100.0); // Cap at 100%
-            String cpuPercent = String.format("%.1f%%", cpuPercentValue);
-            String type = getProcessType(p);
-            String creatureName = getCreatureName(p.getName());
-            model.addRow(new Object[]{
-                    p.getProcessID(), // Nivel
-                    creatureName, // Criatura
-                    cpuPercent, // Ataque
-                    formatBytes(p.getResidentSetSize()), // Vida
-                    p.getState().name(), // Estado
-                    type // Clase
-            });
+        kernelManager.startSampling();
+        samplingDemand = new SamplingDemand(kernelManager, this, "ventana principal", ProcessSampler.DEFAULT_INTERVAL_MS);
+    }
+
+    /**
+     * Aplica una foto ya terminada, se llama siempre en el EDT.
+     * El modelo solo notifica las filas que cambiaron, la seleccion no se pierde.
+     */
+    public void updateProcessTable(ProcessSnapshot snapshot) {
+        long started = System.nanoTime();
+        long allocated = SelfMetrics.allocatedBytes();
+        applyProcessSnapshot(snapshot);
+        long allocatedAfter = SelfMetrics.allocatedBytes();
+        kernelManager.getMetricsHub().getSelfMetrics()
+                .recordTableUpdate(System.nanoTime() - started, allocated < 0 ? -1 : allocatedAfter - allocated);
+    }
+
+    private void applyProcessSnapshot(ProcessSnapshot snapshot) {
+        samplingLabel.setText(SamplingDemand.describe(kernelManager));
+        // solo se actualiza la pestaña visible, la otra se pone al dia al cambiar de pestaña
+        if (isTreeVisible()) {
+            treeTableModel.applySnapshot(snapshot);
+            restoreTreeSelection();
+            return;
         }
+        if (!query.isFiltered() && query.getLimit() == 0) {
+            processTableModel.applySnapshot(snapshot);
+            return;
+        }
+        // solo las filas que pasan la consulta llegan al modelo, el sorter y los repintados trabajan sobre esas
+        int count = selector.select(snapshot, query);
+        int[] rows = selector.getRows();
+        // el modelo hace el merge en orden de PID, que es el orden de los indices de la foto
+        Arrays.sort(rows, 0, count);
+        processTableModel.applySnapshot(snapshot, rows, count);
+    }
 
-        // Re-select the previously selected process if it still exists
-        if (selectedPid != -1) {
-            for (int i = 0; i < model.getRowCount(); i++) {
-                if ((int) model.getValueAt(i, 0) == selectedPid) {
-                    int viewRow = processTable.convertRowIndexToView(i);
-                    if (viewRow >= 0 && viewRow < processTable.getRowCount()) {
-                        processTable.setRowSelectionInterval(viewRow, viewRow);
-                    }
-                    break;
-                }
-            }
+    /**
+     * Cambia entre la lista completa y un top de consumidores. En el top la tabla se
+     * ordena por el recurso elegido y el top se arma entre los que pasan la busqueda y la clase.
+     */
+    private void applyView() {
+        String view = (String) viewComboBox.getSelectedItem();
+        if (VIEW_TOP_CPU.equals(view)) {
+            topSort = ProcessQuery.Sort.CPU;
+            sortComboBox.setSelectedItem("Ataque Descendente");
+        } else if (VIEW_TOP_MEMORY.equals(view)) {
+            topSort = ProcessQuery.Sort.MEMORY;
+            sortComboBox.setSelectedItem("Vida Descendente");
+        } else if (VIEW_TOP_IO.equals(view)) {
+            topSort = ProcessQuery.Sort.IO;
+            sortComboBox.setSelectedItem("E/S Descendente");
+        } else {
+            topSort = null;
         }
+        applyFilters();
     }
 
     @Override
@@ -371,7 +553,9 @@ public class TaskManagerFrame extends JFrame implements PropertyChangeListener {
             int oldPid = (int) evt.getOldValue();
             int newPid = (int) evt.getNewValue();
             selectedPid = newPid;
-            logger.info("Cambio en observedProcessId: " + oldPid + " -> " + newPid);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Cambio en observedProcessId: {} -> {}", Unbox.box(oldPid), Unbox.box(newPid));
+            }
             updateProcessInfo(newPid);
         }
     }
@@ -397,51 +581,112 @@ public class TaskManagerFrame extends JFrame implements PropertyChangeListener {
     }
 
     private void terminateSelectedProcess() {
+        if (runBatchIfNeeded(ProcessControlResult.Action.TERMINATE, "terminar")) {
+            return;
+        }
         if (selectedPid != -1) {
-            boolean success = kernelManager.terminateProcess(selectedPid);
-            if (success) {
-                JOptionPane.showMessageDialog(this, "Proceso terminado exitosamente. ¡Has ganado 10 puntos de experiencia!", "Éxito", JOptionPane.INFORMATION_MESSAGE);
-                loadProcesses(); // Recargar la lista de procesos
-                selectedPid = -1;
-                updateProcessInfo(selectedPid);
-            } else {
-                JOptionPane.showMessageDialog(this, "No se pudo terminar el proceso.", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            int pid = selectedPid;
+            // la accion corre fuera del EDT, solo el resultado vuelve a la interfaz
+            kernelManager.terminateProcess(pid).thenAccept(result -> SwingUtilities.invokeLater(() -> {
+                if (result.isSuccess()) {
+                    JOptionPane.showMessageDialog(this, "Proceso terminado exitosamente. ¡Has ganado 10 puntos de experiencia!", "Éxito", JOptionPane.INFORMATION_MESSAGE);
+                    loadProcesses(); // Recargar la lista de procesos
+                    if (selectedPid == pid) {
+                        selectedPid = -1;
+                        updateProcessInfo(selectedPid);
+                    }
+                } else {
+                    JOptionPane.showMessageDialog(this, "No se pudo terminar el proceso: " + result.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }));
         }
     }
 
     private void suspendSelectedProcess() {
+        if (runBatchIfNeeded(ProcessControlResult.Action.SUSPEND, "suspender")) {
+            return;
+        }
         if (selectedPid != -1) {
-            boolean success = kernelManager.suspendProcess(selectedPid);
-            if (success) {
-                JOptionPane.showMessageDialog(this, "Proceso suspendido exitosamente.", "Éxito", JOptionPane.INFORMATION_MESSAGE);
-            } else {
-                JOptionPane.showMessageDialog(this, "No se pudo suspender el proceso.", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            showResult(kernelManager.suspendProcess(selectedPid),
+                    "Proceso suspendido exitosamente.", "No se pudo suspender el proceso");
         }
     }
 
     private void resumeSelectedProcess() {
+        if (runBatchIfNeeded(ProcessControlResult.Action.RESUME, "reanudar")) {
+            return;
+        }
         if (selectedPid != -1) {
-            boolean success = kernelManager.resumeProcess(selectedPid);
-            if (success) {
-                JOptionPane.showMessageDialog(this, "Proceso reanudado exitosamente.", "Éxito", JOptionPane.INFORMATION_MESSAGE);
-            } else {
-                JOptionPane.showMessageDialog(this, "No se pudo reanudar el proceso.", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            showResult(kernelManager.resumeProcess(selectedPid),
+                    "Proceso reanudado exitosamente.", "No se pudo reanudar el proceso");
         }
     }
 
     private void changePriority() {
         if (selectedPid != -1) {
             String priority = (String) priorityComboBox.getSelectedItem();
-            boolean success = kernelManager.changePriority(selectedPid, priority);
-            if (success) {
-                JOptionPane.showMessageDialog(this, "Prioridad cambiada exitosamente.", "Éxito", JOptionPane.INFORMATION_MESSAGE);
-            } else {
-                JOptionPane.showMessageDialog(this, "No se pudo cambiar la prioridad.", "Error", JOptionPane.ERROR_MESSAGE);
+            showResult(kernelManager.changePriority(selectedPid, priority),
+                    "Prioridad cambiada exitosamente.", "No se pudo cambiar la prioridad");
+        }
+    }
+
+    /**
+     * Si el alcance elegido abarca mas de un proceso lanza la accion en lote
+     * y muestra un solo resumen. Devuelve false si es una accion sobre un solo proceso.
+     */
+    private boolean runBatchIfNeeded(ProcessControlResult.Action action, String verb) {
+        String scope = (String) scopeComboBox.getSelectedItem();
+        int[] pids;
+        if (SCOPE_TREE.equals(scope)) {
+            if (selectedPid == -1) {
+                return true;
             }
+            pids = kernelManager.resolveProcessTree(selectedPid);
+        } else if (SCOPE_FILTERED.equals(scope)) {
+            pids = new int[processTable.getRowCount()];
+            for (int viewRow = 0; viewRow < pids.length; viewRow++) {
+                pids[viewRow] = processTableModel.getPidAt(processTable.convertRowIndexToModel(viewRow));
+            }
+        } else {
+            int[] selectedRows = processTable.getSelectedRows();
+            if (selectedRows.length <= 1) {
+                return false;
+            }
+            pids = new int[selectedRows.length];
+            for (int k = 0; k < selectedRows.length; k++) {
+                pids[k] = processTableModel.getPidAt(processTable.convertRowIndexToModel(selectedRows[k]));
+            }
+        }
+        if (pids.length == 0) {
+            return true;
         }
+        int answer = JOptionPane.showConfirmDialog(this, "¿Seguro que quieres " + verb + " " + pids.length + " procesos?",
+                "Acción en lote", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
+        if (answer != JOptionPane.YES_OPTION) {
+            return true;
+        }
+        kernelManager.runBatch(action, null, pids).thenAccept(result -> SwingUtilities.invokeLater(() -> {
+            int type = result.getFailed() == 0 ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.WARNING_MESSAGE;
+            JOptionPane.showMessageDialog(this, String.format("Exitosos: %d  Fallidos: %d  (de %d procesos)",
+                    result.getSucceeded(), result.getFailed(), result.getRequested()), "Acción en lote", type);
+            if (action == ProcessControlResult.Action.TERMINATE) {
+                loadProcesses();
+            }
+        }));
+        return true;
+    }
+
+    /**
+     * Muestra el resultado de una accion cuando termine, sin bloquear el EDT mientras tanto
+     */
+    private void showResult(CompletableFuture<ProcessControlResult> action, String successMessage, String errorMessage) {
+        action.thenAccept(result -> SwingUtilities.invokeLater(() -> {
+            if (result.isSuccess()) {
+                JOptionPane.showMessageDialog(this, successMessage, "Éxito", JOptionPane.INFORMATION_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(this, errorMessage + ": " + result.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        }));
     }
 
     private void showProcessDetails() {
@@ -485,6 +730,9 @@ public class TaskManagerFrame extends JFrame implements PropertyChangeListener {
             case "Vida Descendente":
                 sortKeys.add(new RowSorter.SortKey(3, SortOrder.DESCENDING));
                 break;
+            case "E/S Descendente":
+                sortKeys.add(new RowSorter.SortKey(ProcessTableModel.COL_IO, SortOrder.DESCENDING));
+                break;
             case "Ninguno":
             default:
                 // No sorting
@@ -495,31 +743,73 @@ public class TaskManagerFrame extends JFrame implements PropertyChangeListener {
     }
 
     // Custom renderer for CPU column to highlight high CPU usage
-    private static class HighCpuRenderer extends javax.swing.table.DefaultTableCellRenderer {
+    // El valor llega como Double, el texto sale de FormatCache sin crear Strings
+    static class HighCpuRenderer extends javax.swing.table.DefaultTableCellRenderer {
+        private double cpuPercent;
+
+        @Override
+        protected void setValue(Object value) {
+            cpuPercent = value instanceof Number ? ((Number) value).doubleValue() : 0;
+            setText(value == null ? "" : FormatCache.percent(cpuPercent));
+        }
+
         @Override
         public java.awt.Component getTableCellRendererComponent(javax.swing.JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
             super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
 
-            if (value instanceof String) {
-                try {
-                    double cpuPercent = Double.parseDouble(((String) value).replace("%", "").trim());
-                    if (cpuPercent > 50) {
-                        setBackground(java.awt.Color.RED);
-                        setForeground(java.awt.Color.WHITE);
-                    } else if (cpuPercent > 20) {
-                        setBackground(java.awt.Color.YELLOW);
-                        setForeground(java.awt.Color.BLACK);
-                    } else {
-                        setBackground(table.getBackground());
-                        setForeground(table.getForeground());
-                    }
-                } catch (NumberFormatException e) {
-                    setBackground(table.getBackground());
-                    setForeground(table.getForeground());
-                }
+            if (cpuPercent > 50) {
+                setBackground(java.awt.Color.RED);
+                setForeground(java.awt.Color.WHITE);
+            } else if (cpuPercent > 20) {
+                setBackground(java.awt.Color.YELLOW);
+                setForeground(java.awt.Color.BLACK);
+            } else {
+                setBackground(table.getBackground());
+                setForeground(table.getForeground());
             }
 
             return this;
         }
     }
+
+    // Renderer de la columna Vida, formatea los bytes solo al pintar
+    static class MemoryRenderer extends javax.swing.table.DefaultTableCellRenderer {
+        @Override
+        protected void setValue(Object value) {
+            setText(value instanceof Number ? FormatCache.bytes(((Number) value).longValue()) : "");
+        }
+    }
+
+    // Renderer de la columna Criatura del arbol: sangria segun la profundidad del proceso
+    static class TreeLabelRenderer extends javax.swing.table.DefaultTableCellRenderer {
+        static final int INDENT = 16;
+        private javax.swing.border.Border[] borders = new javax.swing.border.Border[0];
+
+        @Override
+        public java.awt.Component getTableCellRendererComponent(javax.swing.JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
+            super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+            int depth = ((ProcessTreeTableModel) table.getModel()).getDepthAt(table.convertRowIndexToModel(row));
+            if (depth >= borders.length) {
+                borders = Arrays.copyOf(borders, depth + 8);
+            }
+            if (borders[depth] == null) {
+                borders[depth] = BorderFactory.createEmptyBorder(0, 2 + depth * INDENT, 0, 0);
+            }
+            setBorder(borders[depth]);
+            return this;
+        }
+    }
+
+    // Renderer de la columna E/S, bytes por segundo o "-" si el proceso no deja leer su E/S
+    static class IoRenderer extends javax.swing.table.DefaultTableCellRenderer {
+        @Override
+        protected void setValue(Object value) {
+            if (!(value instanceof Number)) {
+                setText("");
+                return;
+            }
+            long bytesPerSecond = ((Number) value).longValue();
+            setText(bytesPerSecond < 0 ? "-" : DeviceTableModel.bytesPerSecond(bytesPerSecond));
+        }
+    }
 }
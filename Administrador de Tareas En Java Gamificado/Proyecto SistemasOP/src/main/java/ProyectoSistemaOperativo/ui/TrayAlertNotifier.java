@@ -0,0 +1,58 @@
+package ProyectoSistemaOperativo.ui;
+
+import ProyectoSistemaOperativo.kernel.AlertEvent;
+import ProyectoSistemaOperativo.kernel.AlertNotifier;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.swing.SwingUtilities;
+import java.awt.AWTException;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.SystemTray;
+import java.awt.TrayIcon;
+
+/**
+ * Aviso "bandeja": muestra la alerta como notificacion del icono en la bandeja del sistema.
+ * El icono se agrega con la primera alerta y todo se hace en el EDT, el hilo del
+ * muestreador solo encola.
+ */
+final class TrayAlertNotifier implements AlertNotifier {
+    private static final Logger logger = LogManager.getLogger(TrayAlertNotifier.class);
+
+    private final Image image;
+    private TrayIcon trayIcon;
+    private boolean failed;
+
+    TrayAlertNotifier(Image image) {
+        this.image = image;
+    }
+
+    static boolean isSupported() {
+        return !GraphicsEnvironment.isHeadless() && SystemTray.isSupported();
+    }
+
+    @Override
+    public void notify(AlertEvent event) {
+        SwingUtilities.invokeLater(() -> show(event));
+    }
+
+    private void show(AlertEvent event) {
+        if (failed) {
+            return;
+        }
+        if (trayIcon == null) {
+            trayIcon = new TrayIcon(image, "Administrador de Tareas");
+            trayIcon.setImageAutoSize(true);
+            try {
+                SystemTray.getSystemTray().add(trayIcon);
+            } catch (AWTException e) {
+                logger.warn("No se pudo agregar el icono a la bandeja: {}", e.getMessage());
+                failed = true;
+                return;
+            }
+        }
+        trayIcon.displayMessage(event.isFiring() ? "Alerta disparada" : "Alerta resuelta", event.getMessage(),
+                event.isFiring() ? TrayIcon.MessageType.WARNING : TrayIcon.MessageType.INFO);
+    }
+}